@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.resource.Projection;
+import lombok.Value;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Describes the cache pre-warm phase run at startup: how many of the persisted hot keys to load, in which projection,
+ * with how many loads at once, and how long the phase may hold up readiness.
+ */
+@Value
+@ConstructorBinding
+public class PrewarmPolicy {
+
+    boolean enabled;
+
+    int topN;
+
+    Projection projection;
+
+    int concurrency;
+
+    Duration timeout;
+
+    public PrewarmPolicy(
+            @DefaultValue("true") final boolean enabled,
+            @DefaultValue("500") final int topN,
+            @DefaultValue("DETAILS") final Projection projection,
+            @DefaultValue("4") final int concurrency,
+            @DefaultValue("30s") final Duration timeout
+    ) {
+        this.enabled = enabled;
+        this.topN = topN;
+        this.projection = projection;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+    }
+
+}
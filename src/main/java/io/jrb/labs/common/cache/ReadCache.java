@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.entity.EntityChangeEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches single-entity reads by entity type, guid and projection, for up to the configured time to live and number
+ * of entries. Every change to an entity drops its entries in all projections. A read that started before a change
+ * is not cached once it completes, because it may have seen the old state: {@link #put} is given the
+ * {@link #generation()} observed before the read and refuses the entry if any change arrived since.
+ * <p>
+ * The cache is held per instance and only sees the change events of its own instance, so a write served by another
+ * instance goes unnoticed until the entry expires: an entry may be up to the time to live behind the database, and
+ * its version with it. The cache is therefore off unless {@code read-cache.enabled} is set and {@code read-cache} is
+ * named among the interceptors, and its time to live should be kept as short as the clients can tolerate.
+ */
+public class ReadCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ReadCache(final ReadCacheDatafill readCacheDatafill) {
+        this.maxEntries = readCacheDatafill.getMaxEntries();
+        this.ttlNanos = readCacheDatafill.getTtl().toNanos();
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public Resource<?> get(final String type, final String guid, final Projection projection) {
+        final String key = key(type, guid, projection);
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.resource;
+    }
+
+    public void put(final Projection projection, final Resource<?> resource, final long observedGeneration) {
+        if (generation.get() != observedGeneration) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key(resource.getType(), resource.getGuid(), projection),
+                new Entry(resource, System.nanoTime() + ttlNanos));
+    }
+
+    public void invalidate(final String type, final String guid) {
+        generation.incrementAndGet();
+        for (final Projection projection : Projection.values()) {
+            entries.remove(key(type, guid, projection));
+        }
+    }
+
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        invalidate(event.getEntityType(), event.getGuid());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String key(final String type, final String guid, final Projection projection) {
+        return type + '/' + guid + '/' + projection.ordinal();
+    }
+
+    private static final class Entry {
+
+        private final Resource<?> resource;
+        private final long expiresAt;
+
+        Entry(final Resource<?> resource, final long expiresAt) {
+            this.resource = resource;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
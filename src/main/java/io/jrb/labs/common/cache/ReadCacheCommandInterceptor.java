@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandChain;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.service.command.CommandInterceptor;
+import io.jrb.labs.common.service.command.entity.EntityCommandContext;
+import io.jrb.labs.common.service.command.entity.FindEntityCommand;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves {@link FindEntityCommand} executions from the {@link ReadCache} when it holds the entity in the requested
+ * projection, and caches the result of every other find. Sparse finds, which read only part of the entity, are
+ * neither served nor cached. It runs before the retry interceptor, so a cache hit never reaches the database at
+ * all.
+ */
+public class ReadCacheCommandInterceptor implements CommandInterceptor, Ordered {
+
+    private final ReadCache readCache;
+
+    public ReadCacheCommandInterceptor(final ReadCache readCache) {
+        this.readCache = readCache;
+    }
+
+    @Override
+    public String getName() {
+        return "read-cache";
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <I, O, C extends CommandContext<I, O, C>> Publisher<C> intercept(
+            final Command<I, O, C> command,
+            final C context,
+            final CommandChain<C> chain
+    ) {
+        if (!(command instanceof FindEntityCommand) || context.getProjection() == null
+                || ((EntityCommandContext<?, ?, ?>) context).getFields() != null) {
+            return chain.proceed(context);
+        }
+        final String guid = ((EntityCommandContext<?, ?, ?>) context).getGuid();
+        final Projection projection = context.getProjection();
+        final Resource<?> cached = readCache.get(context.getEntityType(), guid, projection);
+        if (cached != null) {
+            return Mono.just(context.withOutput((O) cached));
+        }
+        final long generation = readCache.generation();
+        return Flux.from(chain.proceed(context))
+                .doOnNext(ctx -> readCache.put(projection, (Resource<?>) ctx.getOutput(), generation));
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.hotkeys.HotKeySnapshotStore;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.ApplicationStartup;
+
+@Configuration
+@EnableConfigurationProperties(ReadCacheDatafill.class)
+@ConditionalOnProperty(name = "read-cache.enabled", havingValue = "true")
+public class ReadCacheJavaConfig {
+
+    @Bean
+    public ReadCache readCache(final ReadCacheDatafill readCacheDatafill, final MeterRegistry meterRegistry) {
+        final ReadCache readCache = new ReadCache(readCacheDatafill);
+        Gauge.builder("cache.read.size", readCache, ReadCache::size).register(meterRegistry);
+        return readCache;
+    }
+
+    @Bean
+    public ReadCacheCommandInterceptor readCacheCommandInterceptor(final ReadCache readCache) {
+        return new ReadCacheCommandInterceptor(readCache);
+    }
+
+    @Bean
+    public ReadCachePrewarmer readCachePrewarmer(
+            final ReadCache readCache,
+            final ReadCacheDatafill readCacheDatafill,
+            final CacheLoader cacheLoader,
+            final EntityServiceProperties entSvcProps,
+            final ObjectProvider<HotKeySnapshotStore> hotKeySnapshotStore,
+            final ApplicationStartup applicationStartup,
+            final MeterRegistry meterRegistry
+    ) {
+        return new ReadCachePrewarmer(readCache, readCacheDatafill, cacheLoader, entSvcProps, hotKeySnapshotStore,
+                applicationStartup, meterRegistry);
+    }
+
+}
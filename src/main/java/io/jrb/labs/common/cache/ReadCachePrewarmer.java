@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.hotkeys.HotKey;
+import io.jrb.labs.common.hotkeys.HotKeySnapshotStore;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the read cache before the application reports itself ready to take traffic. Application runners complete
+ * before readiness changes to {@code ACCEPTING_TRAFFIC}, so the phase holds readiness back for at most the policy's
+ * timeout. It loads every entity of the types marked {@code prewarm} in {@code entity-service.entities}, then the top
+ * N keys of the persisted hot key snapshot. The phase is recorded as the {@code entity-service.cache.prewarm} startup
+ * step and in the {@code cache.prewarm.duration} and {@code cache.prewarm.entities} metrics.
+ */
+@Slf4j
+public class ReadCachePrewarmer implements ApplicationRunner {
+
+    private static final String STARTUP_STEP = "entity-service.cache.prewarm";
+
+    private final ReadCache readCache;
+    private final PrewarmPolicy policy;
+    private final CacheLoader cacheLoader;
+    private final EntityServiceProperties entSvcProps;
+    private final ObjectProvider<HotKeySnapshotStore> hotKeySnapshotStore;
+    private final ApplicationStartup applicationStartup;
+    private final MeterRegistry meterRegistry;
+
+    public ReadCachePrewarmer(
+            final ReadCache readCache,
+            final ReadCacheDatafill readCacheDatafill,
+            final CacheLoader cacheLoader,
+            final EntityServiceProperties entSvcProps,
+            final ObjectProvider<HotKeySnapshotStore> hotKeySnapshotStore,
+            final ApplicationStartup applicationStartup,
+            final MeterRegistry meterRegistry
+    ) {
+        this.readCache = readCache;
+        this.policy = readCacheDatafill.getPrewarm();
+        this.cacheLoader = cacheLoader;
+        this.entSvcProps = entSvcProps;
+        this.hotKeySnapshotStore = hotKeySnapshotStore;
+        this.applicationStartup = applicationStartup;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        if (!policy.isEnabled()) {
+            return;
+        }
+        final StartupStep step = applicationStartup.start(STARTUP_STEP);
+        final long startTime = System.nanoTime();
+        final Projection projection = policy.getProjection();
+        final long generation = readCache.generation();
+
+        final Long warmed = Flux.concat(smallTypes(projection), hotKeys(projection))
+                .doOnNext(resource -> readCache.put(projection, resource, generation))
+                .take(policy.getTimeout())
+                .count()
+                .onErrorResume(t -> {
+                    log.warn("Cache pre-warm failed", t);
+                    return Mono.just(0L);
+                })
+                .block();
+
+        final long duration = System.nanoTime() - startTime;
+        final boolean timedOut = duration >= policy.getTimeout().toNanos();
+        step.tag("entities", String.valueOf(warmed));
+        step.tag("timedOut", String.valueOf(timedOut));
+        step.end();
+        meterRegistry.timer("cache.prewarm.duration").record(duration, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("cache.prewarm.entities").increment(warmed != null ? warmed : 0);
+        log.info("Pre-warmed {} cache entries in {} ms{}", warmed, Duration.ofNanos(duration).toMillis(),
+                timedOut ? " (timed out)" : "");
+    }
+
+    private Flux<Resource<?>> smallTypes(final Projection projection) {
+        return Flux.fromIterable(entSvcProps.getEntities())
+                .filter(EntityType::isPrewarm)
+                .flatMap(entityType -> Flux.<Resource<?>>from(cacheLoader.loadAll(entityType.getType(), projection))
+                        .onErrorResume(t -> skip("type " + entityType.getType(), t)), policy.getConcurrency());
+    }
+
+    private Flux<Resource<?>> hotKeys(final Projection projection) {
+        final Set<String> types = entSvcProps.getEntities().stream()
+                .map(EntityType::getType)
+                .collect(Collectors.toSet());
+        final List<HotKey> hotKeys = hotKeySnapshotStore.stream()
+                .flatMap(store -> store.load().stream())
+                .filter(hotKey -> types.contains(hotKey.getType()))
+                .limit(policy.getTopN())
+                .collect(Collectors.toList());
+        return Flux.fromIterable(hotKeys)
+                .flatMap(hotKey -> load(hotKey, projection), policy.getConcurrency());
+    }
+
+    private Mono<Resource<?>> load(final HotKey hotKey, final Projection projection) {
+        return Mono.<Resource<?>>from(cacheLoader.load(hotKey.getType(), hotKey.getGuid(), projection))
+                .onErrorResume(t -> skip("key " + hotKey.getType() + "/" + hotKey.getGuid(), t));
+    }
+
+    private <T> Mono<T> skip(final String what, final Throwable t) {
+        log.debug("Skipping cache pre-warm of {}", what, t);
+        return Mono.empty();
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public enum CompressionEncoding {
+
+    GZIP("gzip") {
+        @Override
+        DeflaterOutputStream newStream(final OutputStream out, final int level) throws IOException {
+            return new GZIPOutputStream(out, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    },
+
+    DEFLATE("deflate") {
+        @Override
+        DeflaterOutputStream newStream(final OutputStream out, final int level) {
+            return new DeflaterOutputStream(out, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    };
+
+    private final String token;
+
+    CompressionEncoding(final String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Opens a compressing stream whose {@code flush()} performs a sync flush, so that every flushed chunk can be
+     * decoded by the client as soon as it arrives.
+     */
+    abstract DeflaterOutputStream newStream(OutputStream out, int level) throws IOException;
+
+}
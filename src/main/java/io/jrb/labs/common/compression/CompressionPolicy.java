@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.compression;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Describes how responses of the routes matching a path pattern are compressed. Bodies smaller than the minimum
+ * size are sent as they are; streamed bodies are only compressed when the policy allows streaming.
+ */
+@Value
+@ConstructorBinding
+public class CompressionPolicy {
+
+    String path;
+
+    int minSize;
+
+    int level;
+
+    List<CompressionEncoding> encodings;
+
+    boolean streaming;
+
+    public CompressionPolicy(
+            final String path,
+            @DefaultValue("1024") final int minSize,
+            @DefaultValue("6") final int level,
+            @DefaultValue({"GZIP", "DEFLATE"}) final List<CompressionEncoding> encodings,
+            @DefaultValue("false") final boolean streaming
+    ) {
+        this.path = path;
+        this.minSize = minSize;
+        this.level = level;
+        this.encodings = encodings;
+        this.streaming = streaming;
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.compression;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a web filter that compresses responses according to the first {@link CompressionPolicy} whose path pattern
+ * matches the request, using the first of the policy's encodings that the {@code Accept-Encoding} request header
+ * allows. Whole bodies are compressed as they are written once they reach the policy's minimum size; streamed bodies
+ * are compressed chunk by chunk with a sync flush after each one. The compression ratio and CPU time are recorded per
+ * route and encoding.
+ */
+public class CompressionWebFilter implements WebFilter {
+
+    private static final String RATIO_METRIC = "http.server.compression.ratio";
+    private static final String CPU_METRIC = "http.server.compression.cpu";
+
+    private final CompressionDatafill compressionDatafill;
+    private final List<MediaType> mimeTypes;
+    private final List<PathPattern> patterns;
+    private final MeterRegistry meterRegistry;
+
+    public CompressionWebFilter(final CompressionDatafill compressionDatafill, final MeterRegistry meterRegistry) {
+        this.compressionDatafill = compressionDatafill;
+        this.mimeTypes = MediaType.parseMediaTypes(compressionDatafill.getMimeTypes());
+        this.patterns = compressionDatafill.getPolicies().stream()
+                .map(policy -> PathPatternParser.defaultInstance.parse(policy.getPath()))
+                .collect(Collectors.toUnmodifiableList());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        if (!compressionDatafill.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        final Optional<CompressionPolicy> policy = findPolicy(exchange);
+        final Optional<CompressionEncoding> encoding = policy.flatMap(p -> negotiateEncoding(exchange, p));
+        if (encoding.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        final ServerHttpResponse response = new CompressingResponse(
+                exchange.getResponse(),
+                policy.get(),
+                encoding.get()
+        );
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private Optional<CompressionPolicy> findPolicy(final ServerWebExchange exchange) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return Optional.of(compressionDatafill.getPolicies().get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Picks the first of the policy's encodings whose quality in {@code Accept-Encoding} is above zero. A coding named
+     * explicitly takes its own quality, even {@code q=0}; only codings not named fall back to the quality of {@code *}.
+     */
+    private Optional<CompressionEncoding> negotiateEncoding(
+            final ServerWebExchange exchange,
+            final CompressionPolicy policy
+    ) {
+        final Map<String, Double> qualities = new HashMap<>();
+        exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(String::trim)
+                .filter(coding -> !coding.isEmpty())
+                .forEach(coding -> {
+                    final String[] parts = coding.split(";");
+                    qualities.put(parts[0].trim().toLowerCase(Locale.ROOT), quality(parts));
+                });
+        final double wildcard = qualities.getOrDefault("*", 0.0);
+        return policy.getEncodings().stream()
+                .filter(encoding -> qualities.getOrDefault(encoding.getToken(), wildcard) > 0)
+                .findFirst();
+    }
+
+    private static double quality(final String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            final String[] parameter = parts[i].split("=", 2);
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (final NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private void record(final CompressionPolicy policy, final CompressionEncoding encoding, final StreamCompressor c) {
+        if (c.getBytesOut() > 0) {
+            DistributionSummary.builder(RATIO_METRIC)
+                    .tag("route", policy.getPath())
+                    .tag("encoding", encoding.getToken())
+                    .register(meterRegistry)
+                    .record((double) c.getBytesIn() / c.getBytesOut());
+        }
+        Timer.builder(CPU_METRIC)
+                .tag("route", policy.getPath())
+                .tag("encoding", encoding.getToken())
+                .register(meterRegistry)
+                .record(c.getCpuNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private final class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final CompressionPolicy policy;
+        private final CompressionEncoding encoding;
+
+        CompressingResponse(
+                final ServerHttpResponse delegate,
+                final CompressionPolicy policy,
+                final CompressionEncoding encoding
+        ) {
+            super(delegate);
+            this.policy = policy;
+            this.encoding = encoding;
+        }
+
+        /**
+         * Holds back buffers only until the policy's minimum size is reached. A body that completes below it is written
+         * as is; otherwise the held buffers and the rest of the body are deflated as they arrive, without a flush per
+         * buffer, so the whole response is never joined in memory.
+         */
+        @Override
+        public Mono<Void> writeWith(final Publisher<? extends DataBuffer> body) {
+            if (!isCompressible()) {
+                return super.writeWith(body);
+            }
+            final Flux<DataBuffer> buffers = Flux.defer(() -> {
+                final SizeThreshold threshold = new SizeThreshold(policy.getMinSize());
+                return Flux.<DataBuffer>from(body)
+                        .bufferUntil(threshold)
+                        .switchOnFirst((signal, lists) -> threshold.isReached()
+                                ? compressStream(lists.concatMapIterable(Function.identity()))
+                                : lists.concatMapIterable(Function.identity()));
+            });
+            return super.writeWith(buffers.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(final Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!policy.isStreaming() || !isCompressible()) {
+                return super.writeAndFlushWith(body);
+            }
+            final DataBufferFactory bufferFactory = bufferFactory();
+            final StreamCompressor compressor = new StreamCompressor(encoding, policy.getLevel());
+            markEncoded();
+            final Flux<Flux<DataBuffer>> compressed = Flux.from(body)
+                    .map(chunk -> Flux.<DataBuffer>from(chunk)
+                            .map(buffer -> compressor.compress(buffer, bufferFactory)))
+                    .concatWith(Mono.fromSupplier(() -> Flux.just(compressor.finish(bufferFactory))))
+                    .doFinally(signal -> {
+                        record(policy, encoding, compressor);
+                        compressor.close();
+                    });
+            return super.writeAndFlushWith(compressed);
+        }
+
+        private Flux<DataBuffer> compressStream(final Flux<DataBuffer> buffers) {
+            final DataBufferFactory bufferFactory = bufferFactory();
+            final StreamCompressor compressor = new StreamCompressor(encoding, policy.getLevel());
+            markEncoded();
+            return buffers.map(buffer -> compressor.compress(buffer, bufferFactory, false))
+                    .concatWith(Mono.fromSupplier(() -> compressor.finish(bufferFactory)))
+                    .doFinally(signal -> {
+                        record(policy, encoding, compressor);
+                        compressor.close();
+                    });
+        }
+
+        private boolean isCompressible() {
+            final HttpHeaders headers = getHeaders();
+            final MediaType contentType = headers.getContentType();
+            return !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    && contentType != null
+                    && mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(contentType));
+        }
+
+        private void markEncoded() {
+            final HttpHeaders headers = getHeaders();
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.set(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+    }
+
+    /**
+     * Tells {@code bufferUntil} to close the first batch once the buffers seen so far reach the minimum size, and every
+     * batch after it, so only the first one is ever held back.
+     */
+    private static final class SizeThreshold implements Predicate<DataBuffer> {
+
+        private final int minSize;
+        private long size;
+
+        SizeThreshold(final int minSize) {
+            this.minSize = minSize;
+        }
+
+        @Override
+        public boolean test(final DataBuffer buffer) {
+            size += buffer.readableByteCount();
+            return isReached();
+        }
+
+        boolean isReached() {
+            return size >= minSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.compression;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses a response body one buffer at a time, keeping track of the bytes seen and the CPU time spent.
+ */
+final class StreamCompressor implements AutoCloseable {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    private final DeflaterOutputStream stream;
+    private long bytesIn;
+    private long bytesOut;
+    private long cpuNanos;
+
+    StreamCompressor(final CompressionEncoding encoding, final int level) {
+        try {
+            this.stream = encoding.newStream(sink, level);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized DataBuffer compress(final DataBuffer buffer, final DataBufferFactory bufferFactory) {
+        return compress(buffer, bufferFactory, true);
+    }
+
+    synchronized DataBuffer compress(
+            final DataBuffer buffer,
+            final DataBufferFactory bufferFactory,
+            final boolean flush
+    ) {
+        final long start = cpuTime();
+        try {
+            final byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            bytesIn += bytes.length;
+            stream.write(bytes);
+            if (flush) {
+                stream.flush();
+            }
+            return drain(bufferFactory, start);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    synchronized DataBuffer finish(final DataBufferFactory bufferFactory) {
+        final long start = cpuTime();
+        try {
+            stream.finish();
+            return drain(bufferFactory, start);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized long getBytesIn() {
+        return bytesIn;
+    }
+
+    synchronized long getBytesOut() {
+        return bytesOut;
+    }
+
+    synchronized long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            stream.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private DataBuffer drain(final DataBufferFactory bufferFactory, final long start) {
+        final byte[] compressed = sink.toByteArray();
+        sink.reset();
+        bytesOut += compressed.length;
+        cpuNanos += cpuTime() - start;
+        return bufferFactory.wrap(compressed);
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+}
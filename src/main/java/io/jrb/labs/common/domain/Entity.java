@@ -23,6 +23,8 @@
  */
 package io.jrb.labs.common.domain;
 
+import java.time.Instant;
+
 public interface Entity<E extends Entity<E>> {
 
     Long getId();
@@ -33,8 +35,14 @@ public interface Entity<E extends Entity<E>> {
 
     String getName();
 
+    Instant getCreatedOn();
+
+    Instant getUpdatedOn();
+
     long getVersion();
 
     E withGuid(String guid);
 
+    E withName(String name);
+
 }
@@ -25,8 +25,8 @@ package io.jrb.labs.common.h2;
 
 import lombok.extern.slf4j.Slf4j;
 import org.h2.tools.Server;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.ContextClosedEvent;
-import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 
 import java.sql.SQLException;
@@ -41,7 +41,7 @@ public class H2ConsoleServer {
         this.consolePort = consolePort;
     }
 
-    @EventListener({ContextRefreshedEvent.class})
+    @EventListener({ApplicationReadyEvent.class})
     public void start() throws SQLException {
         log.info("starting h2 console at port {}", this.consolePort);
         this.webServer = Server.createWebServer(new String[]{
@@ -53,7 +53,9 @@ public class H2ConsoleServer {
     @EventListener({ContextClosedEvent.class})
     public void stop() {
         log.info("stopping h2 console at port {}", this.consolePort);
-        this.webServer.stop();
+        if (this.webServer != null) {
+            this.webServer.stop();
+        }
     }
 
 }
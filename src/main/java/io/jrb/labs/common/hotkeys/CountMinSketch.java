@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.hotkeys;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A count-min sketch: a fixed grid of counters, one row per hash function, that estimates how often each key has been
+ * added. Estimates never undercount, and overcount only by the collisions of the least-collided row. Each row hashes
+ * the key's characters with its own MurmurHash3 seed, so keys that collide in one row, including keys with equal
+ * {@link String#hashCode()}, are unlikely to collide in the others. The counters are atomic, so keys can be added from
+ * many threads without locking.
+ */
+final class CountMinSketch {
+
+    private static final int C1 = 0xCC9E2D51;
+    private static final int C2 = 0x1B873593;
+    private static final int SEED_STEP = 0x9E3779B9;
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+
+    CountMinSketch(final int depth, final int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * Counts one occurrence of the key, returning its new estimated count.
+     */
+    long add(final String key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(key, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the estimated count of the key without counting it.
+     */
+    long estimate(final String key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(key, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter, so that older occurrences weigh half as much as newer ones.
+     */
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int index(final String key, final int row) {
+        return row * width + Math.floorMod(murmur3(key, SEED_STEP * (row + 1)), width);
+    }
+
+    /**
+     * MurmurHash3 (x86, 32-bit) over the UTF-16 code units of the key, two to a block.
+     */
+    static int murmur3(final String key, final int seed) {
+        final int length = key.length();
+        int h = seed;
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            h ^= mixK(key.charAt(i) | (key.charAt(i + 1) << 16));
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xE6546B64;
+        }
+        if (i < length) {
+            h ^= mixK(key.charAt(i));
+        }
+        h ^= length * Character.BYTES;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixK(final int block) {
+        return Integer.rotateLeft(block * C1, 15) * C2;
+    }
+
+}
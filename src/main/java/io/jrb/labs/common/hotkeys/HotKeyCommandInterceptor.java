@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.hotkeys;
+
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandChain;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.service.command.CommandInterceptor;
+import io.jrb.labs.common.service.command.entity.FindEntityCommand;
+import io.jrb.labs.common.service.command.entity.GetEntitiesCommand;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+
+/**
+ * Feeds the {@link HotKeyTracker} with every entity returned by a {@link FindEntityCommand} or
+ * {@link GetEntitiesCommand}, keyed by entity type and guid. It runs outside the other interceptors so that each
+ * entity returned to the client is counted once, however many attempts it took.
+ */
+public class HotKeyCommandInterceptor implements CommandInterceptor, Ordered {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public HotKeyCommandInterceptor(final HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @Override
+    public String getName() {
+        return "hot-keys";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public <I, O, C extends CommandContext<I, O, C>> Publisher<C> intercept(
+            final Command<I, O, C> command,
+            final C context,
+            final CommandChain<C> chain
+    ) {
+        if (!(command instanceof FindEntityCommand) && !(command instanceof GetEntitiesCommand)) {
+            return chain.proceed(context);
+        }
+        return Flux.from(chain.proceed(context))
+                .doOnNext(ctx -> {
+                    if (ctx.getOutput() instanceof Resource) {
+                        hotKeyTracker.record(ctx.getEntityType(), ((Resource<?>) ctx.getOutput()).getGuid());
+                    }
+                });
+    }
+
+}
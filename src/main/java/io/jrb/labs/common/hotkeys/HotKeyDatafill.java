@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.hotkeys;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Value
+@ConstructorBinding
+@ConfigurationProperties("hot-keys")
+public class HotKeyDatafill {
+
+    boolean enabled;
+
+    int depth;
+
+    int width;
+
+    int topK;
+
+    Duration decayInterval;
+
+    String snapshotFile;
+
+    Duration snapshotInterval;
+
+    public HotKeyDatafill(
+            @DefaultValue("true") final boolean enabled,
+            @DefaultValue("4") final int depth,
+            @DefaultValue("4096") final int width,
+            @DefaultValue("100") final int topK,
+            @DefaultValue("1m") final Duration decayInterval,
+            final String snapshotFile,
+            @DefaultValue("5m") final Duration snapshotInterval
+    ) {
+        this.enabled = enabled;
+        this.depth = depth;
+        this.width = width;
+        this.topK = topK;
+        this.decayInterval = decayInterval;
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+}
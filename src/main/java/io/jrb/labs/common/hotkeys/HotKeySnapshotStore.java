@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.hotkeys;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persists the current hot keys to {@code hot-keys.snapshot-file} once per {@code hot-keys.snapshot-interval} and
+ * when the application shuts down, one tab-separated type, guid and count per line, so that the next instance can
+ * warm its caches with what was popular before the deploy, even one that follows a crash. The file is written to a
+ * temporary sibling and moved into place, so a reader never sees a partial snapshot, and an instance that has yet to
+ * see any traffic leaves the previous snapshot alone. The file should live on a volume that survives the deploy and
+ * is shared by the instances of the service; each instance then replaces the snapshot with its own ranking.
+ */
+@Slf4j
+public class HotKeySnapshotStore implements DisposableBean {
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path snapshotFile;
+    private final Duration snapshotInterval;
+    private final HotKeyTracker hotKeyTracker;
+    private Disposable schedule;
+
+    public HotKeySnapshotStore(final HotKeyDatafill hotKeyDatafill, final HotKeyTracker hotKeyTracker) {
+        this.snapshotFile = Path.of(hotKeyDatafill.getSnapshotFile());
+        this.snapshotInterval = hotKeyDatafill.getSnapshotInterval();
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @EventListener({ApplicationReadyEvent.class})
+    public synchronized void start() {
+        if (schedule == null && snapshotInterval != null) {
+            schedule = Flux.interval(snapshotInterval, Schedulers.boundedElastic())
+                    .subscribe(ignored -> save());
+        }
+    }
+
+    public List<HotKey> load() {
+        if (!Files.isReadable(snapshotFile)) {
+            return List.of();
+        }
+        try (Stream<String> lines = Files.lines(snapshotFile, StandardCharsets.UTF_8)) {
+            return lines.map(line -> line.split(SEPARATOR))
+                    .filter(fields -> fields.length == 3)
+                    .map(fields -> new HotKey(fields[0], fields[1], Long.parseLong(fields[2])))
+                    .collect(Collectors.toList());
+        } catch (final IOException | UncheckedIOException | NumberFormatException e) {
+            log.warn("Unable to read hot key snapshot {}", snapshotFile, e);
+            return List.of();
+        }
+    }
+
+    public synchronized void save() {
+        final List<String> lines = hotKeyTracker.findHotKeys().stream()
+                .map(hotKey -> String.join(SEPARATOR,
+                        hotKey.getType(), hotKey.getGuid(), String.valueOf(hotKey.getEstimatedCount())))
+                .collect(Collectors.toList());
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            final Path target = snapshotFile.toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            final Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, lines, StandardCharsets.UTF_8);
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (final IOException e) {
+            log.warn("Unable to write hot key snapshot {}", snapshotFile, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (schedule != null) {
+                schedule.dispose();
+            }
+        }
+        save();
+    }
+
+}
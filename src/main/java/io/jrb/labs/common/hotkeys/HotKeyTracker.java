@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.hotkeys;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the most frequently read entities in constant memory. Every read is counted in a {@link CountMinSketch}, and
+ * up to K candidates keep the keys with the highest estimated counts. A read of a key that is already a candidate only
+ * raises that candidate's count, without taking a lock; a key that is not yet one takes the lock only once its
+ * estimate beats the smallest candidate count, which is then found by a scan of the K candidates. All counts are
+ * halved once per decay interval, so the ranking follows the current traffic rather than the whole uptime.
+ */
+public class HotKeyTracker {
+
+    private final CountMinSketch sketch;
+    private final int topK;
+    private final long decayIntervalNanos;
+    private final AtomicLong nextDecay;
+    private final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
+    private volatile long threshold;
+
+    public HotKeyTracker(final HotKeyDatafill hotKeyDatafill) {
+        this.sketch = new CountMinSketch(hotKeyDatafill.getDepth(), hotKeyDatafill.getWidth());
+        this.topK = hotKeyDatafill.getTopK();
+        this.decayIntervalNanos = hotKeyDatafill.getDecayInterval().toNanos();
+        this.nextDecay = new AtomicLong(System.nanoTime() + decayIntervalNanos);
+    }
+
+    public void record(final String type, final String guid) {
+        decayIfDue();
+        final String key = type + '/' + guid;
+        final long estimate = sketch.add(key);
+        final Candidate candidate = candidates.get(key);
+        if (candidate != null) {
+            candidate.raise(estimate);
+        } else if (estimate > threshold) {
+            offer(key, type, guid, estimate);
+        }
+    }
+
+    public List<HotKey> findHotKeys() {
+        return candidates.values().stream()
+                .map(c -> new HotKey(c.type, c.guid, c.count.get()))
+                .sorted(Comparator.comparingLong(HotKey::getEstimatedCount).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public List<HotKey> findHotKeys(final String type) {
+        return findHotKeys().stream()
+                .filter(hotKey -> hotKey.getType().equals(type))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Halves the sketch and every candidate count. Called once per decay interval by {@link #record}.
+     */
+    synchronized void decay() {
+        sketch.decay();
+        candidates.values().forEach(c -> c.count.updateAndGet(count -> count >>> 1));
+        updateThreshold();
+    }
+
+    private synchronized void offer(final String key, final String type, final String guid, final long estimate) {
+        final Candidate existing = candidates.get(key);
+        if (existing != null) {
+            existing.raise(estimate);
+            return;
+        }
+        if (candidates.size() >= topK) {
+            final Candidate smallest = findSmallest();
+            if (estimate <= smallest.count.get()) {
+                threshold = smallest.count.get();
+                return;
+            }
+            candidates.remove(smallest.key);
+        }
+        candidates.put(key, new Candidate(key, type, guid, estimate));
+        updateThreshold();
+    }
+
+    private Candidate findSmallest() {
+        Candidate smallest = null;
+        for (final Candidate candidate : candidates.values()) {
+            if (smallest == null || candidate.count.get() < smallest.count.get()) {
+                smallest = candidate;
+            }
+        }
+        return smallest;
+    }
+
+    private void updateThreshold() {
+        threshold = candidates.size() < topK ? 0 : findSmallest().count.get();
+    }
+
+    private void decayIfDue() {
+        final long now = System.nanoTime();
+        final long due = nextDecay.get();
+        if (now - due >= 0 && nextDecay.compareAndSet(due, now + decayIntervalNanos)) {
+            decay();
+        }
+    }
+
+    private static final class Candidate {
+
+        private final String key;
+        private final String type;
+        private final String guid;
+        private final AtomicLong count;
+
+        Candidate(final String key, final String type, final String guid, final long count) {
+            this.key = key;
+            this.type = type;
+            this.guid = guid;
+            this.count = new AtomicLong(count);
+        }
+
+        void raise(final long estimate) {
+            count.accumulateAndGet(estimate, Math::max);
+        }
+
+    }
+
+}
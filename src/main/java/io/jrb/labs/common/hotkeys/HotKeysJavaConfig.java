@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.hotkeys;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HotKeyDatafill.class)
+@ConditionalOnProperty(name = "hot-keys.enabled", havingValue = "true", matchIfMissing = true)
+public class HotKeysJavaConfig {
+
+    @Bean
+    public HotKeyTracker hotKeyTracker(final HotKeyDatafill hotKeyDatafill) {
+        return new HotKeyTracker(hotKeyDatafill);
+    }
+
+    @Bean
+    public HotKeyCommandInterceptor hotKeyCommandInterceptor(final HotKeyTracker hotKeyTracker) {
+        return new HotKeyCommandInterceptor(hotKeyTracker);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hot-keys.snapshot-file")
+    public HotKeySnapshotStore hotKeySnapshotStore(
+            final HotKeyDatafill hotKeyDatafill,
+            final HotKeyTracker hotKeyTracker
+    ) {
+        return new HotKeySnapshotStore(hotKeyDatafill, hotKeyTracker);
+    }
+
+    @Bean
+    public HotKeysEndpoint hotKeysEndpoint(final HotKeyTracker hotKeyTracker) {
+        return new HotKeysEndpoint(hotKeyTracker);
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.loadshedding;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Describes the concurrency limit applied to the routes matching a path pattern. A disabled policy exempts its routes
+ * from limiting, which keeps long-lived streams from being matched by a broader pattern further down the list.
+ */
+@Value
+@ConstructorBinding
+public class ConcurrencyLimitPolicy {
+
+    String path;
+
+    boolean enabled;
+
+    ConcurrencyLimitAlgorithm algorithm;
+
+    int initialLimit;
+
+    int minLimit;
+
+    int maxLimit;
+
+    Duration latencyThreshold;
+
+    double backoffRatio;
+
+    double smoothing;
+
+    public ConcurrencyLimitPolicy(
+            final String path,
+            @DefaultValue("true") final boolean enabled,
+            @DefaultValue("GRADIENT") final ConcurrencyLimitAlgorithm algorithm,
+            @DefaultValue("20") final int initialLimit,
+            @DefaultValue("1") final int minLimit,
+            @DefaultValue("200") final int maxLimit,
+            @DefaultValue("500ms") final Duration latencyThreshold,
+            @DefaultValue("0.9") final double backoffRatio,
+            @DefaultValue("0.2") final double smoothing
+    ) {
+        this.path = path;
+        this.enabled = enabled;
+        this.algorithm = algorithm;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = latencyThreshold;
+        this.backoffRatio = backoffRatio;
+        this.smoothing = smoothing;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.loadshedding;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests while fewer than the current limit are in flight, and adjusts the limit from the latency of every
+ * completed request according to the policy's algorithm. Either algorithm only raises the limit when the request
+ * started with at least half of it in use; below that the route is limited by its callers rather than by the limit,
+ * and good latency says nothing about how much more it could take.
+ */
+final class ConcurrencyLimiter {
+
+    private static final double LONG_RTT_WEIGHT = 0.05;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ConcurrencyLimitPolicy policy;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRttNanos;
+
+    ConcurrencyLimiter(final ConcurrencyLimitPolicy policy) {
+        this.policy = policy;
+        this.latencyThresholdNanos = policy.getLatencyThreshold().toNanos();
+        this.limit = policy.getInitialLimit();
+    }
+
+    /**
+     * Takes a slot when one is free, returning the number of requests in flight including this one, or zero when the
+     * request has to be shed.
+     */
+    int tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= (int) limit) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    void release(final long rttNanos, final int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (policy.getAlgorithm() == ConcurrencyLimitAlgorithm.AIMD) {
+            updateAimd(rttNanos, inFlightAtStart);
+        } else {
+            updateGradient(rttNanos, inFlightAtStart);
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void updateAimd(final long rttNanos, final int inFlightAtStart) {
+        if (rttNanos > latencyThresholdNanos) {
+            limit = clamp(limit * policy.getBackoffRatio());
+        } else if (inFlightAtStart * 2 >= limit) {
+            limit = clamp(limit + 1);
+        }
+    }
+
+    private synchronized void updateGradient(final long rttNanos, final int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+        }
+        if (longRttNanos > 2.0 * rttNanos) {
+            // latency has recovered well below the long-term average; let the average catch up quicker
+            longRttNanos *= 0.95;
+        }
+        final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / Math.max(1, rttNanos)));
+        final double target = limit * gradient + Math.sqrt(limit);
+        final double next = clamp(limit * (1 - policy.getSmoothing()) + target * policy.getSmoothing());
+        if (next < limit || inFlightAtStart * 2 >= limit) {
+            limit = next;
+        }
+    }
+
+    private double clamp(final double value) {
+        return Math.max(policy.getMinLimit(), Math.min(policy.getMaxLimit(), value));
+    }
+
+}
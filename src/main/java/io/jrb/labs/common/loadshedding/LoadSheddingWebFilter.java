@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.loadshedding;
+
+import io.jrb.labs.common.ratelimit.RateLimitWebFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a web filter that sheds load once the number of requests in flight on a route reaches the concurrency limit
+ * of the first {@link ConcurrencyLimitPolicy} whose path pattern matches the request. The limit adapts to the measured
+ * latency of the route. Shed requests get an immediate {@code 503 Service Unavailable} with a {@code Retry-After}
+ * header. The limit, the requests in flight, the latency and the shed requests are exposed per route as metrics. Where
+ * the filter sits in the chain is described on {@link RateLimitWebFilter}.
+ */
+public class LoadSheddingWebFilter implements WebFilter, Ordered {
+
+    public static final int ORDER = RateLimitWebFilter.ORDER + 1;
+
+    private static final String LIMIT_METRIC = "http.server.concurrency.limit";
+    private static final String IN_FLIGHT_METRIC = "http.server.concurrency.inflight";
+    private static final String LATENCY_METRIC = "http.server.concurrency.latency";
+    private static final String SHED_METRIC = "http.server.concurrency.shed";
+
+    private final LoadSheddingDatafill loadSheddingDatafill;
+    private final String retryAfter;
+    private final List<Route> routes;
+
+    public LoadSheddingWebFilter(final LoadSheddingDatafill loadSheddingDatafill, final MeterRegistry meterRegistry) {
+        this.loadSheddingDatafill = loadSheddingDatafill;
+        this.retryAfter = String.valueOf(Math.max(1, loadSheddingDatafill.getRetryAfter().toSeconds()));
+        this.routes = loadSheddingDatafill.getPolicies().stream()
+                .map(policy -> new Route(policy, meterRegistry))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        if (!loadSheddingDatafill.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        final Route route = findRoute(exchange);
+        if (route == null || !route.enabled) {
+            return chain.filter(exchange);
+        }
+        final int inFlight = route.limiter.tryAcquire();
+        if (inFlight == 0) {
+            route.shed.increment();
+            return reject(exchange.getResponse());
+        }
+        final long startTime = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    final long rtt = System.nanoTime() - startTime;
+                    route.limiter.release(rtt, inFlight);
+                    route.latency.record(rtt, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    private Route findRoute(final ServerWebExchange exchange) {
+        for (final Route route : routes) {
+            if (route.pattern.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> reject(final ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return response.setComplete();
+    }
+
+    private static final class Route {
+
+        private final PathPattern pattern;
+        private final boolean enabled;
+        private final ConcurrencyLimiter limiter;
+        private final Timer latency;
+        private final Counter shed;
+
+        Route(final ConcurrencyLimitPolicy policy, final MeterRegistry meterRegistry) {
+            this.pattern = PathPatternParser.defaultInstance.parse(policy.getPath());
+            this.enabled = policy.isEnabled();
+            this.limiter = new ConcurrencyLimiter(policy);
+            Gauge.builder(LIMIT_METRIC, limiter, ConcurrencyLimiter::getLimit)
+                    .tag("route", policy.getPath())
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limiter, ConcurrencyLimiter::getInFlight)
+                    .tag("route", policy.getPath())
+                    .register(meterRegistry);
+            this.latency = Timer.builder(LATENCY_METRIC)
+                    .tag("route", policy.getPath())
+                    .register(meterRegistry);
+            this.shed = Counter.builder(SHED_METRIC)
+                    .tag("route", policy.getPath())
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
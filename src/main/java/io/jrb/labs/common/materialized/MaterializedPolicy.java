@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.materialized;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Opts an entity type into being served from a {@link MaterializedView}, with a cap on the memory the view may use,
+ * how long the view waits before rebuilding itself after falling back to the database, and how often it reloads the
+ * whole type to pick up the writes made through other instances.
+ */
+@Value
+@ConstructorBinding
+public class MaterializedPolicy {
+
+    boolean enabled;
+
+    DataSize maxSize;
+
+    Duration retryAfter;
+
+    Duration refreshInterval;
+
+    public MaterializedPolicy(
+            @DefaultValue("true") final boolean enabled,
+            @DefaultValue("64MB") final DataSize maxSize,
+            @DefaultValue("5m") final Duration retryAfter,
+            @DefaultValue("1m") final Duration refreshInterval
+    ) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.retryAfter = retryAfter;
+        this.refreshInterval = refreshInterval;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.resource.EntityDetails;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of every resource of one entity type, hydrated in each {@link Projection}, together with an
+ * estimate of the memory it holds.
+ */
+final class MaterializedSnapshot {
+
+    private static final long RESOURCE_OVERHEAD = 96;
+    private static final long ENTRY_OVERHEAD = 48;
+    private static final long STRING_OVERHEAD = 40;
+
+    private final Map<Projection, List<Resource<?>>> lists = new EnumMap<>(Projection.class);
+    private final Map<Projection, Map<String, Resource<?>>> byGuid = new EnumMap<>(Projection.class);
+    private final long bytes;
+
+    MaterializedSnapshot(final Collection<Resource<?>[]> rows) {
+        long total = 0;
+        for (final Projection projection : Projection.values()) {
+            final List<Resource<?>> list = new ArrayList<>(rows.size());
+            final Map<String, Resource<?>> map = new HashMap<>(rows.size() * 2);
+            for (final Resource<?>[] row : rows) {
+                final Resource<?> resource = row[projection.ordinal()];
+                list.add(resource);
+                map.put(resource.getGuid(), resource);
+                total += estimate(resource) + 2 * ENTRY_OVERHEAD;
+            }
+            lists.put(projection, List.copyOf(list));
+            byGuid.put(projection, map);
+        }
+        this.bytes = total;
+    }
+
+    List<Resource<?>> list(final Projection projection) {
+        return lists.get(projection);
+    }
+
+    Resource<?> find(final Projection projection, final String guid) {
+        return byGuid.get(projection).get(guid);
+    }
+
+    int size() {
+        return lists.get(Projection.SUMMARY).size();
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    private static long estimate(final Resource<?> resource) {
+        long bytes = RESOURCE_OVERHEAD + estimate(resource.getGuid()) + estimate(resource.getType())
+                + estimate(resource.getName());
+        final EntityDetails details = resource.getDetails();
+        if (details != null) {
+            for (final Map.Entry<String, List<String>> entry : details.entrySet()) {
+                bytes += ENTRY_OVERHEAD + estimate(entry.getKey());
+                for (final String value : entry.getValue()) {
+                    bytes += Integer.BYTES + estimate(value);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimate(final String value) {
+        return value == null ? 0 : STRING_OVERHEAD + value.length();
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.cache.CacheLoader;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.entity.UnknownEntityException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps every resource of one entity type in memory, hydrated in each projection, and publishes it as an immutable
+ * {@link MaterializedSnapshot}. The view loads the whole type once, then reloads single entities as their change
+ * events arrive. Loads are applied one at a time in arrival order. Change events are published once a write commits,
+ * before the write answers its client, and from then until the reload they trigger is published the view holds back
+ * its snapshot; a client therefore always reads its own writes, from the database while the view catches up. Should
+ * the view outgrow its size cap, or a load fail, the view gives up its snapshot and the type is served from the
+ * database until the view rebuilds itself from scratch after {@link MaterializedPolicy#getRetryAfter()}.
+ * <p>
+ * A view only sees the change events of its own instance. Reading your own writes therefore holds for writes made
+ * through the same instance, and a write made through another one is picked up by the next full reload, run once per
+ * {@link MaterializedPolicy#getRefreshInterval()} while the snapshot keeps being served. Materializing a type is
+ * meant for a single instance, or for types whose clients tolerate that lag.
+ */
+@Slf4j
+public class MaterializedView {
+
+    public enum State {
+        LOADING,
+        READY,
+        DATABASE
+    }
+
+    private static final String FULL_RELOAD = "";
+    private static final String REFRESH = "\u0000";
+
+    private final String type;
+    private final long maxBytes;
+    private final Duration retryAfter;
+    private final Duration refreshInterval;
+    private final CacheLoader loader;
+    private final Map<String, Resource<?>[]> rows = new LinkedHashMap<>();
+    private final Sinks.Many<String> changes = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile MaterializedSnapshot snapshot;
+    private volatile State state = State.LOADING;
+    private Disposable subscription;
+    private Disposable rebuild;
+    private Disposable refresh;
+
+    public MaterializedView(final String type, final MaterializedPolicy policy, final CacheLoader loader) {
+        this.type = type;
+        this.maxBytes = policy.getMaxSize().toBytes();
+        this.retryAfter = policy.getRetryAfter();
+        this.refreshInterval = policy.getRefreshInterval();
+        this.loader = loader;
+    }
+
+    public void start() {
+        subscription = changes.asFlux()
+                .concatMap(guid -> (guid.equals(FULL_RELOAD) || guid.equals(REFRESH) ? reloadAll() : reload(guid))
+                        .then(Mono.fromRunnable(this::publish))
+                        .onErrorResume(t -> Mono.fromRunnable(() -> fallBack("a load failed", t)))
+                        .then(Mono.fromRunnable(() -> {
+                            if (!guid.equals(REFRESH)) {
+                                pending.decrementAndGet();
+                            }
+                        })))
+                .subscribe();
+        signal(FULL_RELOAD);
+        if (refreshInterval != null) {
+            refresh = Flux.interval(refreshInterval).subscribe(ignored -> refresh());
+        }
+    }
+
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (rebuild != null) {
+            rebuild.dispose();
+        }
+        if (refresh != null) {
+            refresh.dispose();
+        }
+    }
+
+    public synchronized void signal(final String guid) {
+        if (state != State.DATABASE) {
+            pending.incrementAndGet();
+            if (changes.tryEmitNext(guid).isFailure()) {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getBytes() {
+        final MaterializedSnapshot current = snapshot;
+        return current != null ? current.getBytes() : 0;
+    }
+
+    public int getEntries() {
+        final MaterializedSnapshot current = snapshot;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Returns the snapshot to serve reads from, or {@code null} while the view is loading, serving from the database,
+     * or has yet to apply a change it has been signalled.
+     */
+    MaterializedSnapshot getSnapshot() {
+        return state == State.READY && pending.get() == 0 ? snapshot : null;
+    }
+
+    private Mono<Void> reloadAll() {
+        return Flux.fromArray(Projection.values())
+                .concatMap(projection -> Flux.<Resource<?>>from(loader.loadAll(type, projection)).collectList())
+                .collectList()
+                .doOnNext(this::replaceRows)
+                .then();
+    }
+
+    private Mono<Void> reload(final String guid) {
+        return Flux.fromArray(Projection.values())
+                .concatMap(projection -> Mono.<Resource<?>>from(loader.load(type, guid, projection)))
+                .onErrorResume(UnknownEntityException.class, e -> Mono.empty())
+                .collectList()
+                .doOnNext(resources -> {
+                    if (resources.size() == Projection.values().length) {
+                        rows.put(guid, resources.toArray(new Resource<?>[0]));
+                    } else {
+                        rows.remove(guid);
+                    }
+                })
+                .then();
+    }
+
+    private void replaceRows(final List<List<Resource<?>>> byProjection) {
+        rows.clear();
+        for (final Projection projection : Projection.values()) {
+            for (final Resource<?> resource : byProjection.get(projection.ordinal())) {
+                rows.computeIfAbsent(resource.getGuid(), guid -> new Resource<?>[Projection.values().length])
+                        [projection.ordinal()] = resource;
+            }
+        }
+        rows.values().removeIf(row -> Arrays.asList(row).contains(null));
+    }
+
+    private void publish() {
+        if (state == State.DATABASE) {
+            return;
+        }
+        final MaterializedSnapshot next = new MaterializedSnapshot(rows.values());
+        if (next.getBytes() > maxBytes) {
+            fallBack("it needs " + next.getBytes() + " bytes, more than its cap of " + maxBytes, null);
+            return;
+        }
+        snapshot = next;
+        state = State.READY;
+    }
+
+    private synchronized void fallBack(final String reason, final Throwable t) {
+        if (state == State.DATABASE) {
+            rows.clear();
+            return;
+        }
+        log.warn("Serving {} entities from the database because {}", type, reason, t);
+        state = State.DATABASE;
+        snapshot = null;
+        rows.clear();
+        rebuild = Mono.delay(retryAfter).subscribe(ignored -> rebuild());
+    }
+
+    /**
+     * Reloads the whole type without holding back the current snapshot, which stays as fresh as it was until the
+     * reload replaces it.
+     */
+    private synchronized void refresh() {
+        if (state == State.READY) {
+            changes.tryEmitNext(REFRESH);
+        }
+    }
+
+    private synchronized void rebuild() {
+        if (state == State.DATABASE) {
+            log.info("Rebuilding the materialized view of {} entities", type);
+            state = State.LOADING;
+            signal(FULL_RELOAD);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandChain;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.service.command.CommandInterceptor;
+import io.jrb.labs.common.service.command.entity.EntityCommandContext;
+import io.jrb.labs.common.service.command.entity.FindEntityCommand;
+import io.jrb.labs.common.service.command.entity.GetEntitiesCommand;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves {@link GetEntitiesCommand} and {@link FindEntityCommand} executions for materialized entity types from the
+ * current snapshot of their {@link MaterializedView}, without touching the database. Types whose view is still
+ * loading or has fallen back, filtered, sorted or paged listings, sparse reads, whose fields the commands validate and
+ * read from the database alone, and finds of entities not yet in the snapshot, go on down the chain.
+ */
+public class MaterializedViewCommandInterceptor implements CommandInterceptor, Ordered {
+
+    private final MaterializedViews materializedViews;
+
+    public MaterializedViewCommandInterceptor(final MaterializedViews materializedViews) {
+        this.materializedViews = materializedViews;
+    }
+
+    @Override
+    public String getName() {
+        return "materialized";
+    }
+
+    @Override
+    public int getOrder() {
+        return -100;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <I, O, C extends CommandContext<I, O, C>> Publisher<C> intercept(
+            final Command<I, O, C> command,
+            final C context,
+            final CommandChain<C> chain
+    ) {
+        final Projection projection = context.getProjection();
+        final boolean list = command instanceof GetEntitiesCommand;
+        if (projection == null || (!list && !(command instanceof FindEntityCommand))
+                || ((EntityCommandContext<?, ?, ?>) context).getFields() != null) {
+            return chain.proceed(context);
+        }
+        final MaterializedSnapshot snapshot = materializedViews.findSnapshot(context.getEntityType());
+        if (snapshot == null) {
+            return chain.proceed(context);
+        }
+        if (list) {
+            if (((EntityCommandContext<?, ?, ?>) context).isQuery()) {
+                return chain.proceed(context);
+            }
+            return Flux.fromIterable(snapshot.list(projection))
+                    .map(resource -> context.withOutput((O) resource));
+        }
+        final Resource<?> resource = snapshot.find(projection, ((EntityCommandContext<?, ?, ?>) context).getGuid());
+        return resource != null ? Mono.just(context.withOutput((O) resource)) : chain.proceed(context);
+    }
+
+}
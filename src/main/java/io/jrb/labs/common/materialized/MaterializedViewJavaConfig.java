@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.cache.CacheLoader;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MaterializedViewJavaConfig {
+
+    @Bean
+    public MaterializedViews materializedViews(
+            final EntityServiceProperties entSvcProps,
+            final CacheLoader cacheLoader,
+            final MeterRegistry meterRegistry
+    ) {
+        final MaterializedViews materializedViews = new MaterializedViews(entSvcProps, cacheLoader);
+        materializedViews.getViews().forEach(view -> {
+            Gauge.builder("materialized.view.bytes", view, MaterializedView::getBytes)
+                    .tag("entityType", view.getType())
+                    .register(meterRegistry);
+            Gauge.builder("materialized.view.entries", view, MaterializedView::getEntries)
+                    .tag("entityType", view.getType())
+                    .register(meterRegistry);
+            Gauge.builder("materialized.view.state", view, v -> v.getState().ordinal())
+                    .tag("entityType", view.getType())
+                    .register(meterRegistry);
+        });
+        return materializedViews;
+    }
+
+    @Bean
+    public MaterializedViewCommandInterceptor materializedViewCommandInterceptor(
+            final MaterializedViews materializedViews
+    ) {
+        return new MaterializedViewCommandInterceptor(materializedViews);
+    }
+
+}
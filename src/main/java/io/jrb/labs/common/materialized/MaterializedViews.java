@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.cache.CacheLoader;
+import io.jrb.labs.common.service.command.entity.EntityChangeEvent;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds a {@link MaterializedView} for every entity type whose {@code materialized} policy is enabled, starts them
+ * once the application is ready, and feeds them the entity change events.
+ */
+public class MaterializedViews implements DisposableBean {
+
+    private final Map<String, MaterializedView> views;
+
+    public MaterializedViews(final EntityServiceProperties entSvcProps, final CacheLoader cacheLoader) {
+        this.views = entSvcProps.getEntities().stream()
+                .filter(entityType -> entityType.getMaterialized() != null && entityType.getMaterialized().isEnabled())
+                .map(entityType -> new MaterializedView(
+                        entityType.getType(),
+                        entityType.getMaterialized(),
+                        cacheLoader
+                ))
+                .collect(Collectors.toUnmodifiableMap(MaterializedView::getType, Function.identity()));
+    }
+
+    public Collection<MaterializedView> getViews() {
+        return views.values();
+    }
+
+    @EventListener({ApplicationReadyEvent.class})
+    public void start() {
+        views.values().forEach(MaterializedView::start);
+    }
+
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        final MaterializedView view = views.get(event.getEntityType());
+        if (view != null) {
+            view.signal(event.getGuid());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        views.values().forEach(MaterializedView::stop);
+    }
+
+    MaterializedSnapshot findSnapshot(final String type) {
+        final MaterializedView view = views.get(type);
+        return view != null ? view.getSnapshot() : null;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.ratelimit;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@Value
+@ConstructorBinding
+@ConfigurationProperties("rate-limit")
+public class RateLimitDatafill {
+
+    boolean enabled;
+
+    List<String> keyHeaders;
+
+    int maxKeys;
+
+    RateLimitPolicy reads;
+
+    RateLimitPolicy writes;
+
+    public RateLimitDatafill(
+            @DefaultValue("true") final boolean enabled,
+            @DefaultValue({ "x-trace-transaction-id", "x-trace-appl" }) final List<String> keyHeaders,
+            @DefaultValue("10000") final int maxKeys,
+            final RateLimitPolicy reads,
+            final RateLimitPolicy writes
+    ) {
+        this.enabled = enabled;
+        this.keyHeaders = keyHeaders;
+        this.maxKeys = maxKeys;
+        this.reads = reads != null ? reads : new RateLimitPolicy(200, 100);
+        this.writes = writes != null ? writes : new RateLimitPolicy(50, 20);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.ratelimit;
+
+import io.jrb.labs.common.traceability.TraceabilityWebFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a web filter that limits the request rate of each client with a token bucket, one for reads and one for
+ * writes, keyed by the first of the configured headers present on the request (the traceability transaction id and
+ * application id by default) or else the remote address. Every response reports the bucket's capacity and remaining
+ * tokens; a request that finds its bucket empty, or whose new key finds no room among the tracked keys, gets a
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ * <p>
+ * The protective filters run in a fixed order: {@link TraceabilityWebFilter} first, so every rejection carries the
+ * traceability headers, then this filter, then the load-shedding filter, so a rate-limited request never takes a
+ * concurrency slot.
+ */
+public class RateLimitWebFilter implements WebFilter, Ordered {
+
+    public static final int ORDER = TraceabilityWebFilter.ORDER + 1;
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final String REJECTED_METRIC = "http.server.ratelimit.rejected";
+    private static final String KEYS_METRIC = "http.server.ratelimit.keys";
+    private static final String UNKNOWN_KEY = "unknown";
+
+    private final RateLimitDatafill rateLimitDatafill;
+    private final List<String> keyHeaders;
+    private final Limit reads;
+    private final Limit writes;
+
+    public RateLimitWebFilter(final RateLimitDatafill rateLimitDatafill, final MeterRegistry meterRegistry) {
+        this.rateLimitDatafill = rateLimitDatafill;
+        this.keyHeaders = List.copyOf(rateLimitDatafill.getKeyHeaders());
+        this.reads = new Limit("read", rateLimitDatafill.getReads(), rateLimitDatafill.getMaxKeys(), meterRegistry);
+        this.writes = new Limit("write", rateLimitDatafill.getWrites(), rateLimitDatafill.getMaxKeys(), meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        if (!rateLimitDatafill.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        final ServerHttpRequest request = exchange.getRequest();
+        final Limit limit = isRead(request.getMethod()) ? reads : writes;
+        final long now = System.nanoTime();
+        final long remaining = limit.buckets.tryConsume(resolveKey(request), now);
+
+        final HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(LIMIT_HEADER, limit.capacity);
+        if (remaining < 0) {
+            limit.rejected.increment();
+            return reject(exchange.getResponse(), -remaining);
+        }
+        headers.set(REMAINING_HEADER, String.valueOf(remaining));
+        return chain.filter(exchange);
+    }
+
+    private String resolveKey(final ServerHttpRequest request) {
+        final HttpHeaders headers = request.getHeaders();
+        for (int i = 0; i < keyHeaders.size(); i++) {
+            final String value = headers.getFirst(keyHeaders.get(i));
+            if (value != null) {
+                return value;
+            }
+        }
+        final InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : UNKNOWN_KEY;
+    }
+
+    private static boolean isRead(final HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+    }
+
+    private static Mono<Void> reject(final ServerHttpResponse response, final long waitNanos) {
+        final long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(REMAINING_HEADER, "0");
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return response.setComplete();
+    }
+
+    private static final class Limit {
+
+        private final String capacity;
+        private final TokenBuckets buckets;
+        private final Counter rejected;
+
+        Limit(final String kind, final RateLimitPolicy policy, final int maxKeys, final MeterRegistry meterRegistry) {
+            this.capacity = String.valueOf(policy.getCapacity());
+            this.buckets = new TokenBuckets(policy, maxKeys);
+            this.rejected = Counter.builder(REJECTED_METRIC)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+            Gauge.builder(KEYS_METRIC, buckets, TokenBuckets::size)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket. Rather than counting tokens and refill times separately, the bucket keeps a single
+ * "theoretical arrival time": the instant at which it would be full again. Taking a token pushes that instant one
+ * refill interval further out, and the request is refused when doing so would put it more than a full bucket ahead
+ * of now. This is equivalent to a token bucket of the same capacity and rate, and needs only one compare-and-set.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(final RateLimitPolicy policy, final long now) {
+        this.intervalNanos = 1_000_000_000L / Math.max(1, policy.getRefillPerSecond());
+        this.burstNanos = intervalNanos * policy.getCapacity();
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token, returning the tokens left afterwards, or a negative number of nanoseconds until the next token
+     * becomes available when the bucket is empty.
+     */
+    long tryConsume(final long now) {
+        while (true) {
+            final long current = fullAt.get();
+            final long next = Math.max(current - now, 0) + intervalNanos;
+            if (next > burstNanos) {
+                return -(next - burstNanos);
+            }
+            if (fullAt.compareAndSet(current, now + next)) {
+                return (burstNanos - next) / intervalNanos;
+            }
+        }
+    }
+
+    boolean isFull(final long now) {
+        return fullAt.get() - now <= 0;
+    }
+
+}
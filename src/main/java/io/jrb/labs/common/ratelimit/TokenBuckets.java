@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds one {@link TokenBucket} per key, up to a maximum number of keys. Making room for a new key only drops buckets
+ * that have refilled completely, since they hold no state a fresh bucket would not. A bucket that is still limiting
+ * its client is never dropped, so a flood of distinct keys can neither grow the map without bound nor reset the limit
+ * of an active client; the new key is refused instead until buckets refill. Full buckets are swept at most once per
+ * sweep interval, so a map of active buckets is not rescanned for every new key.
+ */
+final class TokenBuckets {
+
+    static final long SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final RateLimitPolicy policy;
+    private final int maxKeys;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(NEVER);
+
+    TokenBuckets(final RateLimitPolicy policy, final int maxKeys) {
+        this.policy = policy;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a token from the key's bucket, returning the tokens left afterwards, or a negative number of nanoseconds
+     * to wait when the bucket is empty or when there is no room for a bucket for a new key.
+     */
+    long tryConsume(final String key, final long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweep(now);
+                if (buckets.size() >= maxKeys) {
+                    return -SWEEP_INTERVAL_NANOS;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(policy, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void sweep(final long now) {
+        final long last = lastSweep.get();
+        if (last != NEVER && now - last < SWEEP_INTERVAL_NANOS) {
+            return;
+        }
+        if (lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.resource.EntityDetails;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EntityBatchRepository<E extends Entity<E>> {
+
+    Flux<Tuple2<String, Long>> countDetails(String type, String property, EntityFilter filter);
+
+    Mono<Integer> deleteByIdIn(Collection<Long> ids);
+
+    Flux<E> findByFilter(String type, EntityFilter filter, int limit);
+
+    Flux<E> findByQuery(String type, EntityQuery query);
+
+    Flux<E> findByType(String type, Collection<String> properties);
+
+    Mono<E> findByTypeAndGuid(String type, String guid, Collection<String> properties);
+
+    Flux<Tuple2<E, EntityDetails>> findWithDetailsByType(String type);
+
+    Flux<E> insertAll(List<E> entities);
+
+}
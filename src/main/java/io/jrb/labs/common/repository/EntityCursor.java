@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Marks a position in an ordered listing of entities by the sort value and identifier of the entity it follows.
+ *
+ * As a change watermark, the cursor carries the update time and identifier of the last changed entity a client has
+ * seen, written as {@code <ISO-8601 instant>,<id>}. A bare instant marks the position just before that time, so the
+ * entities changed at that very instant are listed too.
+ */
+@Value
+public class EntityCursor {
+
+    private static final char WATERMARK_SEPARATOR = ',';
+
+    Object key;
+
+    long id;
+
+    public static EntityCursor of(final Object key, final long id) {
+        return new EntityCursor(key, id);
+    }
+
+    public static EntityCursor parseWatermark(final String watermark) {
+        final int separator = watermark.lastIndexOf(WATERMARK_SEPARATOR);
+        try {
+            return separator < 0
+                    ? new EntityCursor(Instant.parse(watermark), 0L)
+                    : new EntityCursor(Instant.parse(watermark.substring(0, separator)),
+                            Long.parseLong(watermark.substring(separator + 1)));
+        } catch (final DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid watermark '" + watermark + "'", e);
+        }
+    }
+
+    public String toWatermark() {
+        return String.valueOf(key) + WATERMARK_SEPARATOR + id;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import reactor.util.context.Context;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Names the database schema that holds the tables of an entity type when entity types are partitioned, and carries
+ * it in the Reactor context so that {@link PartitionRoutingConnectionFactory} can route connections to it.
+ */
+public final class EntityPartitions {
+
+    public static final String CONTEXT_KEY = EntityPartitions.class.getName() + ".schema";
+
+    public static final String DEFAULT_SCHEMA = "PUBLIC";
+
+    private static final Pattern ENTITY_TYPE_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+
+    private EntityPartitions() {
+    }
+
+    public static String schemaFor(final String entityType) {
+        return "P_" + entityType.toUpperCase(Locale.ROOT);
+    }
+
+    public static Context forType(final String entityType) {
+        return Context.of(CONTEXT_KEY, schemaFor(entityType));
+    }
+
+    public static boolean isPartitionable(final String entityType) {
+        return entityType != null && ENTITY_TYPE_PATTERN.matcher(entityType).matches();
+    }
+
+}
@@ -30,7 +30,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @NoRepositoryBean
-public interface EntityRepository<E extends Entity<E>> extends ReactiveCrudRepository<E, Long> {
+public interface EntityRepository<E extends Entity<E>>
+        extends ReactiveCrudRepository<E, Long>, EntityBatchRepository<E> {
 
     Mono<E> findByTypeAndGuid(String type, String guid);
 
@@ -0,0 +1,370 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.domain.LookupValue;
+import io.jrb.labs.common.resource.EntityDetails;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Provides the set-based entity operations that cannot be expressed as derived queries. Table and column names are
+ * resolved from the entity mapping, so concrete repositories only need to name their entity class.
+ *
+ * @param <E> the entity type
+ */
+public abstract class EntityRepositorySupport<E extends Entity<E>> implements EntityBatchRepository<E> {
+
+    private static final Set<String> KEY_PROPERTIES = Set.of("guid", "type");
+
+    private final Class<E> entityClass;
+    private final R2dbcConverter converter;
+    private final DatabaseClient databaseClient;
+    private final RelationalPersistentEntity<?> persistentEntity;
+
+    protected EntityRepositorySupport(final Class<E> entityClass, final R2dbcEntityTemplate template) {
+        this.entityClass = entityClass;
+        this.converter = template.getConverter();
+        this.databaseClient = template.getDatabaseClient();
+        this.persistentEntity = converter.getMappingContext().getRequiredPersistentEntity(entityClass);
+    }
+
+    /**
+     * Counts the distinct entities of a type, restricted by the filter, per value of the given property, with a single
+     * grouped query over the lookup values. The values are returned from the most to the least frequent.
+     */
+    @Override
+    public Flux<Tuple2<String, Long>> countDetails(
+            final String type,
+            final String property,
+            final EntityFilter filter
+    ) {
+        final Map<String, Object> bindings = new LinkedHashMap<>();
+        final StringBuilder sql = new StringBuilder("SELECT lv_value, COUNT(DISTINCT lv_entity_id) AS lv_count")
+                .append(" FROM t_lookup_value WHERE lv_value_type = :property AND lv_entity_id IN (SELECT ")
+                .append(column("id")).append(" FROM ").append(table()).append(" WHERE ");
+        appendFilter(sql, bindings, type, filter);
+        sql.append(") GROUP BY lv_value ORDER BY lv_count DESC, lv_value");
+        bindings.put("property", property);
+        return bind(databaseClient.sql(sql.toString()), bindings)
+                .map(row -> Tuples.of(row.get("lv_value", String.class), row.get("lv_count", Long.class)))
+                .all();
+    }
+
+    @Override
+    public Mono<Integer> deleteByIdIn(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        return databaseClient.sql("DELETE FROM " + table() + " WHERE " + column("id") + " IN (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    protected Flux<E> findByGuidIn(final Collection<String> guids) {
+        if (guids.isEmpty()) {
+            return Flux.empty();
+        }
+        return query("SELECT * FROM " + table() + " WHERE " + column("guid") + " IN (:guids)", Map.of("guids", guids));
+    }
+
+    @Override
+    public Flux<E> findByFilter(final String type, final EntityFilter filter, final int limit) {
+        final Map<String, Object> bindings = new LinkedHashMap<>();
+        final StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table()).append(" WHERE ");
+        appendFilter(sql, bindings, type, filter);
+        sql.append(" ORDER BY ").append(column("id")).append(" LIMIT :limit");
+        bindings.put("limit", limit);
+        return query(sql.toString(), bindings);
+    }
+
+    /**
+     * Streams a page of a filtered listing in the order of the query, seeking past the cursor the page starts after by
+     * its sort value and identifier, so the page is read from a (type, sort key, id) index without skipping rows.
+     */
+    @Override
+    public Flux<E> findByQuery(final String type, final EntityQuery query) {
+        final Map<String, Object> bindings = new LinkedHashMap<>();
+        final EntitySort sort = query.getSort();
+        final StringBuilder sql = new StringBuilder("SELECT ");
+        if (query.getProperties() == null) {
+            sql.append('*');
+        } else {
+            // the sort column must be read as is, as ORDER BY would otherwise resolve to its constant
+            final Set<String> properties = new HashSet<>(query.getProperties());
+            if (sort != null) {
+                properties.add(sort.getProperty());
+            }
+            sql.append(selectList(properties));
+        }
+        sql.append(" FROM ").append(table()).append(" WHERE ");
+        appendFilter(sql, bindings, type, query.getFilter());
+        final String id = column("id");
+        final boolean descending = sort != null && sort.isDescending();
+        if (query.getAfter() != null) {
+            final String operator = descending ? " < " : " > ";
+            bindings.put("afterId", query.getAfter().getId());
+            if (sort == null) {
+                sql.append(" AND ").append(id).append(operator).append(":afterId");
+            } else {
+                final String key = column(sort.getProperty());
+                sql.append(" AND (").append(key).append(operator).append(":afterKey OR (")
+                        .append(key).append(" = :afterKey AND ").append(id).append(operator).append(":afterId))");
+                bindings.put("afterKey", query.getAfter().getKey());
+            }
+        }
+        final String direction = descending ? " DESC" : "";
+        sql.append(" ORDER BY ");
+        if (sort != null) {
+            sql.append(column(sort.getProperty())).append(direction).append(", ");
+        }
+        sql.append(id).append(direction);
+        if (query.getLimit() != null) {
+            sql.append(" LIMIT :limit");
+            bindings.put("limit", query.getLimit());
+        }
+        return query(sql.toString(), bindings);
+    }
+
+    /**
+     * Streams every entity of a type, reading only the columns of the given properties along with the identifier,
+     * type and guid. The other columns are selected as constants, so the entities are still built by the converter.
+     */
+    @Override
+    public Flux<E> findByType(final String type, final Collection<String> properties) {
+        return query("SELECT " + selectList(properties) + " FROM " + table()
+                + " WHERE " + column("type") + " = :type"
+                + " ORDER BY " + column("id"), Map.of("type", type));
+    }
+
+    @Override
+    public Mono<E> findByTypeAndGuid(final String type, final String guid, final Collection<String> properties) {
+        return query("SELECT " + selectList(properties) + " FROM " + table()
+                + " WHERE " + column("type") + " = :type"
+                + " AND " + column("guid") + " = :guid", Map.of("type", type, "guid", guid))
+                .next();
+    }
+
+    /**
+     * Streams every entity of a type together with all of its lookup values, using a single ordered join so that the
+     * rows of one entity arrive consecutively and can be folded as they are read from the cursor.
+     */
+    @Override
+    public Flux<Tuple2<E, EntityDetails>> findWithDetailsByType(final String type) {
+        final String id = column("id");
+        final String sql = "SELECT e.*, lv.lv_value_type, lv.lv_value FROM " + table() + " e"
+                + " LEFT JOIN t_lookup_value lv ON lv.lv_entity_id = e." + id
+                + " WHERE e." + column("type") + " = :type"
+                + " ORDER BY e." + id;
+        return databaseClient.sql(sql)
+                .bind("type", type)
+                .map((row, metadata) -> Tuples.of(
+                        converter.read(entityClass, row, metadata),
+                        LookupValue.builder()
+                                .valueType(row.get("lv_value_type", String.class))
+                                .value(row.get("lv_value", String.class))
+                                .build()))
+                .all()
+                .bufferUntilChanged(tuple -> tuple.getT1().getId())
+                .map(rows -> {
+                    final EntityDetails.Builder details = EntityDetails.builder();
+                    rows.stream()
+                            .map(Tuple2::getT2)
+                            .filter(lookupValue -> lookupValue.getValueType() != null)
+                            .forEach(lookupValue -> details.add(lookupValue.getValueType(), lookupValue.getValue()));
+                    return Tuples.of(rows.get(0).getT1(), details.build());
+                });
+    }
+
+    /**
+     * Inserts the given entities, keeping their guid, audit dates and version as is, with a single multi-row
+     * {@code INSERT}. Audit dates and versions the entities leave unset are initialized the way a single save would,
+     * so new entities and restored ones can share the statement. The inserted entities are returned with their
+     * generated identifiers.
+     */
+    @Override
+    public Flux<E> insertAll(final List<E> entities) {
+        if (entities.isEmpty()) {
+            return Flux.empty();
+        }
+        final Instant now = Instant.now();
+        final List<OutboundRow> rows = entities.stream()
+                .map(entity -> toRow(entity, now))
+                .collect(Collectors.toList());
+        final List<SqlIdentifier> columns = new ArrayList<>(rows.get(0).keySet());
+        final Map<String, Object> bindings = new LinkedHashMap<>();
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(table()).append(" (")
+                .append(columns.stream()
+                        .map(column -> column.toSql(IdentifierProcessing.NONE))
+                        .collect(Collectors.joining(", ")))
+                .append(") VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "(" : ", (");
+            for (int j = 0; j < columns.size(); j++) {
+                final String name = "p" + i + "_" + j;
+                sql.append(j == 0 ? ":" : ", :").append(name);
+                bindings.put(name, rows.get(i).get(columns.get(j)));
+            }
+            sql.append(')');
+        }
+        final List<String> guids = entities.stream()
+                .map(Entity::getGuid)
+                .collect(Collectors.toList());
+        return bind(databaseClient.sql(sql.toString()), bindings)
+                .fetch()
+                .rowsUpdated()
+                .thenMany(findByGuidIn(guids));
+    }
+
+    protected void appendFilter(
+            final StringBuilder sql,
+            final Map<String, Object> bindings,
+            final String type,
+            final EntityFilter filter
+    ) {
+        sql.append(column("type")).append(" = :type");
+        bindings.put("type", type);
+        appendBound(sql, bindings, "createdOn", " > ", "createdAfter", filter.getCreatedAfter());
+        appendBound(sql, bindings, "createdOn", " < ", "createdBefore", filter.getCreatedBefore());
+        appendBound(sql, bindings, "updatedOn", " > ", "updatedAfter", filter.getUpdatedAfter());
+        appendBound(sql, bindings, "updatedOn", " < ", "updatedBefore", filter.getUpdatedBefore());
+        int i = 0;
+        for (final Map.Entry<String, List<String>> detail : filter.getDetails().entrySet()) {
+            sql.append(" AND ").append(column("id"))
+                    .append(" IN (SELECT lv_entity_id FROM t_lookup_value WHERE lv_value_type = :valueType").append(i)
+                    .append(" AND lv_value IN (:values").append(i).append("))");
+            bindings.put("valueType" + i, detail.getKey());
+            bindings.put("values" + i, detail.getValue());
+            i++;
+        }
+    }
+
+    protected String column(final String property) {
+        return persistentEntity.getRequiredPersistentProperty(property).getColumnName()
+                .toSql(IdentifierProcessing.NONE);
+    }
+
+    protected Flux<E> query(final String sql, final Map<String, Object> bindings) {
+        return bind(databaseClient.sql(sql), bindings)
+                .map((row, metadata) -> converter.read(entityClass, row, metadata))
+                .all();
+    }
+
+    protected String table() {
+        return persistentEntity.getTableName().toSql(IdentifierProcessing.NONE);
+    }
+
+    private void appendBound(
+            final StringBuilder sql,
+            final Map<String, Object> bindings,
+            final String property,
+            final String operator,
+            final String name,
+            final Object value
+    ) {
+        if (value != null) {
+            sql.append(" AND ").append(column(property)).append(operator).append(':').append(name);
+            bindings.put(name, value);
+        }
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(
+            final DatabaseClient.GenericExecuteSpec spec,
+            final Map<String, Object> bindings
+    ) {
+        DatabaseClient.GenericExecuteSpec boundSpec = spec;
+        for (final Map.Entry<String, Object> binding : bindings.entrySet()) {
+            boundSpec = boundSpec.bind(binding.getKey(), binding.getValue());
+        }
+        return boundSpec;
+    }
+
+    private String selectList(final Collection<String> properties) {
+        final List<String> columns = new ArrayList<>();
+        for (final RelationalPersistentProperty property : persistentEntity) {
+            final String column = property.getColumnName().toSql(IdentifierProcessing.NONE);
+            if (property.isIdProperty() || KEY_PROPERTIES.contains(property.getName())
+                    || properties.contains(property.getName())) {
+                columns.add(column);
+            } else {
+                columns.add((property.getType().isPrimitive() ? "0" : "NULL") + " AS " + column);
+            }
+        }
+        return String.join(", ", columns);
+    }
+
+    private OutboundRow toRow(final E entity, final Instant now) {
+        final OutboundRow row = new OutboundRow();
+        converter.write(entity, row);
+        row.remove(persistentEntity.getIdColumn());
+        for (final RelationalPersistentProperty property : persistentEntity) {
+            final Parameter value = row.get(property.getColumnName());
+            if (value == null) {
+                continue;
+            }
+            if (property.isVersionProperty()) {
+                final boolean primitive = property.getType().isPrimitive();
+                if (!value.hasValue() || (primitive && ((Number) value.getValue()).longValue() == 0L)) {
+                    row.put(property.getColumnName(), convert(primitive ? 1L : 0L, value.getType()));
+                }
+            } else if (!value.hasValue() && (property.isAnnotationPresent(CreatedDate.class)
+                    || property.isAnnotationPresent(LastModifiedDate.class))) {
+                row.put(property.getColumnName(), convert(now, value.getType()));
+            }
+        }
+        return row;
+    }
+
+    private Parameter convert(final Object value, final Class<?> type) {
+        final Class<?> targetType = ClassUtils.resolvePrimitiveIfNecessary(type);
+        return Parameter.from(converter.getConversionService().convert(value, targetType));
+    }
+
+}
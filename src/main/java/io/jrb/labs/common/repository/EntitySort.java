@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.jrb.labs.common.domain.Entity;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Orders a listing of entities by one of their indexed properties. Entities with the same value are ordered by their
+ * identifier, in the same direction, which makes the order total and lets a listing resume after any entity.
+ */
+@Value
+public class EntitySort {
+
+    public static final Set<String> SORTABLE_PROPERTIES = Set.of("name", "createdOn", "updatedOn");
+
+    String property;
+
+    boolean descending;
+
+    public static EntitySort of(final String property, final boolean descending) {
+        if (!SORTABLE_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort by '" + property + "'");
+        }
+        return new EntitySort(property, descending);
+    }
+
+    public Object keyOf(final Entity<?> entity) {
+        switch (property) {
+            case "name":
+                return entity.getName();
+            case "createdOn":
+                return entity.getCreatedOn();
+            default:
+                return entity.getUpdatedOn();
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.jrb.labs.common.domain.LookupValue;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inserts lookup values with multi-row {@code INSERT} statements rather than one statement per row. Rows are written
+ * in slices of {@value #ROWS_PER_STATEMENT} to keep the number of bind parameters per statement bounded.
+ */
+public class LookupValueBatchRepositoryImpl implements LookupValueBatchRepository {
+
+    private static final int ROWS_PER_STATEMENT = 200;
+    private static final String INSERT_SQL
+            = "INSERT INTO t_lookup_value (lv_entity_id, lv_value_type, lv_value) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    public LookupValueBatchRepositoryImpl(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Integer> insertAll(final Collection<LookupValue> lookupValues) {
+        if (lookupValues.isEmpty()) {
+            return Mono.just(0);
+        }
+        return Flux.fromIterable(slice(lookupValues))
+                .concatMap(this::insertSlice)
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> insertSlice(final List<LookupValue> lookupValues) {
+        final StringBuilder sql = new StringBuilder(INSERT_SQL);
+        for (int i = 0; i < lookupValues.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:entityId").append(i)
+                    .append(", :valueType").append(i)
+                    .append(", :value").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < lookupValues.size(); i++) {
+            final LookupValue lookupValue = lookupValues.get(i);
+            spec = spec.bind("entityId" + i, lookupValue.getEntityId())
+                    .bind("valueType" + i, lookupValue.getValueType())
+                    .bind("value" + i, lookupValue.getValue());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private List<List<LookupValue>> slice(final Collection<LookupValue> lookupValues) {
+        final List<List<LookupValue>> slices = new ArrayList<>();
+        List<LookupValue> slice = new ArrayList<>(ROWS_PER_STATEMENT);
+        for (final LookupValue lookupValue : lookupValues) {
+            if (slice.size() == ROWS_PER_STATEMENT) {
+                slices.add(slice);
+                slice = new ArrayList<>(ROWS_PER_STATEMENT);
+            }
+            slice.add(lookupValue);
+        }
+        slices.add(slice);
+        return slices;
+    }
+
+}
@@ -24,16 +24,31 @@
 package io.jrb.labs.common.repository;
 
 import io.jrb.labs.common.domain.LookupValue;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
-public interface LookupValueRepository extends ReactiveCrudRepository<LookupValue, Long>  {
+public interface LookupValueRepository extends ReactiveCrudRepository<LookupValue, Long>, LookupValueBatchRepository {
 
     Mono<Void> deleteByEntityId(long entityId);
 
+    @Modifying
+    @Query("DELETE FROM t_lookup_value WHERE lv_entity_id IN (:entityIds)")
+    Mono<Integer> deleteByEntityIdIn(Collection<Long> entityIds);
+
+    @Modifying
+    @Query("DELETE FROM t_lookup_value WHERE lv_id IN (:ids)")
+    Mono<Integer> deleteByIdIn(Collection<Long> ids);
+
     Flux<LookupValue> findByEntityId(long entityId);
 
+    @Query("SELECT * FROM t_lookup_value WHERE lv_entity_id IN (:entityIds)")
+    Flux<LookupValue> findByEntityIdIn(Collection<Long> entityIds);
+
 }
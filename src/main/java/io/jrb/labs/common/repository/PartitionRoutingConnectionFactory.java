@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes every connection it hands out to the schema of the entity type found in the subscriber's Reactor context, so
+ * unqualified table names resolve to that type's own tables. A connection requested without an entity type fails
+ * rather than falling back to the default schema, where it would silently read and write the wrong tables; work that
+ * is not about one entity type, such as schema initialization, uses the {@link #unwrap() delegate} instead.
+ */
+public class PartitionRoutingConnectionFactory
+        implements ConnectionFactory, Wrapped<ConnectionFactory>, DisposableBean {
+
+    private final ConnectionFactory delegate;
+
+    public PartitionRoutingConnectionFactory(final ConnectionFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> context.<String>getOrEmpty(EntityPartitions.CONTEXT_KEY)
+                .map(schema -> Mono.from(delegate.create()).flatMap(connection -> useSchema(connection, schema)))
+                .orElseGet(() -> Mono.error(new IllegalStateException(
+                        "No entity partition in the subscriber context, see EntityPartitions.forType"))));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void destroy() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    private Mono<Connection> useSchema(final Connection connection, final String schema) {
+        return Flux.from(connection.createStatement("SET SCHEMA " + schema).execute())
+                .flatMap(Result::getRowsUpdated)
+                .then(Mono.just(connection))
+                .onErrorResume(t -> Mono.from(connection.close()).then(Mono.error(t)));
+    }
+
+}
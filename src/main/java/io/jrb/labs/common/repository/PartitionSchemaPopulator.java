@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import org.springframework.r2dbc.connection.init.DatabasePopulator;
+import org.springframework.r2dbc.connection.init.ScriptException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Creates a schema for each entity type and applies the given populator inside it, so that every type gets its own
+ * entity and lookup value tables, with their own indexes.
+ */
+public class PartitionSchemaPopulator implements DatabasePopulator {
+
+    private final List<String> entityTypes;
+    private final DatabasePopulator tablePopulator;
+
+    public PartitionSchemaPopulator(final List<String> entityTypes, final DatabasePopulator tablePopulator) {
+        this.entityTypes = entityTypes;
+        this.tablePopulator = tablePopulator;
+    }
+
+    @Override
+    public Mono<Void> populate(final Connection connection) throws ScriptException {
+        return Flux.fromIterable(entityTypes)
+                .concatMap(entityType -> populate(connection, entityType))
+                .then(execute(connection, "SET SCHEMA " + EntityPartitions.DEFAULT_SCHEMA));
+    }
+
+    private Mono<Void> populate(final Connection connection, final String entityType) {
+        if (!EntityPartitions.isPartitionable(entityType)) {
+            return Mono.error(new IllegalStateException("Entity type '" + entityType + "' cannot name a partition"));
+        }
+        final String schema = EntityPartitions.schemaFor(entityType);
+        return execute(connection, "CREATE SCHEMA IF NOT EXISTS " + schema)
+                .then(execute(connection, "SET SCHEMA " + schema))
+                .then(tablePopulator.populate(connection));
+    }
+
+    private Mono<Void> execute(final Connection connection, final String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(Result::getRowsUpdated)
+                .then();
+    }
+
+}
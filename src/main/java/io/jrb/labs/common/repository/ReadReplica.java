@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the read replica that read-only commands may be routed to. A command opts in by writing
+ * {@link #forReads(String)} into its Reactor context; reads of an entity type still go to the primary for as long as
+ * the replica may lag behind the last write of that type, so callers read their own writes.
+ * <p>
+ * Writes are only known to the instance that made them. With several instances behind a load balancer, a read that
+ * lands on another instance may be served by the replica within the lag window, so read-your-writes holds per
+ * instance, not per client.
+ */
+public class ReadReplica {
+
+    public static final String CONTEXT_KEY = ReadReplica.class.getName() + ".entityType";
+
+    private final ConnectionFactory connectionFactory;
+    private final long maxLagNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadReplica(final ConnectionFactory connectionFactory, final Duration maxLag) {
+        this.connectionFactory = connectionFactory;
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    public static Context forReads(final String entityType) {
+        return Context.of(CONTEXT_KEY, entityType);
+    }
+
+    public ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public void recordWrite(final String entityType) {
+        lastWrites.put(entityType, System.nanoTime());
+    }
+
+    public boolean isLagging(final String entityType) {
+        final Long lastWrite = lastWrites.get(entityType);
+        return lastWrite != null && System.nanoTime() - lastWrite < maxLagNanos;
+    }
+
+}
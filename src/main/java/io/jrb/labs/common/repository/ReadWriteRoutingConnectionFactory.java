@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Routes connections to the read replica when the subscriber's context asks for reads of an entity type that the
+ * replica is not lagging behind on, and to the primary otherwise. Connections taken for a transaction always come
+ * from the primary.
+ */
+public class ReadWriteRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private final ConnectionFactory primary;
+    private final ReadReplica readReplica;
+
+    public ReadWriteRoutingConnectionFactory(final ConnectionFactory primary, final ReadReplica readReplica) {
+        this.primary = primary;
+        this.readReplica = readReplica;
+        setTargetConnectionFactories(Map.of(
+                Target.PRIMARY, primary,
+                Target.REPLICA, readReplica.getConnectionFactory()
+        ));
+        setDefaultTargetConnectionFactory(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            final Optional<String> entityType = context.getOrEmpty(ReadReplica.CONTEXT_KEY);
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                    .map(synchronizationManager -> synchronizationManager.isActualTransactionActive()
+                            ? Target.PRIMARY
+                            : target(entityType))
+                    .onErrorResume(NoTransactionException.class, e -> Mono.just(target(entityType)));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        dispose(primary);
+        dispose(readReplica.getConnectionFactory());
+    }
+
+    private Target target(final Optional<String> entityType) {
+        return entityType.filter(type -> !readReplica.isLagging(type)).isPresent() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private static void dispose(final ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof Disposable) {
+            ((Disposable) connectionFactory).dispose();
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.Connection;
+import org.springframework.r2dbc.connection.init.DatabasePopulator;
+import org.springframework.r2dbc.connection.init.ScriptException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the given populator only when one of the expected tables is missing from one of the expected schemas, so a
+ * restart against a populated database skips the schema script while a fresh database, such as an in-memory one, is
+ * still populated. Tables are looked up in {@code INFORMATION_SCHEMA}; changes to a table that already exists are not
+ * detected and have to be applied with the script or a migration.
+ */
+public class SchemaDetectingPopulator implements DatabasePopulator {
+
+    private static final String TABLES_QUERY = "SELECT TABLE_SCHEMA, TABLE_NAME FROM INFORMATION_SCHEMA.TABLES";
+
+    private final DatabasePopulator populator;
+    private final Set<String> expectedTables;
+
+    public SchemaDetectingPopulator(
+            final DatabasePopulator populator,
+            final Collection<String> schemas,
+            final Collection<String> tables
+    ) {
+        this.populator = populator;
+        this.expectedTables = schemas.stream()
+                .flatMap(schema -> tables.stream().map(table -> qualify(schema, table)))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Mono<Void> populate(final Connection connection) throws ScriptException {
+        return Flux.from(connection.createStatement(TABLES_QUERY).execute())
+                .flatMap(result -> result.map((row, metadata) ->
+                        qualify(row.get(0, String.class), row.get(1, String.class))))
+                .collect(Collectors.toSet())
+                .flatMap(tables -> tables.containsAll(expectedTables)
+                        ? Mono.empty()
+                        : populator.populate(connection));
+    }
+
+    private static String qualify(final String schema, final String table) {
+        return (schema + '.' + table).toUpperCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.jrb.labs.common.domain.Tombstone;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inserts the tombstones of a chunk of deleted entities with multi-row {@code INSERT} statements, in slices of
+ * {@value #ROWS_PER_STATEMENT} rows, as {@link LookupValueBatchRepositoryImpl} does for lookup values.
+ */
+public class TombstoneBatchRepositoryImpl implements TombstoneBatchRepository {
+
+    private static final int ROWS_PER_STATEMENT = 200;
+    private static final String INSERT_SQL
+            = "INSERT INTO t_tombstone (ts_entity_id, ts_type, ts_guid, ts_deleted_on) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    public TombstoneBatchRepositoryImpl(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Integer> insertAll(final Collection<Tombstone> tombstones) {
+        if (tombstones.isEmpty()) {
+            return Mono.just(0);
+        }
+        return Flux.fromIterable(slice(tombstones))
+                .concatMap(this::insertSlice)
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> insertSlice(final List<Tombstone> tombstones) {
+        final StringBuilder sql = new StringBuilder(INSERT_SQL);
+        for (int i = 0; i < tombstones.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:entityId").append(i)
+                    .append(", :type").append(i)
+                    .append(", :guid").append(i)
+                    .append(", :deletedOn").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < tombstones.size(); i++) {
+            final Tombstone tombstone = tombstones.get(i);
+            spec = spec.bind("entityId" + i, tombstone.getEntityId())
+                    .bind("type" + i, tombstone.getType())
+                    .bind("guid" + i, tombstone.getGuid())
+                    .bind("deletedOn" + i, tombstone.getDeletedOn());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private List<List<Tombstone>> slice(final Collection<Tombstone> tombstones) {
+        final List<List<Tombstone>> slices = new ArrayList<>();
+        List<Tombstone> slice = new ArrayList<>(ROWS_PER_STATEMENT);
+        for (final Tombstone tombstone : tombstones) {
+            if (slice.size() == ROWS_PER_STATEMENT) {
+                slices.add(slice);
+                slice = new ArrayList<>(ROWS_PER_STATEMENT);
+            }
+            slice.add(tombstone);
+        }
+        slices.add(slice);
+        return slices;
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository;
+
+import io.jrb.labs.common.domain.Tombstone;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Repository
+public interface TombstoneRepository extends ReactiveCrudRepository<Tombstone, Long>, TombstoneBatchRepository {
+
+    /**
+     * Lists the tombstones of a type that follow the given deletion time and entity identifier, in deletion order,
+     * leaving out those deleted at or after {@code before}.
+     */
+    @Query("SELECT * FROM t_tombstone WHERE ts_type = :type AND ts_deleted_on < :before"
+            + " AND (ts_deleted_on > :afterKey OR (ts_deleted_on = :afterKey AND ts_entity_id > :afterId))"
+            + " ORDER BY ts_deleted_on, ts_entity_id LIMIT :limit")
+    Flux<Tombstone> findChanges(String type, Instant afterKey, long afterId, Instant before, int limit);
+
+    @Modifying
+    @Query("DELETE FROM t_tombstone WHERE ts_type = :type AND ts_deleted_on < :before")
+    Mono<Integer> deleteByTypeAndDeletedOnBefore(String type, Instant before);
+
+}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository.jdbc;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntityQuery;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.resource.EntityDetails;
+import org.reactivestreams.Publisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuple2;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Serves the point and type reads of an entity repository from blocking JDBC, run on a dedicated scheduler, while
+ * every write goes to the R2DBC repository it wraps so it keeps taking part in reactive transactions. Reads made
+ * inside a reactive transaction go to the wrapped repository too, as a JDBC connection would not see the
+ * transaction's uncommitted writes. Filtered, projected and paged queries always use the wrapped repository.
+ */
+public abstract class JdbcEntityRepositorySupport<E extends Entity<E>> implements EntityRepository<E> {
+
+    private final EntityRepository<E> delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Scheduler scheduler;
+    private final RowMapper<E> rowMapper;
+    private final String selectSql;
+    private final String idColumn;
+    private final String typeColumn;
+    private final String guidColumn;
+
+    protected JdbcEntityRepositorySupport(
+            final EntityRepository<E> delegate,
+            final JdbcTemplate jdbcTemplate,
+            final Scheduler scheduler,
+            final RowMapper<E> rowMapper,
+            final String table,
+            final String idColumn,
+            final String typeColumn,
+            final String guidColumn
+    ) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduler = scheduler;
+        this.rowMapper = rowMapper;
+        this.selectSql = "SELECT * FROM " + table;
+        this.idColumn = idColumn;
+        this.typeColumn = typeColumn;
+        this.guidColumn = guidColumn;
+    }
+
+    @Override
+    public Mono<E> findByTypeAndGuid(final String type, final String guid) {
+        return queryOne(() -> delegate.findByTypeAndGuid(type, guid),
+                " WHERE " + typeColumn + " = ? AND " + guidColumn + " = ?", type, guid);
+    }
+
+    @Override
+    public Flux<E> findByType(final String type) {
+        return queryAll(() -> delegate.findByType(type), " WHERE " + typeColumn + " = ? ORDER BY " + idColumn, type);
+    }
+
+    @Override
+    public Flux<E> findByQuery(final String type, final EntityQuery query) {
+        return delegate.findByQuery(type, query);
+    }
+
+    @Override
+    public Flux<E> findByType(final String type, final Collection<String> properties) {
+        return delegate.findByType(type, properties);
+    }
+
+    @Override
+    public Mono<E> findByTypeAndGuid(final String type, final String guid, final Collection<String> properties) {
+        return delegate.findByTypeAndGuid(type, guid, properties);
+    }
+
+    @Override
+    public Mono<E> findById(final Long id) {
+        return queryOne(() -> delegate.findById(id), " WHERE " + idColumn + " = ?", id);
+    }
+
+    @Override
+    public Mono<E> findById(final Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Flux<E> findAll() {
+        return queryAll(delegate::findAll, " ORDER BY " + idColumn);
+    }
+
+    @Override
+    public Flux<Tuple2<String, Long>> countDetails(
+            final String type,
+            final String property,
+            final EntityFilter filter
+    ) {
+        return delegate.countDetails(type, property, filter);
+    }
+
+    @Override
+    public Mono<Integer> deleteByIdIn(final Collection<Long> ids) {
+        return delegate.deleteByIdIn(ids);
+    }
+
+    @Override
+    public Flux<E> findByFilter(final String type, final EntityFilter filter, final int limit) {
+        return delegate.findByFilter(type, filter, limit);
+    }
+
+    @Override
+    public Flux<Tuple2<E, EntityDetails>> findWithDetailsByType(final String type) {
+        return delegate.findWithDetailsByType(type);
+    }
+
+    @Override
+    public Flux<E> insertAll(final List<E> entities) {
+        return delegate.insertAll(entities);
+    }
+
+    @Override
+    public <S extends E> Mono<S> save(final S entity) {
+        return delegate.save(entity);
+    }
+
+    @Override
+    public <S extends E> Flux<S> saveAll(final Iterable<S> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public <S extends E> Flux<S> saveAll(final Publisher<S> entityStream) {
+        return delegate.saveAll(entityStream);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(final Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(final Publisher<Long> id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Flux<E> findAllById(final Iterable<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public Flux<E> findAllById(final Publisher<Long> idStream) {
+        return delegate.findAllById(idStream);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Mono<Void> deleteById(final Long id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Mono<Void> deleteById(final Publisher<Long> id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Mono<Void> delete(final E entity) {
+        return delegate.delete(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(final Iterable<? extends Long> ids) {
+        return delegate.deleteAllById(ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(final Iterable<? extends E> entities) {
+        return delegate.deleteAll(entities);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(final Publisher<? extends E> entityStream) {
+        return delegate.deleteAll(entityStream);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return delegate.deleteAll();
+    }
+
+    /**
+     * Reads one entity with the given clause over JDBC, or with the given R2DBC read inside a reactive transaction.
+     */
+    protected Mono<E> queryOne(
+            final Supplier<Mono<E>> transactionalRead,
+            final String whereClause,
+            final Object... args
+    ) {
+        return ReactiveTransactions.readOne(transactionalRead, () -> Mono.fromCallable(() -> jdbcTemplate
+                        .query(selectSql + whereClause, rowMapper, args).stream()
+                        .findFirst()
+                        .orElse(null))
+                .subscribeOn(scheduler));
+    }
+
+    /**
+     * Reads the entities matching the given clauses over JDBC, or with the given R2DBC read inside a reactive
+     * transaction.
+     */
+    protected Flux<E> queryAll(final Supplier<Flux<E>> transactionalRead, final String clauses, final Object... args) {
+        return ReactiveTransactions.readAll(transactionalRead, () -> Mono.fromCallable(() -> jdbcTemplate
+                        .query(selectSql + clauses, rowMapper, args))
+                .subscribeOn(scheduler)
+                .flatMapIterable(entities -> entities));
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.repository.jdbc;
+
+import io.jrb.labs.common.domain.LookupValue;
+import io.jrb.labs.common.repository.LookupValueRepository;
+import org.reactivestreams.Publisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Serves lookup value reads from blocking JDBC, run on a dedicated scheduler, while every write, and every read made
+ * inside a reactive transaction, goes to the R2DBC repository it wraps.
+ */
+public class JdbcLookupValueRepository implements LookupValueRepository {
+
+    private static final String SELECT_SQL = "SELECT * FROM t_lookup_value";
+
+    private static final RowMapper<LookupValue> ROW_MAPPER = (rs, rowNum) -> LookupValue.builder()
+            .id(rs.getLong("lv_id"))
+            .entityId(rs.getLong("lv_entity_id"))
+            .valueType(rs.getString("lv_value_type"))
+            .value(rs.getString("lv_value"))
+            .build();
+
+    private final LookupValueRepository delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Scheduler scheduler;
+
+    public JdbcLookupValueRepository(
+            final LookupValueRepository delegate,
+            final JdbcTemplate jdbcTemplate,
+            final Scheduler scheduler
+    ) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Flux<LookupValue> findByEntityId(final long entityId) {
+        return ReactiveTransactions.readAll(() -> delegate.findByEntityId(entityId), () -> Mono.fromCallable(() ->
+                        jdbcTemplate.query(SELECT_SQL + " WHERE lv_entity_id = ?", ROW_MAPPER, entityId))
+                .subscribeOn(scheduler)
+                .flatMapIterable(lookupValues -> lookupValues));
+    }
+
+    @Override
+    public Flux<LookupValue> findByEntityIdIn(final Collection<Long> entityIds) {
+        final String placeholders = String.join(",", Collections.nCopies(entityIds.size(), "?"));
+        return ReactiveTransactions.readAll(() -> delegate.findByEntityIdIn(entityIds), () -> Mono.fromCallable(() ->
+                        jdbcTemplate.query(
+                                SELECT_SQL + " WHERE lv_entity_id IN (" + placeholders + ")",
+                                ROW_MAPPER,
+                                entityIds.toArray()))
+                .subscribeOn(scheduler)
+                .flatMapIterable(lookupValues -> lookupValues));
+    }
+
+    @Override
+    public Mono<LookupValue> findById(final Long id) {
+        return ReactiveTransactions.readOne(() -> delegate.findById(id), () -> Mono.fromCallable(() -> jdbcTemplate
+                        .query(SELECT_SQL + " WHERE lv_id = ?", ROW_MAPPER, id).stream()
+                        .findFirst()
+                        .orElse(null))
+                .subscribeOn(scheduler));
+    }
+
+    @Override
+    public Mono<LookupValue> findById(final Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Void> deleteByEntityId(final long entityId) {
+        return delegate.deleteByEntityId(entityId);
+    }
+
+    @Override
+    public Mono<Integer> deleteByEntityIdIn(final Collection<Long> entityIds) {
+        return delegate.deleteByEntityIdIn(entityIds);
+    }
+
+    @Override
+    public Mono<Integer> deleteByIdIn(final Collection<Long> ids) {
+        return delegate.deleteByIdIn(ids);
+    }
+
+    @Override
+    public Mono<Integer> insertAll(final Collection<LookupValue> lookupValues) {
+        return delegate.insertAll(lookupValues);
+    }
+
+    @Override
+    public <S extends LookupValue> Mono<S> save(final S entity) {
+        return delegate.save(entity);
+    }
+
+    @Override
+    public <S extends LookupValue> Flux<S> saveAll(final Iterable<S> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public <S extends LookupValue> Flux<S> saveAll(final Publisher<S> entityStream) {
+        return delegate.saveAll(entityStream);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(final Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(final Publisher<Long> id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Flux<LookupValue> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<LookupValue> findAllById(final Iterable<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public Flux<LookupValue> findAllById(final Publisher<Long> idStream) {
+        return delegate.findAllById(idStream);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Mono<Void> deleteById(final Long id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Mono<Void> deleteById(final Publisher<Long> id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Mono<Void> delete(final LookupValue entity) {
+        return delegate.delete(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(final Iterable<? extends Long> ids) {
+        return delegate.deleteAllById(ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(final Iterable<? extends LookupValue> entities) {
+        return delegate.deleteAll(entities);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(final Publisher<? extends LookupValue> entityStream) {
+        return delegate.deleteAll(entityStream);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return delegate.deleteAll();
+    }
+
+}
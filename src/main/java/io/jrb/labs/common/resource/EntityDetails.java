@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.resource;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Provides a compact, immutable map of the lookup values attached to an entity, keyed by property type.
+ *
+ * Property names and values are interned and every value list is right-sized when the details are built, so list
+ * responses share repeated strings instead of carrying a fresh copy per entity. Instances are built once through
+ * {@link Builder} and handed to the resource as is.
+ */
+public final class EntityDetails extends AbstractMap<String, List<String>> {
+
+    private static final EntityDetails EMPTY = new EntityDetails(newEntries(0));
+
+    private final Map.Entry<String, List<String>>[] entries;
+
+    private EntityDetails(final Map.Entry<String, List<String>>[] entries) {
+        this.entries = entries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static EntityDetails empty() {
+        return EMPTY;
+    }
+
+    public static EntityDetails of(final Map<String, ? extends Collection<String>> details) {
+        if (details == null || details.isEmpty()) {
+            return EMPTY;
+        } else if (details instanceof EntityDetails) {
+            return (EntityDetails) details;
+        }
+        final Builder builder = builder();
+        details.forEach(builder::addAll);
+        return builder.build();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, List<String>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, List<String>>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.length;
+            }
+        };
+    }
+
+    @Override
+    public List<String> get(final Object key) {
+        for (final Map.Entry<String, List<String>> entry : entries) {
+            if (entry.getKey().equals(key)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    @Override
+    public int size() {
+        return entries.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map.Entry<String, List<String>>[] newEntries(final int size) {
+        return (Map.Entry<String, List<String>>[]) new Map.Entry[size];
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, List<String>>> {
+
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < entries.length;
+        }
+
+        @Override
+        public Map.Entry<String, List<String>> next() {
+            if (index >= entries.length) {
+                throw new NoSuchElementException();
+            }
+            return entries[index++];
+        }
+
+    }
+
+    /**
+     * Collects lookup values straight into right-sized arrays: entity types have a handful of properties, so names
+     * are matched by a linear scan, and each value array only grows past its exact size when a property has several
+     * values. Single values end up in {@link List#of(Object)} and the others wrap their array without a copy.
+     */
+    public static final class Builder {
+
+        private String[] names = new String[4];
+        private String[][] values = new String[4][];
+        private int[] counts = new int[4];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(final String name, final String value) {
+            final int index = indexOf(name);
+            final String[] nameValues = values[index];
+            if (counts[index] == nameValues.length) {
+                values[index] = Arrays.copyOf(nameValues, nameValues.length * 2);
+            }
+            values[index][counts[index]++] = value.intern();
+            return this;
+        }
+
+        public Builder addAll(final String name, final Collection<String> nameValues) {
+            if (nameValues != null) {
+                nameValues.forEach(value -> add(name, value));
+            }
+            return this;
+        }
+
+        public EntityDetails build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            final Map.Entry<String, List<String>>[] entries = newEntries(size);
+            for (int i = 0; i < size; i++) {
+                entries[i] = Map.entry(names[i], toList(values[i], counts[i]));
+            }
+            return new EntityDetails(entries);
+        }
+
+        private int indexOf(final String name) {
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            names[size] = name.intern();
+            values[size] = new String[1];
+            return size++;
+        }
+
+        private static List<String> toList(final String[] values, final int count) {
+            if (count == 1) {
+                return List.of(values[0]);
+            }
+            return Collections.unmodifiableList(Arrays.asList(count == values.length
+                    ? values
+                    : Arrays.copyOf(values, count)));
+        }
+
+    }
+
+}
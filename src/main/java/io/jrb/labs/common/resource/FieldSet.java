@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.resource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Describes the sparse fieldset a client asked for with a comma separated {@code fields} parameter. The standard
+ * resource fields are read from the entity table, and any other name is taken as an entity property, whose lookup
+ * values only need to be read when at least one property is requested.
+ */
+public final class FieldSet {
+
+    public static final Set<String> RESOURCE_FIELDS =
+            Set.of("guid", "type", "name", "createdOn", "updatedOn", "version");
+
+    private final Set<String> fields;
+    private final Set<String> resourceFields;
+    private final Set<String> properties;
+
+    private FieldSet(final Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+        this.resourceFields = fields.stream()
+                .filter(RESOURCE_FIELDS::contains)
+                .collect(Collectors.toUnmodifiableSet());
+        this.properties = fields.stream()
+                .filter(field -> !RESOURCE_FIELDS.contains(field))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static FieldSet parse(final String fields) {
+        return new FieldSet(Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public Set<String> getResourceFields() {
+        return resourceFields;
+    }
+
+    public Set<String> getProperties() {
+        return properties;
+    }
+
+    public boolean hasProperties() {
+        return !properties.isEmpty();
+    }
+
+    /**
+     * Renders the requested fields of a resource, in the order they were asked for. Fields without a value and
+     * properties the entity does not carry are left out. A deleted entity is rendered as its guid and deleted flag.
+     */
+    public Map<String, Object> apply(final Resource<?> resource) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        if (resource.isDeleted()) {
+            values.put("guid", resource.getGuid());
+            values.put("deleted", true);
+            return values;
+        }
+        for (final String field : fields) {
+            final Object value = valueOf(resource, field);
+            if (value != null) {
+                values.put(field, value);
+            }
+        }
+        return values;
+    }
+
+    private static Object valueOf(final Resource<?> resource, final String field) {
+        switch (field) {
+            case "guid":
+                return resource.getGuid();
+            case "type":
+                return resource.getType();
+            case "name":
+                return resource.getName();
+            case "createdOn":
+                return resource.getCreatedOn();
+            case "updatedOn":
+                return resource.getUpdatedOn();
+            case "version":
+                return resource.getVersion();
+            default:
+                final List<String> values = resource.getDetails() != null ? resource.getDetails().get(field) : null;
+                return values == null || values.isEmpty() ? null : values;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+
+}
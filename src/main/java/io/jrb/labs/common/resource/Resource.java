@@ -24,8 +24,6 @@
 package io.jrb.labs.common.resource;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
 
 public interface Resource<R extends Resource<R>> {
 
@@ -41,6 +39,15 @@ public interface Resource<R extends Resource<R>> {
 
     long getVersion();
 
-    R withDetails(Map<String, List<String>> details);
+    EntityDetails getDetails();
+
+    /**
+     * Tells whether the resource stands for a deleted entity, as listed among the changes of its type.
+     */
+    default boolean isDeleted() {
+        return false;
+    }
+
+    R withDetails(EntityDetails details);
 
 }
@@ -23,6 +23,7 @@
  */
 package io.jrb.labs.common.resource;
 
+import javax.validation.groups.Default;
 import java.util.List;
 import java.util.Map;
 
@@ -36,4 +37,10 @@ public interface ResourceRequest<R extends ResourceRequest<R>> {
 
     R withType(String type);
 
+    /**
+     * Validation group for constraints that only apply when a resource is created.
+     */
+    interface OnCreate extends Default {
+    }
+
 }
@@ -45,6 +45,23 @@ public interface Command<I, O, C extends CommandContext<I, O, C>> {
      */
     default String getCommandName() { return getClass().getSimpleName(); }
 
+    /**
+     * Indicates whether executing this command again with the same context has the same effect as executing it once.
+     * A command that is not idempotent is only retried while its failed attempt had not yet started to commit, so
+     * commands are assumed not to be and read-only ones opt in.
+     *
+     * @return {@code true} when the command is idempotent
+     */
+    default boolean isIdempotent() { return false; }
+
+    /**
+     * Indicates whether this command may be executed again with the same context at all, which is not the case when
+     * the context carries a stream that can be consumed only once.
+     *
+     * @return {@code true} when the command may be retried
+     */
+    default boolean isRetryable() { return true; }
+
     /**
      * Provides a default exception handler for commands.
      *
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command;
+
+import org.reactivestreams.Publisher;
+
+/**
+ * Defines middleware that runs around the execution of a {@link Command}. An interceptor may observe the context,
+ * wrap the publisher returned by the rest of the chain, or short-circuit the chain by returning a publisher of its own
+ * without proceeding. Interceptors run in their {@link org.springframework.core.annotation.Order} order.
+ */
+public interface CommandInterceptor {
+
+    /**
+     * Obtains the name by which this interceptor is enabled in configuration.
+     *
+     * @return the interceptor name
+     */
+    default String getName() { return getClass().getSimpleName(); }
+
+    /**
+     * Intercepts the execution of a command.
+     *
+     * @param command the command being executed
+     * @param context the inbound command context
+     * @param chain the rest of the chain, ending with the command
+     * @param <I> the input type
+     * @param <O> the output type
+     * @param <C> the command context type
+     * @return the resulting command contexts
+     */
+    <I, O, C extends CommandContext<I, O, C>> Publisher<C> intercept(
+            Command<I, O, C> command,
+            C context,
+            CommandChain<C> chain
+    );
+
+}
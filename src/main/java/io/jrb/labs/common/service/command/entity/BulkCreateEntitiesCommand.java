@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.domain.LookupValue;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.resource.ResourceRequest;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates entities from a stream of resource requests. Each request is validated as it arrives; valid requests are
+ * grouped into chunks that are written with one multi-row insert for the entities and one for their lookup values,
+ * committing in their own transaction. Should a chunk fail, typically because a name is already taken, its rows are
+ * retried one at a time so that only the offending records are rejected, each with its record number, and the stream
+ * carries on. Only the current chunk is ever held in memory.
+ */
+public abstract class BulkCreateEntitiesCommand<
+        I extends ResourceRequest<I>,
+        O extends Resource<O>,
+        C extends EntityCommandContext<I, O, C>,
+        E extends Entity<E>> implements Command<I, O, C> {
+
+    private final Function<I, E> toEntityFn;
+    private final EntityRepository<E> repository;
+    private final EntityUtils entityUtils;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+    private final int chunkSize;
+
+    protected BulkCreateEntitiesCommand(
+            final Function<I, E> toEntityFn,
+            final EntityRepository<E> repository,
+            final EntityUtils entityUtils,
+            final TransactionalOperator transactionalOperator,
+            final Validator validator,
+            final int chunkSize
+    ) {
+        this.toEntityFn = toEntityFn;
+        this.repository = repository;
+        this.entityUtils = entityUtils;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean isRetryable() {
+        return false;
+    }
+
+    @Override
+    public Mono<C> execute(final C context) {
+        final ImportJob job = context.getImportJob();
+        return Flux.defer(() -> importInputs(context, entityUtils.findEntityType(context.getEntityType())))
+                .doOnNext(job::imported)
+                .doOnComplete(job::complete)
+                .doOnError(t -> job.fail(String.valueOf(t.getMessage())))
+                .doOnCancel(() -> job.fail("import cancelled"))
+                .then(Mono.just(context))
+                .contextWrite(EntityPartitions.forType(context.getEntityType()));
+    }
+
+    private Flux<Integer> importInputs(final C context, final EntityType entityType) {
+        final ImportJob job = context.getImportJob();
+        return Flux.from(context.getInputs())
+                .map(input -> Tuples.of(job.received(), input))
+                .filter(row -> accept(job, row.getT1(), entityType, row.getT2()))
+                .map(row -> Tuples.of(row.getT1(), row.getT2().withType(entityType.getType())))
+                .buffer(chunkSize)
+                .concatMap(chunk -> importChunk(inputsOf(chunk))
+                        .onErrorResume(t -> importRows(job, chunk)));
+    }
+
+    private Mono<Integer> importRows(final ImportJob job, final List<Tuple2<Long, I>> chunk) {
+        return Flux.fromIterable(chunk)
+                .concatMap(row -> importChunk(List.of(row.getT2()))
+                        .onErrorResume(DataIntegrityViolationException.class, e -> {
+                            job.rejected(row.getT1(), "conflicts with an existing entity");
+                            return Mono.empty();
+                        })
+                        .onErrorResume(t -> {
+                            job.failed(1, "record " + row.getT1() + " failed: " + t.getMessage());
+                            return Mono.empty();
+                        }))
+                .reduce(0, Integer::sum);
+    }
+
+    private List<I> inputsOf(final List<Tuple2<Long, I>> chunk) {
+        return chunk.stream()
+                .map(Tuple2::getT2)
+                .collect(Collectors.toList());
+    }
+
+    private boolean accept(final ImportJob job, final long record, final EntityType entityType, final I input) {
+        final Set<ConstraintViolation<I>> violations = validator.validate(input, ResourceRequest.OnCreate.class);
+        if (!violations.isEmpty()) {
+            job.rejected(record, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+            return false;
+        }
+        try {
+            entityUtils.requireProperties(entityType, details(input).keySet());
+            return true;
+        } catch (final UnknownEntityPropertyException e) {
+            job.rejected(record, e.getMessage());
+            return false;
+        }
+    }
+
+    private Mono<Integer> importChunk(final List<I> chunk) {
+        final Map<String, I> inputsByGuid = chunk.stream()
+                .collect(Collectors.toMap(input -> UUID.randomUUID().toString(), Function.identity()));
+        final List<E> entities = inputsByGuid.entrySet().stream()
+                .map(entry -> toEntityFn.apply(entry.getValue()).withGuid(entry.getKey()))
+                .collect(Collectors.toList());
+        return repository.insertAll(entities)
+                .collectList()
+                .flatMap(inserted -> entityUtils.insertLookupValues(lookupValues(inserted, inputsByGuid))
+                        .then(entityUtils.publishChanges(EntityChangeEvent.ChangeType.CREATED, inserted)))
+                .map(List::size)
+                .as(transactionalOperator::transactional);
+    }
+
+    private List<LookupValue> lookupValues(final List<E> entities, final Map<String, I> inputsByGuid) {
+        return entities.stream()
+                .flatMap(entity -> details(inputsByGuid.get(entity.getGuid())).entrySet().stream()
+                        .flatMap(detail -> detail.getValue().stream()
+                                .map(value -> LookupValue.builder()
+                                        .entityId(entity.getId())
+                                        .valueType(detail.getKey())
+                                        .value(value)
+                                        .build())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, List<String>> details(final I input) {
+        return Optional.ofNullable(input.getDetails()).orElse(Map.of());
+    }
+
+}
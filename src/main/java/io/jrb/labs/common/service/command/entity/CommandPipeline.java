@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandChain;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.service.command.CommandInterceptor;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Executes commands through the {@link CommandInterceptor} beans enabled for the context's entity type. Each entity
+ * type may name its interceptors in its {@code interceptors} property; otherwise the service-wide
+ * {@code entity-service.interceptors} applies, and when neither is set no interceptor runs, so an interceptor bean
+ * only takes effect once it is named. The chains are resolved once at startup, where a name that matches no
+ * interceptor bean fails the startup rather than silently running without it, and a type without interceptors
+ * executes the command directly, without allocating.
+ */
+@Component
+public class CommandPipeline {
+
+    private static final CommandInterceptor[] NO_INTERCEPTORS = new CommandInterceptor[0];
+
+    private final Map<String, CommandInterceptor[]> chains;
+    private final CommandInterceptor[] defaultChain;
+
+    public CommandPipeline(
+            final ObjectProvider<CommandInterceptor> interceptors,
+            final EntityServiceProperties entSvcProps
+    ) {
+        final List<CommandInterceptor> ordered = interceptors.orderedStream().collect(Collectors.toList());
+        this.defaultChain = resolveChain(ordered, entSvcProps.getInterceptors());
+        this.chains = entSvcProps.getEntities().stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        EntityType::getType,
+                        entityType -> Optional.ofNullable(entityType.getInterceptors())
+                                .map(names -> resolveChain(ordered, names))
+                                .orElse(defaultChain)));
+    }
+
+    public <I, O, C extends CommandContext<I, O, C>> Publisher<C> execute(
+            final Command<I, O, C> command,
+            final C context
+    ) {
+        final CommandInterceptor[] chain = chains.getOrDefault(context.getEntityType(), defaultChain);
+        return chain.length == 0 ? command.execute(context) : new Invocation<>(chain, 0, command).proceed(context);
+    }
+
+    public <I, O, C extends CommandContext<I, O, C>> Mono<C> executeMono(
+            final Command<I, O, C> command,
+            final C context
+    ) {
+        return Mono.from(execute(command, context));
+    }
+
+    public <I, O, C extends CommandContext<I, O, C>> Flux<C> executeFlux(
+            final Command<I, O, C> command,
+            final C context
+    ) {
+        return Flux.from(execute(command, context));
+    }
+
+    private static CommandInterceptor[] resolveChain(
+            final List<CommandInterceptor> interceptors,
+            final List<String> enabled
+    ) {
+        if (enabled == null) {
+            return NO_INTERCEPTORS;
+        }
+        final List<String> unknown = enabled.stream()
+                .filter(name -> interceptors.stream().noneMatch(interceptor -> name.equals(interceptor.getName())))
+                .collect(Collectors.toList());
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("No command interceptor named " + unknown + ", known interceptors are "
+                    + interceptors.stream().map(CommandInterceptor::getName).collect(Collectors.toList()));
+        }
+        return interceptors.stream()
+                .filter(interceptor -> enabled.contains(interceptor.getName()))
+                .toArray(CommandInterceptor[]::new);
+    }
+
+    private static final class Invocation<I, O, C extends CommandContext<I, O, C>> implements CommandChain<C> {
+
+        private final CommandInterceptor[] chain;
+        private final int index;
+        private final Command<I, O, C> command;
+
+        Invocation(final CommandInterceptor[] chain, final int index, final Command<I, O, C> command) {
+            this.chain = chain;
+            this.index = index;
+            this.command = command;
+        }
+
+        @Override
+        public Publisher<C> proceed(final C context) {
+            if (index == chain.length) {
+                return command.execute(context);
+            }
+            return chain[index].intercept(command, context, new Invocation<>(chain, index + 1, command));
+        }
+
+    }
+
+}
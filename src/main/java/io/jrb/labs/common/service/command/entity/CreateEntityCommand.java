@@ -24,7 +24,9 @@
 package io.jrb.labs.common.service.command.entity;
 
 import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.repository.EntityPartitions;
 import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.resource.EntityDetails;
 import io.jrb.labs.common.resource.Resource;
 import io.jrb.labs.common.resource.ResourceRequest;
 import io.jrb.labs.common.service.command.Command;
@@ -33,14 +35,10 @@ import io.jrb.labs.common.service.command.entity.config.EntityType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuple2;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
@@ -58,21 +56,23 @@ public abstract class CreateEntityCommand<
     private final Function<E, O> toResourceFn;
     private final EntityRepository<E> repository;
     private final EntityUtils entityUtils;
+    private final TransactionalOperator transactionalOperator;
 
     protected CreateEntityCommand(
             final Function<I, E> toEntityFn,
             final Function<E, O> toResourceFn,
             final EntityRepository<E> repository,
-            final EntityUtils entityUtils
+            final EntityUtils entityUtils,
+            final TransactionalOperator transactionalOperator
     ) {
         this.toEntityFn = toEntityFn;
         this.toResourceFn = toResourceFn;
         this.repository = repository;
         this.entityUtils = entityUtils;
+        this.transactionalOperator = transactionalOperator;
     }
 
     @Override
-    @Transactional
     public Mono<C> execute(final C context) {
         final String entityTypeName = context.getEntityType();
         final EntityType entityType = entityUtils.findEntityType(entityTypeName);
@@ -82,24 +82,28 @@ public abstract class CreateEntityCommand<
                 .zipWhen(entity -> createLookupValues(entityType, entity, input))
                 .map(tuple -> toResourceFn.apply(tuple.getT1())
                         .withDetails(tuple.getT2()))
+                .as(transactionalOperator::transactional)
                 .map(context::withOutput)
-                .onErrorResume(t -> handleException(t, context));
+                .onErrorResume(t -> handleException(t, context))
+                .contextWrite(EntityPartitions.forType(entityType.getType()));
     }
 
-    private Mono<Map<String, List<String>>> createLookupValues(
+    private Mono<EntityDetails> createLookupValues(
             final EntityType entityType,
             final E entity,
             final I input
     ) {
         final Long entityId = entity.getId();
         return Optional.ofNullable(input.getDetails())
-                .map(details -> Flux.fromIterable(details.entrySet())
-                        .flatMap(entry -> {
-                            final String propName = entry.getKey();
-                            return entityUtils.createLookupValues(entityType, entityId, propName, entry.getValue())
-                                    .zipWith(Mono.just(propName));
-                        }).collectMap(Tuple2::getT2, Tuple2::getT1))
-                .orElse(Mono.just(Collections.emptyMap()));
+                .map(details -> entityUtils.fanOut(
+                                entityType,
+                                Flux.fromIterable(details.entrySet()),
+                                entry -> entityUtils
+                                        .createLookupValues(entityType, entityId, entry.getKey(), entry.getValue())
+                                        .zipWith(Mono.just(entry.getKey())))
+                        .reduceWith(EntityDetails::builder, (builder, t) -> builder.addAll(t.getT2(), t.getT1()))
+                        .map(EntityDetails.Builder::build))
+                .orElse(Mono.just(EntityDetails.empty()));
     }
 
     private Mono<E> createEntity(final EntityType entityType, final I request) {
@@ -107,7 +111,8 @@ public abstract class CreateEntityCommand<
                 .map(r -> r.withType(entityType.getType()))
                 .map(toEntityFn)
                 .map(entity -> entity.withGuid(UUID.randomUUID().toString()))
-                .flatMap(repository::save);
+                .flatMap(repository::save)
+                .flatMap(entity -> entityUtils.publishChange(EntityChangeEvent.ChangeType.CREATED, entity));
     }
 
     private Mono<C> handleException(final Throwable t, final C context) {
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.resource.ResourceRequest;
+import io.jrb.labs.common.service.ServiceException;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandException;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes either a single entity, identified by its guid, or every entity of a type that matches a filter. Lookup
+ * values are removed with one set-based statement per chunk of entities, and each chunk of a bulk delete commits in
+ * its own transaction so that a large purge never holds a single long-running transaction. Every deleted entity
+ * leaves a tombstone, written in the same transaction, for change listings to report.
+ */
+public abstract class DeleteEntityCommand<
+        I extends ResourceRequest<I>,
+        O extends Resource<O>,
+        C extends EntityCommandContext<I, O, C>,
+        E extends Entity<E>> implements Command<I, O, C> {
+
+    private final Function<E, O> toResourceFn;
+    private final EntityRepository<E> repository;
+    private final EntityUtils entityUtils;
+    private final TransactionalOperator transactionalOperator;
+    private final int chunkSize;
+
+    protected DeleteEntityCommand(
+            final Function<E, O> toResourceFn,
+            final EntityRepository<E> repository,
+            final EntityUtils entityUtils,
+            final TransactionalOperator transactionalOperator,
+            final int chunkSize
+    ) {
+        this.toResourceFn = toResourceFn;
+        this.repository = repository;
+        this.entityUtils = entityUtils;
+        this.transactionalOperator = transactionalOperator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Flux<C> execute(final C context) {
+        final String entityTypeName = context.getEntityType();
+        final EntityType entityType = entityUtils.findEntityType(entityTypeName);
+
+        final Flux<E> deleted = (context.getGuid() != null)
+                ? deleteEntity(entityType, context).flux()
+                : deleteEntities(entityType, context.getFilter());
+        return deleted
+                .map(toResourceFn)
+                .map(context::withOutput)
+                .onErrorResume(t -> handleException(t, context))
+                .contextWrite(EntityPartitions.forType(entityType.getType()));
+    }
+
+    private Mono<E> deleteEntity(final EntityType entityType, final C context) {
+        return repository.findByTypeAndGuid(entityType.getType(), context.getGuid())
+                .switchIfEmpty(Mono.error(new UnknownEntityException(this, entityType.getType())))
+                .flatMap(entity -> deleteEntity(entity, context))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<E> deleteEntity(final E entity, final C context) {
+        final Long version = context.getVersion();
+        if (version != null && version != entity.getVersion()) {
+            return Mono.error(new StaleEntityException(this, context.getEntityType(), version));
+        }
+        return deleteChunk(List.of(entity))
+                .then(entityUtils.publishChange(EntityChangeEvent.ChangeType.DELETED, entity));
+    }
+
+    private Flux<E> deleteEntities(final EntityType entityType, final EntityFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return Flux.error(new MissingEntityFilterException(entityType.getType()));
+        }
+        return Mono.fromRunnable(() -> entityUtils.requireProperties(entityType, filter.getDetails().keySet()))
+                .thenMany(repository.findByFilter(entityType.getType(), filter, chunkSize)
+                        .collectList()
+                        .flatMap(entities -> deleteChunk(entities).thenReturn(entities))
+                        .flatMap(entities -> entityUtils.publishChanges(EntityChangeEvent.ChangeType.DELETED, entities))
+                        .as(transactionalOperator::transactional)
+                        .repeat()
+                        .takeUntil(entities -> entities.size() < chunkSize))
+                .flatMapIterable(Function.identity(), entityUtils.findExecutionProfile(entityType).getPrefetch());
+    }
+
+    private Mono<Integer> deleteChunk(final List<E> entities) {
+        final List<Long> ids = entities.stream()
+                .map(Entity::getId)
+                .collect(Collectors.toList());
+        return entityUtils.deleteAllLookupValues(ids)
+                .then(entityUtils.insertTombstones(entities))
+                .then(repository.deleteByIdIn(ids));
+    }
+
+    private Flux<C> handleException(final Throwable t, final C context) {
+        if (t instanceof EntityCommandException || t instanceof ServiceException) {
+            return Flux.error(t);
+        }
+        return Flux.error(new CommandException(
+                this,
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "delete " + context.getEntityType(),
+                t
+        ));
+    }
+
+}
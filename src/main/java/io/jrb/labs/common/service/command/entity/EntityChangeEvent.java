@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.Entity;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Signals that an entity has been created, updated or deleted. Change events are published as application events
+ * once the transaction that made the change has committed.
+ */
+@Value
+@Builder
+public class EntityChangeEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    ChangeType changeType;
+
+    String entityType;
+
+    String guid;
+
+    String name;
+
+    long version;
+
+    public static <E extends Entity<E>> EntityChangeEvent of(final ChangeType changeType, final E entity) {
+        return EntityChangeEvent.builder()
+                .changeType(changeType)
+                .entityType(entity.getType())
+                .guid(entity.getGuid())
+                .name(entity.getName())
+                .version(entity.getVersion())
+                .build();
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Multicasts {@link EntityChangeEvent}s to live subscribers, with one sink per entity type. Nothing is retained for
+ * subscribers that are not connected, and each subscriber may fall behind by at most
+ * {@code entity-service.change-feed-buffer-size} events before it is disconnected.
+ */
+@Component
+@Slf4j
+public class EntityChangeFeed {
+
+    private final Map<String, Sinks.Many<EntityChangeEvent>> sinks;
+    private final int bufferSize;
+
+    public EntityChangeFeed(final EntityServiceProperties entSvcProps) {
+        this.sinks = entSvcProps.getEntities().stream()
+                .map(EntityType::getType)
+                .collect(Collectors.toUnmodifiableMap(
+                        Function.identity(),
+                        type -> Sinks.many().multicast().directBestEffort()
+                ));
+        this.bufferSize = entSvcProps.getChangeFeedBufferSize();
+    }
+
+    public Flux<EntityChangeEvent> changes(final String entityType) {
+        return findSink(entityType)
+                .map(sink -> sink.asFlux()
+                        .onBackpressureBuffer(bufferSize, event ->
+                                log.warn("disconnecting slow {} change subscriber", entityType),
+                                BufferOverflowStrategy.ERROR)
+                        .onErrorResume(Exceptions::isOverflow, t -> Flux.empty()))
+                .orElseThrow(() -> new UnknownEntityTypeException(entityType));
+    }
+
+    /**
+     * Emits the event to the live subscribers of its type. An emission that races with another publisher is retried
+     * rather than dropped. Having no subscriber is normal and is not reported, but any other failure is logged.
+     */
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        findSink(event.getEntityType()).ifPresent(sink -> {
+            Sinks.EmitResult result;
+            while ((result = sink.tryEmitNext(event)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                log.warn("Dropped {} change event for {}: {}", event.getEntityType(), event.getGuid(), result);
+            }
+        });
+    }
+
+    private Optional<Sinks.Many<EntityChangeEvent>> findSink(final String entityType) {
+        return Optional.ofNullable(sinks.get(entityType));
+    }
+
+}
@@ -23,9 +23,15 @@
  */
 package io.jrb.labs.common.service.command.entity;
 
+import io.jrb.labs.common.repository.EntityCursor;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntitySort;
+import io.jrb.labs.common.resource.FieldSet;
 import io.jrb.labs.common.resource.Resource;
 import io.jrb.labs.common.resource.ResourceRequest;
 import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.snapshot.SnapshotRecord;
+import org.reactivestreams.Publisher;
 
 public interface EntityCommandContext<
         I extends ResourceRequest<I>,
@@ -34,4 +40,40 @@ public interface EntityCommandContext<
 
     String getGuid();
 
+    Long getVersion();
+
+    EntityFilter getFilter();
+
+    FieldSet getFields();
+
+    EntitySort getSort();
+
+    String getAfter();
+
+    EntityCursor getChangedSince();
+
+    EntityCursor getWatermark();
+
+    String getPrefix();
+
+    Integer getLimit();
+
+    Publisher<SnapshotRecord> getRecords();
+
+    Publisher<I> getInputs();
+
+    ImportJob getImportJob();
+
+    C withWatermark(EntityCursor watermark);
+
+    /**
+     * Indicates whether a listing is filtered, sorted or paged, rather than a plain read of every entity of the type.
+     *
+     * @return {@code true} when the listing has to be served by a query
+     */
+    default boolean isQuery() {
+        return getFilter() != null || getSort() != null || getAfter() != null || getLimit() != null
+                || getChangedSince() != null;
+    }
+
 }
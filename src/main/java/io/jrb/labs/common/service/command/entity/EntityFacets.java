@@ -0,0 +1,173 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.repository.ReadReplica;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import lombok.Value;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the entities of a type per value of one of their properties with a single aggregate query over the lookup
+ * values, optionally restricted by an {@link EntityFilter}. The counts are cached per type, property and filter, and
+ * every cached count of a type is dropped on the next {@link EntityChangeEvent} for that type. Change events are only
+ * seen by the instance that made the change, so cached counts also expire after the configured time to live, which
+ * bounds how far behind the writes made through other instances they may be. A type whose cache is full makes room
+ * for new counts by evicting an entry.
+ */
+public class EntityFacets {
+
+    private final EntityRepository<?> repository;
+    private final EntityUtils entityUtils;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, TypeFacets> facets = new ConcurrentHashMap<>();
+
+    public EntityFacets(
+            final EntityRepository<?> repository,
+            final EntityUtils entityUtils,
+            final int maxEntries,
+            final Duration ttl
+    ) {
+        this.repository = repository;
+        this.entityUtils = entityUtils;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Mono<Map<String, Long>> count(
+            final String entityTypeName,
+            final String property,
+            final EntityFilter filter
+    ) {
+        final EntityType entityType = entityUtils.findEntityType(entityTypeName);
+        entityUtils.requireProperties(entityType, List.of(property));
+        entityUtils.requireProperties(entityType, filter.getDetails().keySet());
+
+        final String type = entityType.getType();
+        final TypeFacets typeFacets = facets.computeIfAbsent(type, k -> new TypeFacets());
+        final FacetKey key = new FacetKey(property, filter);
+        final Map<String, Long> cached = typeFacets.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        final long generation = typeFacets.generation.get();
+        return repository.countDetails(type, property, filter)
+                .collect(LinkedHashMap<String, Long>::new, (counts, count) -> counts.put(count.getT1(), count.getT2()))
+                .<Map<String, Long>>map(Collections::unmodifiableMap)
+                .doOnNext(counts -> typeFacets.put(key, counts, generation))
+                .contextWrite(EntityPartitions.forType(type))
+                .contextWrite(ReadReplica.forReads(type));
+    }
+
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        final TypeFacets typeFacets = facets.get(event.getEntityType());
+        if (typeFacets != null) {
+            typeFacets.invalidate();
+        }
+    }
+
+    @Value
+    private static class FacetKey {
+
+        String property;
+
+        EntityFilter filter;
+
+    }
+
+    private final class TypeFacets {
+
+        private final AtomicLong generation = new AtomicLong();
+        private final Map<FacetKey, Entry> counts = new ConcurrentHashMap<>();
+
+        Map<String, Long> get(final FacetKey key) {
+            final Entry entry = counts.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt >= 0) {
+                counts.remove(key, entry);
+                return null;
+            }
+            return entry.counts;
+        }
+
+        void put(final FacetKey key, final Map<String, Long> value, final long loadedAt) {
+            if (generation.get() != loadedAt) {
+                return;
+            }
+            if (counts.size() >= maxEntries) {
+                evict();
+            }
+            final Entry entry = new Entry(value, System.nanoTime() + ttlNanos);
+            counts.put(key, entry);
+            // a change that raced with the query must not leave its stale counts behind
+            if (generation.get() != loadedAt) {
+                counts.remove(key, entry);
+            }
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            counts.clear();
+        }
+
+        private void evict() {
+            final Iterator<Entry> iterator = counts.values().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final Map<String, Long> counts;
+        private final long expiresAt;
+
+        Entry(final Map<String, Long> counts, final long expiresAt) {
+            this.counts = counts;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains a sorted, in-memory index of entity names for each entity type so that name prefix lookups never touch
+ * the database. The index is loaded by an application runner, so readiness waits for it, and kept current through
+ * {@link EntityChangeEvent}s. Events that arrive while the load is running are held back and replayed once it
+ * completes, so a rename or delete made during the load is not overwritten by the row the load read before it.
+ */
+@Slf4j
+public class EntityNameIndex implements ApplicationRunner {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final EntityRepository<?> repository;
+    private final EntityServiceProperties entSvcProps;
+    private final Map<String, TypeIndex> indexes = new ConcurrentHashMap<>();
+    private final List<EntityChangeEvent> heldBack = new ArrayList<>();
+    private boolean loading = true;
+
+    public EntityNameIndex(final EntityRepository<?> repository, final EntityServiceProperties entSvcProps) {
+        this.repository = repository;
+        this.entSvcProps = entSvcProps;
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        final long startTime = System.nanoTime();
+        final Long count = load()
+                .onErrorResume(t -> {
+                    log.warn("Loading the name index failed", t);
+                    return Mono.just(0L);
+                })
+                .block();
+        log.info("Loaded {} entity names into the name index in {} ms", count,
+                Duration.ofNanos(System.nanoTime() - startTime).toMillis());
+    }
+
+    Mono<Long> load() {
+        return Flux.fromIterable(entSvcProps.getEntities())
+                .map(EntityType::getType)
+                .concatMap(type -> repository.findByType(type).contextWrite(EntityPartitions.forType(type)))
+                .doOnNext(entity -> add(entity.getType(), entity.getGuid(), entity.getName()))
+                .count()
+                .doFinally(signal -> replayHeldBack());
+    }
+
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        synchronized (heldBack) {
+            if (loading) {
+                heldBack.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void replayHeldBack() {
+        synchronized (heldBack) {
+            heldBack.forEach(this::apply);
+            heldBack.clear();
+            loading = false;
+        }
+    }
+
+    private void apply(final EntityChangeEvent event) {
+        if (event.getChangeType() == EntityChangeEvent.ChangeType.DELETED) {
+            remove(event.getEntityType(), event.getGuid());
+        } else {
+            add(event.getEntityType(), event.getGuid(), event.getName());
+        }
+    }
+
+    public List<EntitySuggestion> suggest(final String entityType, final String prefix, final int limit) {
+        final TypeIndex index = indexes.get(entityType);
+        if (index == null) {
+            return List.of();
+        }
+        final String from = prefix.toLowerCase(Locale.ROOT);
+        final NavigableMap<String, EntitySuggestion> matches = index.byKey.subMap(
+                from, true,
+                from + Character.MAX_VALUE, false
+        );
+        return matches.values().stream()
+                .limit(limit)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private void add(final String entityType, final String guid, final String name) {
+        indexes.computeIfAbsent(entityType, k -> new TypeIndex())
+                .put(new EntitySuggestion(entityType, guid, name));
+    }
+
+    private void remove(final String entityType, final String guid) {
+        final TypeIndex index = indexes.get(entityType);
+        if (index != null) {
+            index.remove(guid);
+        }
+    }
+
+    private static final class TypeIndex {
+
+        private final ConcurrentSkipListMap<String, EntitySuggestion> byKey = new ConcurrentSkipListMap<>();
+        private final Map<String, String> keyByGuid = new ConcurrentHashMap<>();
+
+        synchronized void put(final EntitySuggestion suggestion) {
+            final String key = suggestion.getName().toLowerCase(Locale.ROOT) + KEY_SEPARATOR + suggestion.getGuid();
+            final String previousKey = keyByGuid.put(suggestion.getGuid(), key);
+            if (previousKey != null && !previousKey.equals(key)) {
+                byKey.remove(previousKey);
+            }
+            byKey.put(key, suggestion);
+        }
+
+        synchronized void remove(final String guid) {
+            final String key = keyByGuid.remove(guid);
+            if (key != null) {
+                byKey.remove(key);
+            }
+        }
+
+    }
+
+}
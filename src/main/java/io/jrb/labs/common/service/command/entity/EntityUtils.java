@@ -25,20 +25,32 @@ package io.jrb.labs.common.service.command.entity;
 
 import io.jrb.labs.common.domain.Entity;
 import io.jrb.labs.common.domain.LookupValue;
+import io.jrb.labs.common.domain.Tombstone;
+import io.jrb.labs.common.repository.EntityCursor;
+import io.jrb.labs.common.repository.EntityPartitions;
 import io.jrb.labs.common.repository.LookupValueRepository;
+import io.jrb.labs.common.repository.TombstoneRepository;
+import io.jrb.labs.common.resource.EntityDetails;
 import io.jrb.labs.common.resource.Projection;
 import io.jrb.labs.common.resource.Resource;
 import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
 import io.jrb.labs.common.service.command.entity.config.EntityType;
+import io.jrb.labs.common.service.command.entity.config.ExecutionProfile;
+import io.jrb.labs.common.service.command.retry.CommitGuard;
+import org.reactivestreams.Publisher;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -46,14 +58,20 @@ import java.util.stream.Collectors;
 public class EntityUtils {
 
     private final LookupValueRepository lookupValueRepository;
+    private final TombstoneRepository tombstoneRepository;
     private final EntityServiceProperties entSvcProps;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EntityUtils(
             final LookupValueRepository lookupValueRepository,
-            final EntityServiceProperties entSvcProps
+            final TombstoneRepository tombstoneRepository,
+            final EntityServiceProperties entSvcProps,
+            final ApplicationEventPublisher eventPublisher
     ) {
         this.lookupValueRepository = lookupValueRepository;
+        this.tombstoneRepository = tombstoneRepository;
         this.entSvcProps = entSvcProps;
+        this.eventPublisher = eventPublisher;
     }
 
     public <E extends Entity<E>, O extends Resource<O>> Mono<O> addLookupValues(
@@ -63,11 +81,88 @@ public class EntityUtils {
             final Projection projection
     ) {
         return Mono.just(entity)
-                .zipWhen(e -> findValuesMap(entityType, e.getId(), projection))
+                .zipWhen(e -> findDetails(entityType, e.getId(), projection))
                 .map(tuple -> toResourceFn.apply(tuple.getT1())
                                 .withDetails(tuple.getT2()));
     }
 
+    /**
+     * Adds the lookup values to each of the given entities, fanning out as the entity type's {@link ExecutionProfile}
+     * allows. With a batch size above one, the lookup values of a whole batch of entities are read with one query.
+     * Every command that returns details goes through here, so a type's profile applies to all of them alike.
+     */
+    public <E extends Entity<E>, O extends Resource<O>> Flux<O> addLookupValues(
+            final EntityType entityType,
+            final Flux<E> entities,
+            final Function<E, O> toResourceFn,
+            final Projection projection
+    ) {
+        final boolean ordered = findExecutionProfile(entityType).isOrdered();
+        return addLookupValues(entityType, entities, toResourceFn, projection, ordered);
+    }
+
+    /**
+     * Adds the lookup values to each of the given entities like {@link #addLookupValues(EntityType, Flux, Function,
+     * Projection)} does, keeping the source order when asked to, whatever the entity type's profile says.
+     */
+    public <E extends Entity<E>, O extends Resource<O>> Flux<O> addLookupValues(
+            final EntityType entityType,
+            final Flux<E> entities,
+            final Function<E, O> toResourceFn,
+            final Projection projection,
+            final boolean ordered
+    ) {
+        final int batchSize = findExecutionProfile(entityType).getBatchSize();
+        if (batchSize <= 1) {
+            return fanOut(entityType, entities, e -> addLookupValues(entityType, e, toResourceFn, projection), ordered);
+        }
+        return fanOut(entityType, entities.buffer(batchSize),
+                        batch -> addBatchLookupValues(entityType, batch, toResourceFn, projection), ordered)
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Maps each source element to an inner publisher and merges the results, bounding the number of inner publishers
+     * subscribed at once and their prefetch by the entity type's {@link ExecutionProfile}. Ordered profiles emit the
+     * results in source order.
+     */
+    public <T, R> Flux<R> fanOut(
+            final EntityType entityType,
+            final Flux<T> source,
+            final Function<? super T, ? extends Publisher<? extends R>> mapper
+    ) {
+        return fanOut(entityType, source, mapper, findExecutionProfile(entityType).isOrdered());
+    }
+
+    public <T, R> Flux<R> fanOut(
+            final EntityType entityType,
+            final Flux<T> source,
+            final Function<? super T, ? extends Publisher<? extends R>> mapper,
+            final boolean ordered
+    ) {
+        final ExecutionProfile profile = findExecutionProfile(entityType);
+        return ordered
+                ? source.flatMapSequential(mapper, profile.getConcurrency(), profile.getPrefetch())
+                : source.flatMap(mapper, profile.getConcurrency(), profile.getPrefetch());
+    }
+
+    /**
+     * Finds the update time up to which changes are considered settled. Entities updated later are left out of change
+     * listings, so that a write still committing with an earlier update time, or stamped by a lagging clock, is not
+     * skipped by a client whose watermark already went past it.
+     */
+    public Instant findChangeHorizon() {
+        return Instant.now().minus(entSvcProps.getChangeSettleTime());
+    }
+
+    public int findChangePageSize() {
+        return entSvcProps.getChangePageSize();
+    }
+
+    public ExecutionProfile findExecutionProfile(final EntityType entityType) {
+        return Optional.ofNullable(entityType.getExecution()).orElse(entSvcProps.getExecution());
+    }
+
     public Mono<List<String>> createLookupValues(
             final EntityType entityType,
             final long entityId,
@@ -76,13 +171,13 @@ public class EntityUtils {
     ) {
         if (values != null) {
             entityType.findProperty(type).orElseThrow(() -> new UnknownEntityPropertyException(type));
-            return Flux.fromIterable(values)
+            final Flux<LookupValue> lookupValues = Flux.fromIterable(values)
                     .map(value -> LookupValue.builder()
                             .entityId(entityId)
                             .valueType(type)
                             .value(value)
-                            .build())
-                    .flatMap(lookupValueRepository::save)
+                            .build());
+            return fanOut(entityType, lookupValues, lookupValueRepository::save)
                     .map(LookupValue::getValue)
                     .collectList();
         } else {
@@ -90,6 +185,117 @@ public class EntityUtils {
         }
     }
 
+    public <E extends Entity<E>> Mono<E> publishChange(final EntityChangeEvent.ChangeType changeType, final E entity) {
+        return publishChanges(changeType, List.of(entity)).thenReturn(entity);
+    }
+
+    /**
+     * Publishes a change event for each of the given entities once the current transaction commits, or immediately
+     * when no transaction is active. Either way the {@link CommitGuard} of the command attempt learns of the commit.
+     */
+    public <E extends Entity<E>> Mono<List<E>> publishChanges(
+            final EntityChangeEvent.ChangeType changeType,
+            final List<E> entities
+    ) {
+        final List<EntityChangeEvent> events = entities.stream()
+                .map(entity -> EntityChangeEvent.of(changeType, entity))
+                .collect(Collectors.toList());
+        return Mono.deferContextual(ctx -> TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(tsm -> tsm.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> beforeCommit(final boolean readOnly) {
+                        return Mono.fromRunnable(() -> CommitGuard.markCommitting(ctx));
+                    }
+
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> events.forEach(eventPublisher::publishEvent));
+                    }
+                }))
+                .switchIfEmpty(Mono.error(new NoTransactionException("No synchronized transaction")))
+                .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(() -> {
+                    CommitGuard.markCommitting(ctx);
+                    events.forEach(eventPublisher::publishEvent);
+                })))
+                .thenReturn(entities);
+    }
+
+    /**
+     * Applies the requested lookup values to an entity, returning its details afterwards, or an empty result when no
+     * lookup values were requested so that the caller reads them like any other.
+     */
+    public Mono<EntityDetails> updateLookupValues(
+            final EntityType entityType,
+            final long entityId,
+            final Map<String, List<String>> details
+    ) {
+        if (details == null || details.isEmpty()) {
+            return Mono.empty();
+        }
+        requireProperties(entityType, details.keySet());
+        return lookupValueRepository.findByEntityId(entityId)
+                .collectList()
+                .map(stored -> LookupValueDiff.of(entityId, stored, details))
+                .flatMap(diff -> deleteLookupValuesById(diff.getDeletedIds())
+                        .then(lookupValueRepository.insertAll(diff.getInserted()))
+                        .thenReturn(diff.getDetails()));
+    }
+
+    public Mono<Integer> deleteAllLookupValues(final Collection<Long> entityIds) {
+        return entityIds.isEmpty() ? Mono.just(0) : lookupValueRepository.deleteByEntityIdIn(entityIds);
+    }
+
+    public Mono<Integer> insertLookupValues(final List<LookupValue> lookupValues) {
+        return lookupValueRepository.insertAll(lookupValues);
+    }
+
+    /**
+     * Leaves a tombstone for each of the given entities, stamped with the current time, so that change listings
+     * report their deletion.
+     */
+    public <E extends Entity<E>> Mono<Integer> insertTombstones(final List<E> entities) {
+        final Instant deletedOn = Instant.now();
+        return tombstoneRepository.insertAll(entities.stream()
+                .map(entity -> Tombstone.builder()
+                        .entityId(entity.getId())
+                        .type(entity.getType())
+                        .guid(entity.getGuid())
+                        .deletedOn(deletedOn)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Lists up to {@code limit} tombstones of a type that follow the watermark, in deletion order, stopping short of
+     * the given deletion time.
+     */
+    public Flux<Tombstone> findTombstones(
+            final String type,
+            final EntityCursor changedSince,
+            final Instant before,
+            final int limit
+    ) {
+        return tombstoneRepository.findChanges(type, (Instant) changedSince.getKey(), changedSince.getId(), before,
+                limit);
+    }
+
+    /**
+     * Drops the tombstones of every entity type deleted before the given time, each type in its own partition.
+     */
+    public Mono<Integer> purgeTombstones(final Instant before) {
+        return Flux.fromIterable(entSvcProps.getEntities())
+                .map(EntityType::getType)
+                .concatMap(type -> tombstoneRepository.deleteByTypeAndDeletedOnBefore(type, before)
+                        .contextWrite(EntityPartitions.forType(type)))
+                .reduce(0, Integer::sum);
+    }
+
+    public void requireProperties(final EntityType entityType, final Collection<String> propertyNames) {
+        propertyNames.forEach(type ->
+                entityType.findProperty(type).orElseThrow(() -> new UnknownEntityPropertyException(type)));
+    }
+
     public EntityType findEntityType(final String entityTypeName) {
         return entSvcProps.getEntities().stream()
                 .filter(d -> entityTypeName.equals(d.getType()))
@@ -97,22 +303,53 @@ public class EntityUtils {
                 .orElseThrow(() -> new UnknownEntityTypeException(entityTypeName));
     }
 
-    public Mono<Map<String, List<String>>> findValuesMap(
+    public Mono<EntityDetails> findDetails(
             final EntityType entityType,
             final long entityId,
             final Projection projection
     ) {
         return lookupValueRepository.findByEntityId(entityId)
-                .reduce(new HashMap<>(), (map, lv) -> {
-                    entityType.findProperty(lv.getValueType()).ifPresent(propertyType -> {
-                        if (projection.isAtLeast(propertyType.getProjection())) {
-                            final List<String> values = map.getOrDefault(lv.getValueType(), new ArrayList<>());
-                            values.add(lv.getValue());
-                            map.put(lv.getValueType(), values);
-                        }
-                    });
-                    return map;
-                });
+                .filter(lv -> isProjected(entityType, lv, projection))
+                .reduceWith(EntityDetails::builder, (builder, lv) -> builder.add(lv.getValueType(), lv.getValue()))
+                .map(EntityDetails.Builder::build);
+    }
+
+    private <E extends Entity<E>, O extends Resource<O>> Mono<List<O>> addBatchLookupValues(
+            final EntityType entityType,
+            final List<E> batch,
+            final Function<E, O> toResourceFn,
+            final Projection projection
+    ) {
+        final List<Long> entityIds = batch.stream()
+                .map(Entity::getId)
+                .collect(Collectors.toList());
+        return lookupValueRepository.findByEntityIdIn(entityIds)
+                .filter(lv -> isProjected(entityType, lv, projection))
+                .collectMultimap(LookupValue::getEntityId)
+                .map(lookupValues -> batch.stream()
+                        .map(entity -> toResourceFn.apply(entity)
+                                .withDetails(toDetails(lookupValues.getOrDefault(entity.getId(), List.of()))))
+                        .collect(Collectors.toList()));
+    }
+
+    private static EntityDetails toDetails(final Collection<LookupValue> lookupValues) {
+        final EntityDetails.Builder builder = EntityDetails.builder();
+        lookupValues.forEach(lv -> builder.add(lv.getValueType(), lv.getValue()));
+        return builder.build();
+    }
+
+    private static boolean isProjected(
+            final EntityType entityType,
+            final LookupValue lookupValue,
+            final Projection projection
+    ) {
+        return entityType.findProperty(lookupValue.getValueType())
+                .map(propertyType -> projection.isAtLeast(propertyType.getProjection()))
+                .orElse(false);
+    }
+
+    private Mono<Integer> deleteLookupValuesById(final List<Long> ids) {
+        return ids.isEmpty() ? Mono.just(0) : lookupValueRepository.deleteByIdIn(ids);
     }
 
 }
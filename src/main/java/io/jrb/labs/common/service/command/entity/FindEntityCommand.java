@@ -24,7 +24,10 @@
 package io.jrb.labs.common.service.command.entity;
 
 import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.repository.EntityPartitions;
 import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.repository.ReadReplica;
+import io.jrb.labs.common.resource.FieldSet;
 import io.jrb.labs.common.resource.Projection;
 import io.jrb.labs.common.resource.Resource;
 import io.jrb.labs.common.resource.ResourceRequest;
@@ -54,6 +57,11 @@ public abstract class FindEntityCommand<
         this.entityUtils = entityUtils;
     }
 
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+
     @Override
     public Mono<C> execute(final C context) {
         final String entityTypeName = context.getEntityType();
@@ -61,11 +69,24 @@ public abstract class FindEntityCommand<
 
         final String guid = context.getGuid();
         final Projection projection = context.getProjection();
-        return repository.findByTypeAndGuid(entityType.getType(), guid)
-                .flatMap(e -> entityUtils.addLookupValues(entityType, e, toResourceFn, projection))
+        final FieldSet fields = context.getFields();
+        final Mono<O> resource;
+        if (fields == null) {
+            resource = entityUtils.addLookupValues(entityType,
+                    repository.findByTypeAndGuid(entityType.getType(), guid).flux(), toResourceFn, projection).next();
+        } else {
+            entityUtils.requireProperties(entityType, fields.getProperties());
+            final Mono<E> entity = repository.findByTypeAndGuid(entityType.getType(), guid, fields.getResourceFields());
+            resource = fields.hasProperties()
+                    ? entityUtils.addLookupValues(entityType, entity.flux(), toResourceFn, Projection.DEEP).next()
+                    : entity.map(toResourceFn);
+        }
+        return resource
                 .map(context::withOutput)
                 .onErrorResume(t -> handleException(t, "find " + entityTypeName))
-                .switchIfEmpty(Mono.error(new UnknownEntityException(this, entityTypeName)));
+                .switchIfEmpty(Mono.error(new UnknownEntityException(this, entityTypeName)))
+                .contextWrite(EntityPartitions.forType(entityType.getType()))
+                .contextWrite(ReadReplica.forReads(entityType.getType()));
     }
 
 }
@@ -24,14 +24,29 @@
 package io.jrb.labs.common.service.command.entity;
 
 import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.domain.Tombstone;
+import io.jrb.labs.common.repository.EntityCursor;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityQuery;
 import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.repository.EntitySort;
+import io.jrb.labs.common.repository.ReadReplica;
+import io.jrb.labs.common.resource.FieldSet;
 import io.jrb.labs.common.resource.Projection;
 import io.jrb.labs.common.resource.Resource;
 import io.jrb.labs.common.resource.ResourceRequest;
 import io.jrb.labs.common.service.command.Command;
 import io.jrb.labs.common.service.command.entity.config.EntityType;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 public abstract class GetEntitiesCommand<
@@ -40,30 +55,157 @@ public abstract class GetEntitiesCommand<
         C extends EntityCommandContext<I, O, C>,
         E extends Entity<E>> implements Command<I, O, C> {
 
+    private static final EntitySort CHANGE_ORDER = EntitySort.of("updatedOn", false);
+
     private final Function<E, O> toResourceFn;
+    private final Function<Tombstone, O> toTombstoneResourceFn;
     private final EntityRepository<E> repository;
     private final EntityUtils entityUtils;
 
     protected GetEntitiesCommand(
             final Function<E, O> toResourceFn,
+            final Function<Tombstone, O> toTombstoneResourceFn,
             final EntityRepository<E> repository,
             final EntityUtils entityUtils
     ) {
         this.toResourceFn = toResourceFn;
+        this.toTombstoneResourceFn = toTombstoneResourceFn;
         this.repository = repository;
         this.entityUtils = entityUtils;
     }
 
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+
     @Override
     public Publisher<C> execute(final C context) {
         final String entityTypeName = context.getEntityType();
         final EntityType entityType = entityUtils.findEntityType(entityTypeName);
 
-        final Projection projection = context.getProjection();
-        return repository.findByType(entityType.getType())
-                .flatMap(e -> entityUtils.addLookupValues(entityType, e, toResourceFn, projection))
-                .map(context::withOutput)
-                .onErrorResume(t -> handleException(t, "retrieve all " + entityTypeName));
+        if (context.getFields() != null) {
+            entityUtils.requireProperties(entityType, context.getFields().getProperties());
+        }
+        if (context.getFilter() != null) {
+            entityUtils.requireProperties(entityType, context.getFilter().getDetails().keySet());
+        }
+        final Flux<C> contexts = context.getChangedSince() != null
+                ? findChanges(entityType, context)
+                : toResources(entityType, findEntities(entityType, context), context).map(context::withOutput);
+        return contexts
+                .onErrorResume(t -> t instanceof UnknownEntityException
+                        ? Mono.error(t)
+                        : handleException(t, "retrieve all " + entityTypeName))
+                .contextWrite(EntityPartitions.forType(entityType.getType()))
+                .contextWrite(ReadReplica.forReads(entityType.getType()));
+    }
+
+    /**
+     * Reads the entities of a listing. Filtered, sorted or paged listings are served by a single query, which starts
+     * right after the entity named by the context, if any.
+     */
+    private Flux<E> findEntities(final EntityType entityType, final C context) {
+        final String type = entityType.getType();
+        final Collection<String> properties = findResourceFields(context);
+        if (!context.isQuery()) {
+            return properties == null ? repository.findByType(type) : repository.findByType(type, properties);
+        }
+        final EntityQuery.EntityQueryBuilder query = EntityQuery.builder()
+                .filter(findFilter(context))
+                .sort(context.getSort())
+                .limit(context.getLimit())
+                .properties(properties);
+        if (context.getAfter() == null) {
+            return repository.findByQuery(type, query.build());
+        }
+        return repository.findByTypeAndGuid(type, context.getAfter())
+                .switchIfEmpty(Mono.error(new UnknownEntityException(this, context.getEntityType())))
+                .map(after -> EntityCursor.of(context.getSort() != null ? context.getSort().keyOf(after) : null,
+                        after.getId()))
+                .flatMapMany(after -> repository.findByQuery(type, query.after(after).build()));
+    }
+
+    /**
+     * Lists one page of the entities changed after the watermark of the context, in update order, with the entity
+     * identifier breaking ties between equal update times. Deleted entities are listed by their tombstones, merged
+     * into the same order by deletion time, after the updated entities of the page. Tombstones are listed whatever
+     * the filter of the context, as a deleted entity no longer has the properties the filter might match. Changes past
+     * the settle horizon are left for a later page, and a page holds at most {@code entity-service.change-page-size}
+     * changes whatever limit the client asks for, since both lists are held in memory to be merged. Every output
+     * context carries the watermark of the last change of the page. Tombstones are purged after their retention, see
+     * {@link TombstonePurger}.
+     */
+    private Flux<C> findChanges(final EntityType entityType, final C context) {
+        final EntityFilter filter = findFilter(context);
+        final Instant horizon = entityUtils.findChangeHorizon();
+        final Instant updatedBefore = filter.getUpdatedBefore() != null && filter.getUpdatedBefore().isBefore(horizon)
+                ? filter.getUpdatedBefore()
+                : horizon;
+        final int pageSize = entityUtils.findChangePageSize();
+        final int limit = Math.min(Optional.ofNullable(context.getLimit()).orElse(pageSize), pageSize);
+        final EntityQuery query = EntityQuery.builder()
+                .filter(filter.toBuilder().updatedBefore(updatedBefore).build())
+                .sort(CHANGE_ORDER)
+                .after(context.getChangedSince())
+                .limit(limit)
+                .properties(findResourceFields(context))
+                .build();
+        return Mono.zip(
+                        repository.findByQuery(entityType.getType(), query).collectList(),
+                        entityUtils.findTombstones(entityType.getType(), context.getChangedSince(), updatedBefore,
+                                limit).collectList())
+                .flatMapMany(changes -> {
+                    final List<E> entities = changes.getT1();
+                    final List<Tombstone> tombstones = changes.getT2();
+                    final List<E> updated = new ArrayList<>();
+                    final List<Tombstone> deleted = new ArrayList<>();
+                    EntityCursor watermark = null;
+                    int e = 0;
+                    int t = 0;
+                    while (updated.size() + deleted.size() < limit && (e < entities.size() || t < tombstones.size())) {
+                        if (t == tombstones.size()
+                                || (e < entities.size() && precedes(entities.get(e), tombstones.get(t)))) {
+                            final E entity = entities.get(e++);
+                            updated.add(entity);
+                            watermark = EntityCursor.of(entity.getUpdatedOn(), entity.getId());
+                        } else {
+                            final Tombstone tombstone = tombstones.get(t++);
+                            deleted.add(tombstone);
+                            watermark = EntityCursor.of(tombstone.getDeletedOn(), tombstone.getEntityId());
+                        }
+                    }
+                    if (watermark == null) {
+                        return Flux.<C>empty();
+                    }
+                    final EntityCursor pageWatermark = watermark;
+                    return toResources(entityType, Flux.fromIterable(updated), context)
+                            .concatWith(Flux.fromIterable(deleted).map(toTombstoneResourceFn))
+                            .map(resource -> context.withOutput(resource).withWatermark(pageWatermark));
+                });
+    }
+
+    private static boolean precedes(final Entity<?> entity, final Tombstone tombstone) {
+        final int order = entity.getUpdatedOn().compareTo(tombstone.getDeletedOn());
+        return order != 0 ? order < 0 : entity.getId() < tombstone.getEntityId();
+    }
+
+    private Flux<O> toResources(final EntityType entityType, final Flux<E> entities, final C context) {
+        final FieldSet fields = context.getFields();
+        if (fields != null && !fields.hasProperties()) {
+            return entities.map(toResourceFn);
+        }
+        final Projection projection = fields != null ? Projection.DEEP : context.getProjection();
+        final boolean ordered = context.isQuery() || entityUtils.findExecutionProfile(entityType).isOrdered();
+        return entityUtils.addLookupValues(entityType, entities, toResourceFn, projection, ordered);
+    }
+
+    private static EntityFilter findFilter(final EntityCommandContext<?, ?, ?> context) {
+        return Optional.ofNullable(context.getFilter()).orElseGet(() -> EntityFilter.builder().build());
+    }
+
+    private static Collection<String> findResourceFields(final EntityCommandContext<?, ?, ?> context) {
+        return context.getFields() != null ? context.getFields().getResourceFields() : null;
     }
 
 }
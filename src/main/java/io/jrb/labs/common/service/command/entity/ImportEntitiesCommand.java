@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.domain.LookupValue;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.resource.ResourceRequest;
+import io.jrb.labs.common.service.ServiceException;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandException;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import io.jrb.labs.common.snapshot.SnapshotFormatException;
+import io.jrb.labs.common.snapshot.SnapshotRecord;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the snapshot records carried by the context. Records are grouped into chunks, and each chunk is written with
+ * one multi-row insert for the entities and one for their lookup values, committing in its own transaction.
+ */
+public abstract class ImportEntitiesCommand<
+        I extends ResourceRequest<I>,
+        O extends Resource<O>,
+        C extends EntityCommandContext<I, O, C>,
+        E extends Entity<E>> implements Command<I, O, C> {
+
+    private static final String UNIQUE_INDEX_ERROR = "Unique index or primary key violation";
+
+    private final Function<SnapshotRecord, E> toEntityFn;
+    private final Function<E, O> toResourceFn;
+    private final EntityRepository<E> repository;
+    private final EntityUtils entityUtils;
+    private final TransactionalOperator transactionalOperator;
+    private final int chunkSize;
+
+    protected ImportEntitiesCommand(
+            final Function<SnapshotRecord, E> toEntityFn,
+            final Function<E, O> toResourceFn,
+            final EntityRepository<E> repository,
+            final EntityUtils entityUtils,
+            final TransactionalOperator transactionalOperator,
+            final int chunkSize
+    ) {
+        this.toEntityFn = toEntityFn;
+        this.toResourceFn = toResourceFn;
+        this.repository = repository;
+        this.entityUtils = entityUtils;
+        this.transactionalOperator = transactionalOperator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean isRetryable() {
+        return false;
+    }
+
+    @Override
+    public Flux<C> execute(final C context) {
+        final String entityTypeName = context.getEntityType();
+        final EntityType entityType = entityUtils.findEntityType(entityTypeName);
+
+        return Flux.from(context.getRecords())
+                .map(record -> requireType(entityType, record))
+                .buffer(chunkSize)
+                .concatMap(chunk -> importChunk(entityType, chunk))
+                .map(toResourceFn)
+                .map(context::withOutput)
+                .onErrorResume(t -> handleException(t, context))
+                .contextWrite(EntityPartitions.forType(entityType.getType()));
+    }
+
+    private Flux<E> importChunk(final EntityType entityType, final List<SnapshotRecord> chunk) {
+        final Map<String, SnapshotRecord> recordsByGuid = chunk.stream()
+                .collect(Collectors.toMap(SnapshotRecord::getGuid, Function.identity(), (a, b) -> b));
+        return Mono.fromCallable(() -> toEntities(entityType, chunk))
+                .flatMapMany(repository::insertAll)
+                .collectList()
+                .flatMap(entities -> entityUtils.insertLookupValues(lookupValues(entities, recordsByGuid))
+                        .then(entityUtils.publishChanges(EntityChangeEvent.ChangeType.CREATED, entities)))
+                .as(transactionalOperator::transactional)
+                .flatMapIterable(Function.identity());
+    }
+
+    private static SnapshotRecord requireType(final EntityType entityType, final SnapshotRecord record) {
+        if (!entityType.getType().equals(record.getType())) {
+            throw new SnapshotFormatException("A snapshot of " + record.getType() + " entities cannot be imported as "
+                    + entityType.getType());
+        }
+        return record;
+    }
+
+    private List<E> toEntities(final EntityType entityType, final List<SnapshotRecord> chunk) {
+        chunk.forEach(record -> entityUtils.requireProperties(entityType, record.getDetails().keySet()));
+        return chunk.stream()
+                .map(toEntityFn)
+                .collect(Collectors.toList());
+    }
+
+    private List<LookupValue> lookupValues(final List<E> entities, final Map<String, SnapshotRecord> recordsByGuid) {
+        return entities.stream()
+                .flatMap(entity -> recordsByGuid.get(entity.getGuid()).getDetails().entrySet().stream()
+                        .flatMap(detail -> detail.getValue().stream()
+                                .map(value -> LookupValue.builder()
+                                        .entityId(entity.getId())
+                                        .valueType(detail.getKey())
+                                        .value(value)
+                                        .build())))
+                .collect(Collectors.toList());
+    }
+
+    private Flux<C> handleException(final Throwable t, final C context) {
+        final String entityType = context.getEntityType();
+        if (t instanceof DataIntegrityViolationException) {
+            final Optional<String> message = Optional.ofNullable(t.getMessage());
+            if (message.isPresent() && message.get().contains(UNIQUE_INDEX_ERROR)) {
+                return Flux.error(new DuplicateEntityException(this, entityType));
+            }
+        } else if (t instanceof EntityCommandException
+                || t instanceof ServiceException
+                || t instanceof SnapshotFormatException) {
+            return Flux.error(t);
+        }
+        return Flux.error(new CommandException(
+                this,
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "import " + entityType,
+                t
+        ));
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.resource.ImportJobResource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of a single bulk import. Counters are updated as records stream through the import pipeline
+ * and can be read at any time; only the first few error messages are kept so the job stays small however many
+ * records fail.
+ */
+public class ImportJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private static final int MAX_ERRORS = 20;
+
+    private final String id = UUID.randomUUID().toString();
+    private final String entityType;
+    private final Instant startedOn = Instant.now();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedOn;
+
+    public ImportJob(final String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    public long received() {
+        return received.incrementAndGet();
+    }
+
+    public void imported(final int count) {
+        imported.addAndGet(count);
+    }
+
+    public void rejected(final long record, final String message) {
+        rejected.incrementAndGet();
+        addError("record " + record + ": " + message);
+    }
+
+    public void failed(final int count, final String message) {
+        failed.addAndGet(count);
+        addError(message);
+    }
+
+    public void complete() {
+        finish(Status.COMPLETED);
+    }
+
+    public void fail(final String message) {
+        addError(message);
+        finish(Status.FAILED);
+    }
+
+    public synchronized ImportJobResource toResource() {
+        return ImportJobResource.builder()
+                .id(id)
+                .entityType(entityType)
+                .status(status.name())
+                .startedOn(startedOn)
+                .finishedOn(finishedOn)
+                .received(received.get())
+                .imported(imported.get())
+                .rejected(rejected.get())
+                .failed(failed.get())
+                .errors(List.copyOf(errors))
+                .build();
+    }
+
+    private synchronized void addError(final String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    private synchronized void finish(final Status finalStatus) {
+        if (status == Status.RUNNING) {
+            status = finalStatus;
+            finishedOn = Instant.now();
+        }
+    }
+
+}
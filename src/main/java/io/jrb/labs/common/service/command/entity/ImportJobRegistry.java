@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the running bulk imports, plus a bounded history of finished ones, so their progress can be queried while
+ * and after they run. A job is only started for a known entity type.
+ */
+@Component
+public class ImportJobRegistry {
+
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+    private final Set<String> entityTypes;
+    private final int history;
+
+    public ImportJobRegistry(final EntityServiceProperties entSvcProps) {
+        this.entityTypes = entSvcProps.getEntities().stream()
+                .map(EntityType::getType)
+                .collect(Collectors.toUnmodifiableSet());
+        this.history = entSvcProps.getImportJobHistory();
+    }
+
+    public synchronized ImportJob start(final String entityType) {
+        if (!entityTypes.contains(entityType)) {
+            throw new UnknownEntityTypeException(entityType);
+        }
+        final ImportJob job = new ImportJob(entityType);
+        jobs.put(job.getId(), job);
+        evictFinished();
+        return job;
+    }
+
+    public synchronized Optional<ImportJob> find(final String entityType, final String id) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.getEntityType().equals(entityType));
+    }
+
+    public synchronized List<ImportJob> findAll(final String entityType) {
+        return jobs.values().stream()
+                .filter(job -> job.getEntityType().equals(entityType))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private void evictFinished() {
+        final Iterator<ImportJob> oldestFirst = jobs.values().iterator();
+        int excess = jobs.size() - history;
+        while (excess > 0 && oldestFirst.hasNext()) {
+            if (oldestFirst.next().isFinished()) {
+                oldestFirst.remove();
+                excess--;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.LookupValue;
+import io.jrb.labs.common.resource.EntityDetails;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes the lookup value rows that must be deleted and inserted to move an entity from its stored details to the
+ * requested ones. Only the properties present in the requested details are touched; all other properties are kept as
+ * is.
+ */
+@Value
+class LookupValueDiff {
+
+    List<Long> deletedIds;
+
+    List<LookupValue> inserted;
+
+    EntityDetails details;
+
+    static LookupValueDiff of(
+            final long entityId,
+            final List<LookupValue> stored,
+            final Map<String, List<String>> requested
+    ) {
+        final Map<String, Set<String>> pending = new LinkedHashMap<>();
+        requested.forEach((type, values) ->
+                pending.put(type, values != null ? new LinkedHashSet<>(values) : new LinkedHashSet<>()));
+
+        final List<Long> deletedIds = new ArrayList<>();
+        final EntityDetails.Builder details = EntityDetails.builder();
+        for (final LookupValue lookupValue : stored) {
+            final Set<String> values = pending.get(lookupValue.getValueType());
+            if (values == null || values.remove(lookupValue.getValue())) {
+                details.add(lookupValue.getValueType(), lookupValue.getValue());
+            } else {
+                deletedIds.add(lookupValue.getId());
+            }
+        }
+
+        final List<LookupValue> inserted = new ArrayList<>();
+        pending.forEach((type, values) -> values.forEach(value -> {
+            inserted.add(LookupValue.builder()
+                    .entityId(entityId)
+                    .valueType(type)
+                    .value(value)
+                    .build());
+            details.add(type, value);
+        }));
+
+        return new LookupValueDiff(deletedIds, inserted, details.build());
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Purges the tombstones older than {@code entity-service.tombstone-retention} once per
+ * {@code entity-service.tombstone-purge-interval}, so that the deletions kept for change listings do not pile up
+ * forever. A change listing can therefore only be followed from a watermark younger than the retention: a client
+ * whose watermark is older than {@link #findOldestWatermark()} may have missed deletions and has to start over from
+ * a full listing.
+ */
+@Slf4j
+public class TombstonePurger implements DisposableBean {
+
+    private final EntityUtils entityUtils;
+    private final Duration retention;
+    private final Duration purgeInterval;
+    private Disposable schedule;
+
+    public TombstonePurger(final EntityUtils entityUtils, final EntityServiceProperties entSvcProps) {
+        this.entityUtils = entityUtils;
+        this.retention = entSvcProps.getTombstoneRetention();
+        this.purgeInterval = entSvcProps.getTombstonePurgeInterval();
+    }
+
+    @EventListener({ApplicationReadyEvent.class})
+    public synchronized void start() {
+        if (schedule == null) {
+            schedule = Flux.interval(purgeInterval)
+                    .concatMap(ignored -> purge()
+                            .onErrorResume(t -> {
+                                log.warn("Unable to purge tombstones", t);
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+        }
+    }
+
+    /**
+     * Returns the oldest watermark from which the changes of a type can still be listed without missing a deletion.
+     */
+    public Instant findOldestWatermark() {
+        return Instant.now().minus(retention);
+    }
+
+    public Mono<Integer> purge() {
+        return entityUtils.purgeTombstones(findOldestWatermark())
+                .doOnNext(purged -> log.debug("Purged {} tombstones", purged));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+}
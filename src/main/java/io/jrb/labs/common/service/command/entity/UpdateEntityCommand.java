@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.EntityRepository;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.resource.ResourceRequest;
+import io.jrb.labs.common.service.ServiceException;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandException;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Applies a partial update to an entity. The entity row is saved against its expected version, and only the lookup
+ * values that differ from the stored ones are deleted or inserted, all within the same transaction.
+ */
+public abstract class UpdateEntityCommand<
+        I extends ResourceRequest<I>,
+        O extends Resource<O>,
+        C extends EntityCommandContext<I, O, C>,
+        E extends Entity<E>> implements Command<I, O, C> {
+
+    private static final String UNIQUE_INDEX_ERROR = "Unique index or primary key violation";
+
+    private final Function<E, O> toResourceFn;
+    private final EntityRepository<E> repository;
+    private final EntityUtils entityUtils;
+    private final TransactionalOperator transactionalOperator;
+
+    protected UpdateEntityCommand(
+            final Function<E, O> toResourceFn,
+            final EntityRepository<E> repository,
+            final EntityUtils entityUtils,
+            final TransactionalOperator transactionalOperator
+    ) {
+        this.toResourceFn = toResourceFn;
+        this.repository = repository;
+        this.entityUtils = entityUtils;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Mono<C> execute(final C context) {
+        final String entityTypeName = context.getEntityType();
+        final EntityType entityType = entityUtils.findEntityType(entityTypeName);
+
+        final I input = context.getInput();
+        return repository.findByTypeAndGuid(entityType.getType(), context.getGuid())
+                .switchIfEmpty(Mono.error(new UnknownEntityException(this, entityTypeName)))
+                .flatMap(entity -> updateEntity(entity, input, context))
+                .flatMap(entity -> entityUtils.updateLookupValues(entityType, entity.getId(), input.getDetails())
+                        .map(details -> toResourceFn.apply(entity).withDetails(details))
+                        .switchIfEmpty(entityUtils.addLookupValues(entityType, Flux.just(entity), toResourceFn,
+                                Projection.DEEP).next()))
+                .as(transactionalOperator::transactional)
+                .map(context::withOutput)
+                .onErrorResume(t -> handleException(t, context))
+                .contextWrite(EntityPartitions.forType(entityType.getType()));
+    }
+
+    private Mono<E> updateEntity(final E entity, final I request, final C context) {
+        final Long version = context.getVersion();
+        if (version != null && version != entity.getVersion()) {
+            return Mono.error(new StaleEntityException(this, context.getEntityType(), version));
+        }
+        return Mono.just(entity)
+                .map(e -> request.getName() != null ? e.withName(request.getName()) : e)
+                .flatMap(repository::save)
+                .flatMap(e -> entityUtils.publishChange(EntityChangeEvent.ChangeType.UPDATED, e));
+    }
+
+    private Mono<C> handleException(final Throwable t, final C context) {
+        final String entityType = context.getEntityType();
+        if (t instanceof OptimisticLockingFailureException) {
+            return Mono.error(new StaleEntityException(this, entityType, context.getVersion()));
+        } else if (t instanceof DataIntegrityViolationException) {
+            final Optional<String> message = Optional.ofNullable(t.getMessage());
+            if (message.isPresent() && message.get().contains(UNIQUE_INDEX_ERROR)) {
+                return Mono.error(new DuplicateEntityException(this, entityType));
+            }
+        } else if (t instanceof EntityCommandException || t instanceof ServiceException) {
+            return Mono.error(t);
+        }
+        return Mono.error(new CommandException(
+                this,
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "update " + entityType,
+                t
+        ));
+    }
+
+}
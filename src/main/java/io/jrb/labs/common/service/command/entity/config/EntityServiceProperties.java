@@ -26,14 +26,93 @@ package io.jrb.labs.common.service.command.entity.config;
 import lombok.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
 
+import javax.validation.constraints.Min;
+
+import java.time.Duration;
 import java.util.List;
 
 @Value
 @ConstructorBinding
 @ConfigurationProperties("entity-service")
+@Validated
 public class EntityServiceProperties {
 
     List<EntityType> entities;
 
+    @Min(1)
+    int deleteChunkSize;
+
+    int changeFeedBufferSize;
+
+    @Min(1)
+    int importChunkSize;
+
+    int importJobHistory;
+
+    int facetCacheSize;
+
+    Duration facetCacheTtl;
+
+    @Min(1)
+    int changePageSize;
+
+    Duration changeSettleTime;
+
+    Duration tombstoneRetention;
+
+    Duration tombstonePurgeInterval;
+
+    String storage;
+
+    int jdbcThreads;
+
+    boolean jdbcVirtualThreads;
+
+    boolean partitioned;
+
+    ExecutionProfile execution;
+
+    List<String> interceptors;
+
+    public EntityServiceProperties(
+            final List<EntityType> entities,
+            @DefaultValue("500") final int deleteChunkSize,
+            @DefaultValue("256") final int changeFeedBufferSize,
+            @DefaultValue("500") final int importChunkSize,
+            @DefaultValue("100") final int importJobHistory,
+            @DefaultValue("1000") final int facetCacheSize,
+            @DefaultValue("1m") final Duration facetCacheTtl,
+            @DefaultValue("1000") final int changePageSize,
+            @DefaultValue("2s") final Duration changeSettleTime,
+            @DefaultValue("7d") final Duration tombstoneRetention,
+            @DefaultValue("1h") final Duration tombstonePurgeInterval,
+            @DefaultValue("r2dbc") final String storage,
+            @DefaultValue("32") final int jdbcThreads,
+            @DefaultValue("true") final boolean jdbcVirtualThreads,
+            @DefaultValue("false") final boolean partitioned,
+            @DefaultValue final ExecutionProfile execution,
+            final List<String> interceptors
+    ) {
+        this.entities = entities;
+        this.deleteChunkSize = deleteChunkSize;
+        this.changeFeedBufferSize = changeFeedBufferSize;
+        this.importChunkSize = importChunkSize;
+        this.importJobHistory = importJobHistory;
+        this.facetCacheSize = facetCacheSize;
+        this.facetCacheTtl = facetCacheTtl;
+        this.changePageSize = changePageSize;
+        this.changeSettleTime = changeSettleTime;
+        this.tombstoneRetention = tombstoneRetention;
+        this.tombstonePurgeInterval = tombstonePurgeInterval;
+        this.storage = storage;
+        this.jdbcThreads = jdbcThreads;
+        this.jdbcVirtualThreads = jdbcVirtualThreads;
+        this.partitioned = partitioned;
+        this.execution = execution;
+        this.interceptors = interceptors;
+    }
+
 }
@@ -23,6 +23,7 @@
  */
 package io.jrb.labs.common.service.command.entity.config;
 
+import io.jrb.labs.common.materialized.MaterializedPolicy;
 import lombok.Value;
 import org.springframework.boot.context.properties.ConstructorBinding;
 
@@ -37,6 +38,14 @@ public class EntityType {
 
     List<PropertyType> properties;
 
+    ExecutionProfile execution;
+
+    List<String> interceptors;
+
+    boolean prewarm;
+
+    MaterializedPolicy materialized;
+
     public Optional<PropertyType> findProperty(final String propertyName) {
         return Optional.ofNullable(properties)
                 .flatMap(props -> props.stream().filter(p -> p.getType().equals(propertyName)).findFirst());
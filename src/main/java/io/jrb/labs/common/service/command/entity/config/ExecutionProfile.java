@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.entity.config;
+
+import lombok.Value;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Describes how the entity commands fan out inner queries for an entity type: how many run at once, how many results
+ * each one requests ahead, whether results keep the order of their sources, and how many entities share a single
+ * lookup value query.
+ */
+@Value
+@ConstructorBinding
+public class ExecutionProfile {
+
+    int concurrency;
+
+    int prefetch;
+
+    boolean ordered;
+
+    int batchSize;
+
+    public ExecutionProfile(
+            @DefaultValue("8") final int concurrency,
+            @DefaultValue("32") final int prefetch,
+            @DefaultValue("false") final boolean ordered,
+            @DefaultValue("1") final int batchSize
+    ) {
+        this.concurrency = concurrency;
+        this.prefetch = prefetch;
+        this.ordered = ordered;
+        this.batchSize = batchSize;
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.retry;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records, through the Reactor context, whether a command attempt has started to commit a transaction. A failure
+ * after that point may have left the writes committed, so a non-idempotent command must not be retried.
+ */
+public final class CommitGuard {
+
+    private static final String CONTEXT_KEY = CommitGuard.class.getName();
+
+    private CommitGuard() {}
+
+    /**
+     * Writes the flag that {@link #markCommitting(ContextView)} sets into the context of a command attempt.
+     */
+    public static Context track(final AtomicBoolean committing) {
+        return Context.of(CONTEXT_KEY, committing);
+    }
+
+    /**
+     * Notes that a transaction of the tracked command attempt is about to commit, or has committed automatically.
+     */
+    public static void markCommitting(final ContextView context) {
+        context.<AtomicBoolean>getOrEmpty(CONTEXT_KEY).ifPresent(committing -> committing.set(true));
+    }
+
+}
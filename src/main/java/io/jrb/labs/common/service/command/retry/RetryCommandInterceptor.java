@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.service.command.retry;
+
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandChain;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.service.command.CommandInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retries commands that fail with a {@link TransientFailures transient} error, with exponential backoff and jitter,
+ * for as long as the per-request time budget lasts. An attempt that already emitted results is never retried, as
+ * resubscribing would emit them again. A command that is not {@link Command#isIdempotent() idempotent} is only
+ * retried when the failed attempt never started to commit, as tracked by the {@link CommitGuard}; commands that are
+ * not {@link Command#isRetryable() retryable} at all pass straight through. Once the retries are used up,
+ * the last failure is passed on unchanged. Retries and exhausted retries are counted per command and entity type.
+ */
+public class RetryCommandInterceptor implements CommandInterceptor, Ordered {
+
+    private static final String RETRY_METRIC = "command.retries";
+    private static final String EXHAUSTED_METRIC = "command.retries.exhausted";
+
+    private final RetryDatafill retryDatafill;
+    private final MeterRegistry meterRegistry;
+
+    public RetryCommandInterceptor(final RetryDatafill retryDatafill, final MeterRegistry meterRegistry) {
+        this.retryDatafill = retryDatafill;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return "retry";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public <I, O, C extends CommandContext<I, O, C>> Publisher<C> intercept(
+            final Command<I, O, C> command,
+            final C context,
+            final CommandChain<C> chain
+    ) {
+        if (!retryDatafill.isEnabled() || !command.isRetryable()) {
+            return chain.proceed(context);
+        }
+        return Flux.defer(() -> {
+            final long deadline = System.nanoTime() + retryDatafill.getBudget().toNanos();
+            final AtomicBoolean committing = new AtomicBoolean();
+            final AtomicBoolean emitted = new AtomicBoolean();
+            return Flux.defer(() -> {
+                        committing.set(false);
+                        return chain.proceed(context);
+                    })
+                    .contextWrite(CommitGuard.track(committing))
+                    .doOnNext(result -> emitted.set(true))
+                    .retryWhen(Retry.backoff(retryDatafill.getMaxRetries(), retryDatafill.getInitialBackoff())
+                            .maxBackoff(retryDatafill.getMaxBackoff())
+                            .jitter(retryDatafill.getJitter())
+                            .filter(t -> TransientFailures.isTransient(t)
+                                    && !emitted.get()
+                                    && (command.isIdempotent() || !committing.get())
+                                    && System.nanoTime() < deadline)
+                            .doBeforeRetry(signal -> counter(RETRY_METRIC, command, context).increment())
+                            .onRetryExhaustedThrow((spec, signal) -> {
+                                counter(EXHAUSTED_METRIC, command, context).increment();
+                                return signal.failure();
+                            }));
+        });
+    }
+
+    private Counter counter(final String name, final Command<?, ?, ?> command, final CommandContext<?, ?, ?> context) {
+        return Counter.builder(name)
+                .tag("command", command.getCommandName())
+                .tag("entityType", String.valueOf(context.getEntityType()))
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.snapshot;
+
+/**
+ * Defines the layout of a binary entity snapshot.
+ *
+ * A snapshot starts with an uncompressed header: the {@link #MAGIC} bytes, the format {@link #VERSION}, a flags byte
+ * and the entity type as a UTF string. The header is followed by the records, optionally deflated as a single zlib
+ * stream when {@link #FLAG_DEFLATED} is set. Each record is an {@code int} length followed by the guid, name, created
+ * and updated instants (epoch seconds and nanos), version and the lookup values grouped by property type.
+ */
+final class SnapshotFormat {
+
+    static final byte[] MAGIC = {'E', 'M', 'S', 'S'};
+    static final byte VERSION = 1;
+    static final byte FLAG_DEFLATED = 0x01;
+
+    private SnapshotFormat() {
+    }
+
+}
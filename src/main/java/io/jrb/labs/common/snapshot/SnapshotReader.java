@@ -0,0 +1,248 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.snapshot;
+
+import io.jrb.labs.common.resource.EntityDetails;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes a binary snapshot, as written by {@link SnapshotWriter}, incrementally from a stream of {@link DataBuffer}s.
+ * Only the bytes of a partially received record are retained between buffers. Deflated data is decoded one inflated
+ * chunk at a time, and a record longer than {@value #MAX_RECORD_LENGTH} bytes is rejected as soon as its length is
+ * read, so a small upload that inflates to a huge stream cannot fill the heap.
+ */
+public class SnapshotReader {
+
+    static final int MAX_RECORD_LENGTH = 1024 * 1024;
+
+    public Flux<SnapshotRecord> read(final Flux<DataBuffer> body) {
+        return Flux.using(
+                Input::new,
+                input -> body
+                        .concatMapIterable(buffer -> {
+                            try {
+                                return input.read(buffer);
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        })
+                        .concatWith(Mono.fromRunnable(input::finish)),
+                Input::close
+        );
+    }
+
+    private static final class Input {
+
+        private final ByteAccumulator header = new ByteAccumulator();
+        private final ByteAccumulator records = new ByteAccumulator();
+        private final byte[] chunk = new byte[8192];
+        private boolean headerRead;
+        private Inflater inflater;
+        private String entityType;
+
+        List<SnapshotRecord> read(final DataBuffer buffer) {
+            final byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            final List<SnapshotRecord> decoded = new ArrayList<>();
+            if (headerRead) {
+                accept(bytes, 0, bytes.length, decoded);
+            } else {
+                header.append(bytes, 0, bytes.length);
+                final int headerLength = readHeader();
+                if (headerLength < 0) {
+                    return List.of();
+                }
+                accept(header.data, header.start + headerLength, header.readable() - headerLength, decoded);
+                header.skip(header.readable());
+            }
+            return decoded;
+        }
+
+        void finish() {
+            if (!headerRead || records.readable() > 0 || (inflater != null && !inflater.finished())) {
+                throw new SnapshotFormatException("Truncated snapshot");
+            }
+        }
+
+        void close() {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+
+        private int readHeader() {
+            final int fixedLength = SnapshotFormat.MAGIC.length + 4;
+            if (header.readable() < fixedLength) {
+                return -1;
+            }
+            final byte[] data = header.data;
+            final int start = header.start;
+            if (!Arrays.equals(data, start, start + SnapshotFormat.MAGIC.length,
+                    SnapshotFormat.MAGIC, 0, SnapshotFormat.MAGIC.length)) {
+                throw new SnapshotFormatException("Not an entity snapshot");
+            }
+            if (data[start + 4] != SnapshotFormat.VERSION) {
+                throw new SnapshotFormatException("Unsupported snapshot version " + data[start + 4]);
+            }
+            final int typeLength = ((data[start + 6] & 0xff) << 8) | (data[start + 7] & 0xff);
+            if (header.readable() < fixedLength + typeLength) {
+                return -1;
+            }
+            try {
+                entityType = new DataInputStream(new ByteArrayInputStream(data, start + 6, 2 + typeLength)).readUTF();
+            } catch (final IOException e) {
+                throw new SnapshotFormatException("Malformed snapshot header", e);
+            }
+            if ((data[start + 5] & SnapshotFormat.FLAG_DEFLATED) != 0) {
+                inflater = new Inflater();
+            }
+            headerRead = true;
+            return fixedLength + typeLength;
+        }
+
+        private void accept(
+                final byte[] bytes,
+                final int offset,
+                final int length,
+                final List<SnapshotRecord> decoded
+        ) {
+            if (inflater == null) {
+                records.append(bytes, offset, length);
+                decodeRecords(decoded);
+                return;
+            }
+            inflater.setInput(bytes, offset, length);
+            try {
+                while (true) {
+                    final int inflated = inflater.inflate(chunk);
+                    if (inflated > 0) {
+                        records.append(chunk, 0, inflated);
+                        decodeRecords(decoded);
+                    } else if (inflater.needsInput() || inflater.finished()) {
+                        break;
+                    } else if (inflater.needsDictionary()) {
+                        throw new SnapshotFormatException("Malformed snapshot data");
+                    }
+                }
+            } catch (final DataFormatException e) {
+                throw new SnapshotFormatException("Malformed snapshot data", e);
+            }
+        }
+
+        private void decodeRecords(final List<SnapshotRecord> decoded) {
+            while (records.readable() >= 4) {
+                final int length = records.peekInt();
+                if (length < 0 || length > MAX_RECORD_LENGTH) {
+                    throw new SnapshotFormatException("Malformed snapshot record length " + length);
+                } else if (records.readable() < 4 + length) {
+                    break;
+                }
+                decoded.add(decodeRecord(new DataInputStream(
+                        new ByteArrayInputStream(records.data, records.start + 4, length))));
+                records.skip(4 + length);
+            }
+        }
+
+        private SnapshotRecord decodeRecord(final DataInputStream in) {
+            try {
+                final SnapshotRecord.SnapshotRecordBuilder record = SnapshotRecord.builder()
+                        .type(entityType)
+                        .guid(in.readUTF())
+                        .name(in.readUTF())
+                        .createdOn(Instant.ofEpochSecond(in.readLong(), in.readInt()))
+                        .updatedOn(Instant.ofEpochSecond(in.readLong(), in.readInt()))
+                        .version(in.readLong());
+                final EntityDetails.Builder details = EntityDetails.builder();
+                final int detailCount = in.readUnsignedShort();
+                for (int i = 0; i < detailCount; i++) {
+                    final String name = in.readUTF();
+                    final int valueCount = in.readInt();
+                    for (int j = 0; j < valueCount; j++) {
+                        details.add(name, in.readUTF());
+                    }
+                }
+                return record.details(details.build()).build();
+            } catch (final IOException e) {
+                throw new SnapshotFormatException("Malformed snapshot record", e);
+            }
+        }
+
+    }
+
+    private static final class ByteAccumulator {
+
+        private byte[] data = new byte[8192];
+        private int start;
+        private int end;
+
+        void append(final byte[] bytes, final int offset, final int length) {
+            if (end + length > data.length) {
+                final int readable = readable();
+                final byte[] target = (readable + length > data.length)
+                        ? new byte[Math.max(data.length * 2, readable + length)]
+                        : data;
+                System.arraycopy(data, start, target, 0, readable);
+                data = target;
+                start = 0;
+                end = readable;
+            }
+            System.arraycopy(bytes, offset, data, end, length);
+            end += length;
+        }
+
+        int peekInt() {
+            return ((data[start] & 0xff) << 24)
+                    | ((data[start + 1] & 0xff) << 16)
+                    | ((data[start + 2] & 0xff) << 8)
+                    | (data[start + 3] & 0xff);
+        }
+
+        int readable() {
+            return end - start;
+        }
+
+        void skip(final int length) {
+            start += length;
+            if (start == end) {
+                start = 0;
+                end = 0;
+            }
+        }
+
+    }
+
+}
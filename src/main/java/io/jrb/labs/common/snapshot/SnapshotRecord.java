@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.snapshot;
+
+import io.jrb.labs.common.resource.EntityDetails;
+import io.jrb.labs.common.resource.Resource;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+import java.time.Instant;
+
+/**
+ * Describes a single entity, together with all of its lookup values, as it is carried in a binary snapshot.
+ */
+@Value
+@Builder
+public class SnapshotRecord {
+
+    String guid;
+
+    @With
+    String type;
+
+    String name;
+
+    Instant createdOn;
+
+    Instant updatedOn;
+
+    long version;
+
+    EntityDetails details;
+
+    public static SnapshotRecord of(final Resource<?> resource) {
+        return SnapshotRecord.builder()
+                .guid(resource.getGuid())
+                .type(resource.getType())
+                .name(resource.getName())
+                .createdOn(resource.getCreatedOn())
+                .updatedOn(resource.getUpdatedOn())
+                .version(resource.getVersion())
+                .details(resource.getDetails() != null ? resource.getDetails() : EntityDetails.empty())
+                .build();
+    }
+
+}
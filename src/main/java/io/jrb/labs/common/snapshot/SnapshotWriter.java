@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.snapshot;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes a stream of {@link SnapshotRecord}s into the binary snapshot format described by {@link SnapshotFormat}.
+ * Records are encoded in small batches as they arrive, so a snapshot of any size is written without ever holding more
+ * than one batch in memory.
+ */
+public class SnapshotWriter {
+
+    private static final int RECORDS_PER_BUFFER = 256;
+
+    private final DataBufferFactory bufferFactory;
+
+    public SnapshotWriter(final DataBufferFactory bufferFactory) {
+        this.bufferFactory = bufferFactory;
+    }
+
+    public Flux<DataBuffer> write(final String entityType, final Flux<SnapshotRecord> records, final boolean deflated) {
+        return Flux.using(
+                () -> new Output(deflated),
+                output -> Flux.concat(
+                        Mono.fromCallable(() -> encodeHeader(entityType, deflated)),
+                        records.buffer(RECORDS_PER_BUFFER).map(batch -> output.write(encodeRecords(batch))),
+                        Mono.fromCallable(output::finish)
+                )
+                        .filter(bytes -> bytes.length > 0)
+                        .map(bufferFactory::wrap),
+                Output::close
+        );
+    }
+
+    private byte[] encodeHeader(final String entityType, final boolean deflated) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.write(SnapshotFormat.MAGIC);
+            out.writeByte(SnapshotFormat.VERSION);
+            out.writeByte(deflated ? SnapshotFormat.FLAG_DEFLATED : 0);
+            out.writeUTF(entityType);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeRecords(final List<SnapshotRecord> batch) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        try {
+            final DataOutputStream out = new DataOutputStream(bytes);
+            final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+            for (final SnapshotRecord record : batch) {
+                recordBytes.reset();
+                encodeRecord(recordOut, record);
+                out.writeInt(recordBytes.size());
+                recordBytes.writeTo(out);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void encodeRecord(final DataOutputStream out, final SnapshotRecord record) throws IOException {
+        out.writeUTF(record.getGuid());
+        out.writeUTF(record.getName());
+        encodeInstant(out, record.getCreatedOn());
+        encodeInstant(out, record.getUpdatedOn());
+        out.writeLong(record.getVersion());
+        out.writeShort(record.getDetails().size());
+        for (final Map.Entry<String, List<String>> detail : record.getDetails().entrySet()) {
+            out.writeUTF(detail.getKey());
+            out.writeInt(detail.getValue().size());
+            for (final String value : detail.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    private void encodeInstant(final DataOutputStream out, final Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static final class Output {
+
+        private final Deflater deflater;
+        private final byte[] chunk = new byte[8192];
+
+        Output(final boolean deflated) {
+            this.deflater = deflated ? new Deflater(Deflater.BEST_SPEED) : null;
+        }
+
+        byte[] write(final byte[] bytes) {
+            if (deflater == null) {
+                return bytes;
+            }
+            deflater.setInput(bytes);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (!deflater.needsInput()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        }
+
+        byte[] finish() {
+            if (deflater == null) {
+                return new byte[0];
+            }
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        }
+
+        void close() {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+
+    }
+
+}
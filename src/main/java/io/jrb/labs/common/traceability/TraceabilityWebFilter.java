@@ -24,6 +24,7 @@
 package io.jrb.labs.common.traceability;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
@@ -37,10 +38,13 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
- * Provides a web filter that adds traceability data to reactive web service responses.
+ * Provides a web filter that adds traceability data to reactive web service responses. The filter runs first so that
+ * responses completed early by other filters still carry the traceability headers.
  */
 @Slf4j
-public class TraceabilityWebFilter implements WebFilter {
+public class TraceabilityWebFilter implements WebFilter, Ordered {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
 
     private final TraceabilityDatafill traceabilityDatafill;
     private final Function<ServerHttpRequest, Map<String, String>> requestHeaderExtractor;
@@ -56,6 +60,11 @@ public class TraceabilityWebFilter implements WebFilter {
         this.responseHeaderCompositor = responseHeaderCompositor;
     }
 
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
     /**
      * Wraps the given reactive Web request in a block that adds traceability data, including a unique request identifier
      * and duration, before delegating to the next {@code WebFilter} through the given {@link WebFilterChain}.
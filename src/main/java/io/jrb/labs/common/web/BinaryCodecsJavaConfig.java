@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Registers CBOR and Smile codecs next to the default JSON ones. Their object mappers come from the application's
+ * {@link Jackson2ObjectMapperBuilder}, so they share its configuration, and the codecs honour the same
+ * {@code JsonView} hints as JSON.
+ */
+@Configuration
+public class BinaryCodecsJavaConfig {
+
+    @Bean
+    public CodecCustomizer cborCodecCustomizer(final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        final ObjectMapper objectMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.customCodecs().register(new Jackson2CborDecoder(objectMapper));
+            configurer.customCodecs().register(new CborEncoder(objectMapper));
+        };
+    }
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        final ObjectMapper objectMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.customCodecs().register(new Jackson2SmileDecoder(objectMapper));
+            configurer.customCodecs().register(new Jackson2SmileEncoder(objectMapper));
+        };
+    }
+
+    /**
+     * CBOR encoder that, unlike {@link org.springframework.http.codec.cbor.Jackson2CborEncoder}, also writes
+     * multi-value bodies, by collecting them into a single CBOR array.
+     */
+    private static final class CborEncoder extends AbstractJackson2Encoder {
+
+        CborEncoder(final ObjectMapper objectMapper) {
+            super(objectMapper, MediaType.APPLICATION_CBOR);
+        }
+
+    }
+
+}
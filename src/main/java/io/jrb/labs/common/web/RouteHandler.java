@@ -24,36 +24,94 @@
 package io.jrb.labs.common.web;
 
 import io.jrb.labs.common.resource.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.NotAcceptableStatusException;
 import reactor.core.publisher.Mono;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public interface RouteHandler {
 
+    MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    List<MediaType> RESOURCE_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            APPLICATION_SMILE, MediaType.APPLICATION_NDJSON);
+
+    /**
+     * Chooses the resource media type to respond with from the {@code Accept} request header, falling back to JSON
+     * when the header is absent and rejecting the request with {@code 406 Not Acceptable} when none of the accepted
+     * types can be written. Functional endpoints write with the response content type as given, so it has to be
+     * negotiated up front.
+     */
+    default MediaType negotiateContentType(final ServerRequest request) {
+        final List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        if (accepted.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        return accepted.stream()
+                .flatMap(acceptedType -> RESOURCE_MEDIA_TYPES.stream().filter(acceptedType::isCompatibleWith))
+                .findFirst()
+                .orElseThrow(() -> new NotAcceptableStatusException(RESOURCE_MEDIA_TYPES));
+    }
+
     default <T> Mono<ServerResponse> requireValidBody(
             final Function<Mono<T>, Mono<ServerResponse>> block,
             final ServerRequest request,
             final Class<T> bodyClass,
-            final Validator validator
+            final Validator validator,
+            final Class<?>... groups
     ) {
         return request
                 .bodyToMono(bodyClass)
                 .flatMap((final T body) -> {
-                    final Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    final Set<ConstraintViolation<T>> violations = validator.validate(body, groups);
                     return violations.isEmpty()
                             ? block.apply(Mono.just(body))
                             : handleValidationErrors(bodyClass, violations);
                 });
     }
 
+    /**
+     * Extracts the entity version the caller expects from the {@code If-Match} request header.
+     */
+    default Optional<Long> extractVersion(final ServerRequest request) {
+        return Optional.ofNullable(request.headers().firstHeader(HttpHeaders.IF_MATCH))
+                .map(ifMatch -> ifMatch.replaceFirst("^W/", "").replace("\"", "").trim())
+                .filter(version -> version.matches("\\d+"))
+                .map(Long::valueOf);
+    }
+
+    /**
+     * Requires the entity version the caller expects from the {@code If-Match} request header, rejecting the request
+     * with {@code 428 Precondition Required} when it is missing or is not a version tag.
+     */
+    default Mono<ServerResponse> requireVersion(
+            final Function<Long, Mono<ServerResponse>> block,
+            final ServerRequest request
+    ) {
+        return extractVersion(request)
+                .map(block)
+                .orElseGet(() -> {
+                    final ErrorResponse errorResponse = ErrorResponse.builder()
+                            .status(HttpStatus.PRECONDITION_REQUIRED)
+                            .message("Header '" + HttpHeaders.IF_MATCH + "' must carry the expected version!")
+                            .build();
+                    return ServerResponse.status(HttpStatus.PRECONDITION_REQUIRED).bodyValue(errorResponse);
+                });
+    }
+
     private <T> Mono<ServerResponse> handleValidationErrors(
             final Class<T> bodyClass,
             final Set<ConstraintViolation<T>> violations
@@ -24,13 +24,26 @@
 package io.jrb.labs.entityms.config;
 
 import io.jrb.labs.common.h2.H2ConsoleServer;
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.jrb.labs.common.repository.PartitionRoutingConnectionFactory;
+import io.jrb.labs.common.repository.PartitionRoutingPostProcessor;
+import io.jrb.labs.common.repository.PartitionSchemaPopulator;
+import io.jrb.labs.common.repository.SchemaDetectingPopulator;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import io.jrb.labs.common.startup.StartupDatafill;
+import io.jrb.labs.common.startup.StartupDatafill.SchemaInitialization;
+import io.jrb.labs.common.startup.StartupJavaConfig;
 import io.r2dbc.spi.ConnectionFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.r2dbc.ConnectionFactoryHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
@@ -38,8 +51,14 @@ import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.r2dbc.connection.R2dbcTransactionManager;
 import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.DatabasePopulator;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Configuration
 @EntityScan(basePackages = {
@@ -54,20 +73,43 @@ import org.springframework.transaction.ReactiveTransactionManager;
         "io.jrb.labs.common.service.command.entity"
 })
 @EnableR2dbcAuditing
+@Import({
+        JdbcStorageJavaConfig.class,
+        ReplicaJavaConfig.class,
+        StartupJavaConfig.class
+})
 public class DatabaseJavaConfig {
 
+    private static final List<String> SCHEMA_TABLES = List.of("t_thing", "t_lookup_value", "t_tombstone");
+
     @Bean
     public ConnectionFactoryInitializer schemaInitializer(
-            @Qualifier("connectionFactory") final ConnectionFactory connectionFactory
+            @Qualifier("connectionFactory") final ConnectionFactory connectionFactory,
+            final StartupDatafill startupDatafill,
+            final EntityServiceProperties entSvcProps
     ) {
         final ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
-        initializer.setConnectionFactory(connectionFactory);
+        initializer.setConnectionFactory(unpartitioned(connectionFactory));
+        final SchemaInitialization schemaInitialization = startupDatafill.getSchemaInitialization();
+        initializer.setEnabled(schemaInitialization != SchemaInitialization.NEVER);
+        initializer.setDatabasePopulator(schemaInitialization == SchemaInitialization.WHEN_MISSING
+                ? new SchemaDetectingPopulator(schemaPopulator(entSvcProps), schemas(entSvcProps), SCHEMA_TABLES)
+                : schemaPopulator(entSvcProps));
+        return initializer;
+    }
 
-        final CompositeDatabasePopulator populator = new CompositeDatabasePopulator();
-        populator.addPopulators(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")));
-        initializer.setDatabasePopulator(populator);
+    @Bean
+    @ConditionalOnProperty(prefix = "entity-service", name = "partitioned", havingValue = "true")
+    public static PartitionRoutingPostProcessor partitionRoutingPostProcessor() {
+        return new PartitionRoutingPostProcessor();
+    }
 
-        return initializer;
+    @Bean
+    @ConditionalOnProperty(prefix = "entity-service", name = "partitioned", havingValue = "true")
+    public ConnectionFactoryHealthIndicator r2dbcHealthContributor(
+            @Qualifier("connectionFactory") final ConnectionFactory connectionFactory
+    ) {
+        return new ConnectionFactoryHealthIndicator(unpartitioned(connectionFactory));
     }
 
     @Bean
@@ -77,10 +119,47 @@ public class DatabaseJavaConfig {
         return new R2dbcTransactionManager(connectionFactory);
     }
 
+    @Bean
+    public TransactionalOperator transactionalOperator(final ReactiveTransactionManager transactionManager) {
+        return TransactionalOperator.create(transactionManager);
+    }
+
     @Bean
     @Profile("local")
     public H2ConsoleServer h2ConsoleServer(@Value("${h2.console.port}") final int consolePort) {
         return new H2ConsoleServer(consolePort);
     }
 
+    static DatabasePopulator schemaPopulator(final EntityServiceProperties entSvcProps) {
+        final ResourceDatabasePopulator tablePopulator
+                = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        final CompositeDatabasePopulator populator = new CompositeDatabasePopulator();
+        populator.addPopulators(tablePopulator);
+        if (entSvcProps.isPartitioned()) {
+            populator.addPopulators(new PartitionSchemaPopulator(
+                    entSvcProps.getEntities().stream().map(EntityType::getType).collect(Collectors.toList()),
+                    tablePopulator
+            ));
+        }
+        return populator;
+    }
+
+    private static ConnectionFactory unpartitioned(final ConnectionFactory connectionFactory) {
+        return connectionFactory instanceof PartitionRoutingConnectionFactory
+                ? ((PartitionRoutingConnectionFactory) connectionFactory).unwrap()
+                : connectionFactory;
+    }
+
+    private static List<String> schemas(final EntityServiceProperties entSvcProps) {
+        final List<String> schemas = new ArrayList<>();
+        schemas.add(EntityPartitions.DEFAULT_SCHEMA);
+        if (entSvcProps.isPartitioned()) {
+            entSvcProps.getEntities().stream()
+                    .map(EntityType::getType)
+                    .map(EntityPartitions::schemaFor)
+                    .forEach(schemas::add);
+        }
+        return schemas;
+    }
+
 }
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.entityms.config;
+
+import io.jrb.labs.common.repository.LookupValueRepository;
+import io.jrb.labs.common.repository.jdbc.JdbcLookupValueRepository;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.entityms.repository.JdbcThingEntityRepository;
+import io.jrb.labs.entityms.repository.ThingEntityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Switches entity and lookup value reads to blocking JDBC when {@code entity-service.storage} is {@code jdbc}. The
+ * JDBC repositories take precedence over the R2DBC ones, which they wrap for writes and for reads made inside a
+ * reactive transaction.
+ * <p>
+ * {@code DataSourceAutoConfiguration} is excluded in {@code application.yml}, so the connection pool, its
+ * {@link JdbcTemplate} and the data source health indicator only exist here. The {@code jdbc} profile turns this
+ * storage on and points {@code spring.datasource.url} at the database the R2DBC connection factory uses.
+ * <p>
+ * The blocking reads run on virtual threads when the service runs on Java 21 or later and
+ * {@code entity-service.jdbc-virtual-threads} is left on; the build itself still targets Java 11, so the executor is
+ * looked up at runtime, and older runtimes fall back to a bounded pool of {@code entity-service.jdbc-threads} platform
+ * threads. Statements are not batched beyond the multi-row inserts the R2DBC repositories already issue.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "entity-service", name = "storage", havingValue = "jdbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcStorageJavaConfig {
+
+    private static final int QUEUED_TASK_CAP = 100_000;
+    private static final String VIRTUAL_THREAD_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+    @Bean
+    public DataSource dataSource(final DataSourceProperties dataSourceProperties) {
+        if (dataSourceProperties.getUrl() == null) {
+            throw new IllegalStateException("JDBC storage needs spring.datasource.url to point at the R2DBC database");
+        }
+        return dataSourceProperties.initializeDataSourceBuilder().build();
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(final DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(final EntityServiceProperties entSvcProps) {
+        if (entSvcProps.isPartitioned()) {
+            throw new IllegalStateException("JDBC storage does not support partitioned entity types");
+        }
+        if (entSvcProps.isJdbcVirtualThreads()) {
+            final Optional<ExecutorService> virtualThreads = newVirtualThreadExecutor();
+            if (virtualThreads.isPresent()) {
+                log.info("JDBC reads run on virtual threads");
+                return Schedulers.fromExecutorService(virtualThreads.get(), "jdbc");
+            }
+            log.info("virtual threads need Java 21, JDBC reads run on {} platform threads",
+                    entSvcProps.getJdbcThreads());
+        }
+        return Schedulers.newBoundedElastic(entSvcProps.getJdbcThreads(), QUEUED_TASK_CAP, "jdbc");
+    }
+
+    @Bean
+    @Primary
+    public ThingEntityRepository jdbcThingEntityRepository(
+            @Qualifier("thingEntityRepository") final ThingEntityRepository thingEntityRepository,
+            final JdbcTemplate jdbcTemplate,
+            @Qualifier("jdbcScheduler") final Scheduler jdbcScheduler
+    ) {
+        return new JdbcThingEntityRepository(thingEntityRepository, jdbcTemplate, jdbcScheduler);
+    }
+
+    @Bean
+    @Primary
+    public LookupValueRepository jdbcLookupValueRepository(
+            @Qualifier("lookupValueRepository") final LookupValueRepository lookupValueRepository,
+            final JdbcTemplate jdbcTemplate,
+            @Qualifier("jdbcScheduler") final Scheduler jdbcScheduler
+    ) {
+        return new JdbcLookupValueRepository(lookupValueRepository, jdbcTemplate, jdbcScheduler);
+    }
+
+    private static Optional<ExecutorService> newVirtualThreadExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR).invoke(null));
+        } catch (final ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.entityms.config;
+
+import io.jrb.labs.common.repository.ReadReplica;
+import io.jrb.labs.common.repository.ReadReplicaRoutingPostProcessor;
+import io.jrb.labs.common.service.command.entity.EntityChangeEvent;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.r2dbc.spi.ConnectionFactories;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+
+import java.time.Duration;
+
+/**
+ * Routes read-only commands to the read replica at {@code database.replica.url}. Reads of an entity type fall back to
+ * the primary for {@code database.replica.max-lag} after each committed write of that type.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "database.replica", name = "url")
+public class ReplicaJavaConfig {
+
+    private static final Duration DEFAULT_MAX_LAG = Duration.ofSeconds(2);
+
+    private final ReadReplica readReplica;
+
+    public ReplicaJavaConfig(final ReadReplica readReplica) {
+        this.readReplica = readReplica;
+    }
+
+    @Bean
+    public static ReadReplica readReplica(final Environment environment) {
+        final Binder binder = Binder.get(environment);
+        return new ReadReplica(
+                ConnectionFactories.get(binder.bind("database.replica.url", String.class).get()),
+                binder.bind("database.replica.max-lag", Duration.class).orElse(DEFAULT_MAX_LAG)
+        );
+    }
+
+    @Bean
+    public static ReadReplicaRoutingPostProcessor readReplicaRoutingPostProcessor(final ReadReplica readReplica) {
+        return new ReadReplicaRoutingPostProcessor(readReplica);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "database.replica", name = "initialize-schema", havingValue = "true")
+    public ConnectionFactoryInitializer replicaSchemaInitializer(
+            final ReadReplica readReplica,
+            final EntityServiceProperties entSvcProps
+    ) {
+        final ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(readReplica.getConnectionFactory());
+        initializer.setDatabasePopulator(DatabaseJavaConfig.schemaPopulator(entSvcProps));
+        return initializer;
+    }
+
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        readReplica.recordWrite(event.getEntityType());
+    }
+
+}
@@ -23,12 +23,52 @@
  */
 package io.jrb.labs.entityms.config;
 
+import io.jrb.labs.common.cache.ReadCacheJavaConfig;
+import io.jrb.labs.common.hotkeys.HotKeysJavaConfig;
+import io.jrb.labs.common.materialized.MaterializedViewJavaConfig;
+import io.jrb.labs.common.service.command.entity.EntityFacets;
+import io.jrb.labs.common.service.command.entity.EntityNameIndex;
+import io.jrb.labs.common.service.command.entity.EntityUtils;
+import io.jrb.labs.common.service.command.entity.TombstonePurger;
 import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.common.service.command.retry.RetryJavaConfig;
+import io.jrb.labs.entityms.repository.ThingEntityRepository;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 @Configuration
 @EnableConfigurationProperties(EntityServiceProperties.class)
+@Import({
+        HotKeysJavaConfig.class,
+        MaterializedViewJavaConfig.class,
+        ReadCacheJavaConfig.class,
+        RetryJavaConfig.class
+})
 public class ServicesJavaConfig {
 
+    @Bean
+    public EntityFacets entityFacets(
+            final ThingEntityRepository repository,
+            final EntityUtils entityUtils,
+            final EntityServiceProperties entSvcProps
+    ) {
+        return new EntityFacets(repository, entityUtils, entSvcProps.getFacetCacheSize(),
+                entSvcProps.getFacetCacheTtl());
+    }
+
+    @Bean
+    public EntityNameIndex entityNameIndex(
+            final ThingEntityRepository repository,
+            final EntityServiceProperties entSvcProps
+    ) {
+        return new EntityNameIndex(repository, entSvcProps);
+    }
+
+    @Bean
+    public TombstonePurger tombstonePurger(final EntityUtils entityUtils, final EntityServiceProperties entSvcProps) {
+        return new TombstonePurger(entityUtils, entSvcProps);
+    }
+
 }
@@ -23,11 +23,18 @@
  */
 package io.jrb.labs.entityms.config;
 
+import io.jrb.labs.common.compression.CompressionJavaConfig;
+import io.jrb.labs.common.loadshedding.LoadSheddingJavaConfig;
+import io.jrb.labs.common.ratelimit.RateLimitJavaConfig;
+import io.jrb.labs.common.snapshot.SnapshotReader;
+import io.jrb.labs.common.snapshot.SnapshotWriter;
 import io.jrb.labs.common.traceability.TraceabilityJavaConfig;
+import io.jrb.labs.common.web.BinaryCodecsJavaConfig;
 import io.jrb.labs.entityms.web.ThingRoutes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
@@ -35,6 +42,10 @@ import static org.springframework.web.reactive.function.server.RouterFunctions.r
 
 @Configuration
 @Import({
+        BinaryCodecsJavaConfig.class,
+        CompressionJavaConfig.class,
+        LoadSheddingJavaConfig.class,
+        RateLimitJavaConfig.class,
         TraceabilityJavaConfig.class
 })
 public class WebJavaConfig {
@@ -46,4 +57,14 @@ public class WebJavaConfig {
                 .build();
     }
 
+    @Bean
+    SnapshotReader snapshotReader() {
+        return new SnapshotReader();
+    }
+
+    @Bean
+    SnapshotWriter snapshotWriter() {
+        return new SnapshotWriter(DefaultDataBufferFactory.sharedInstance);
+    }
+
 }
@@ -52,6 +52,7 @@ public class ThingEntity implements Entity<ThingEntity> {
     @Column(value = "th_type")
     String type;
 
+    @With
     @Column(value = "th_name")
     String name;
 
@@ -23,6 +23,9 @@
  */
 package io.jrb.labs.entityms.mapper;
 
+import io.jrb.labs.common.domain.Tombstone;
+import io.jrb.labs.common.service.command.entity.EntitySuggestion;
+import io.jrb.labs.common.snapshot.SnapshotRecord;
 import io.jrb.labs.entityms.domain.ThingEntity;
 import io.jrb.labs.entityms.resource.ThingRequest;
 import io.jrb.labs.entityms.resource.ThingResource;
@@ -38,4 +41,12 @@ public interface ThingMapper {
     @Mapping(source = "entity.updatedOn", target = "updatedOn")
     ThingResource thingEntityToThingResource(ThingEntity entity);
 
+    ThingResource suggestionToThingResource(EntitySuggestion suggestion);
+
+    @Mapping(source = "deletedOn", target = "updatedOn")
+    @Mapping(target = "deleted", constant = "true")
+    ThingResource tombstoneToThingResource(Tombstone tombstone);
+
+    ThingEntity snapshotRecordToThingEntity(SnapshotRecord snapshotRecord);
+
 }
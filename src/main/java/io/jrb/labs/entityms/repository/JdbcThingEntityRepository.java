@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.entityms.repository;
+
+import io.jrb.labs.common.repository.jdbc.JdbcEntityRepositorySupport;
+import io.jrb.labs.entityms.domain.ThingEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+public class JdbcThingEntityRepository extends JdbcEntityRepositorySupport<ThingEntity>
+        implements ThingEntityRepository {
+
+    private final ThingEntityRepository delegate;
+
+    public JdbcThingEntityRepository(
+            final ThingEntityRepository delegate,
+            final JdbcTemplate jdbcTemplate,
+            final Scheduler scheduler
+    ) {
+        super(delegate, jdbcTemplate, scheduler, JdbcThingEntityRepository::mapRow,
+                "t_thing", "th_id", "th_type", "th_guid");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<ThingEntity> findByGuid(final String guid) {
+        return queryOne(() -> delegate.findByGuid(guid), " WHERE th_guid = ?", guid);
+    }
+
+    private static ThingEntity mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+        return ThingEntity.builder()
+                .id(rs.getLong("th_id"))
+                .guid(rs.getString("th_guid"))
+                .type(rs.getString("th_type"))
+                .name(rs.getString("th_name"))
+                .createdOn(rs.getObject("th_created_on", Instant.class))
+                .updatedOn(rs.getObject("th_updated_on", Instant.class))
+                .version(rs.getLong("th_version"))
+                .build();
+    }
+
+}
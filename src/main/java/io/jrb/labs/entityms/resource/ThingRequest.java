@@ -42,7 +42,7 @@ import java.util.Map;
 @Jacksonized
 public class ThingRequest implements ResourceRequest<ThingRequest> {
 
-    @NotBlank(message = "Name is required")
+    @NotBlank(message = "Name is required", groups = ResourceRequest.OnCreate.class)
     @Size(min = 4, max = 64, message = "Name must be between 4 and 64 characters")
     String name;
 
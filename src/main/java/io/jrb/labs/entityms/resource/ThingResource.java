@@ -26,16 +26,14 @@ package io.jrb.labs.entityms.resource;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonView;
+import io.jrb.labs.common.resource.EntityDetails;
 import io.jrb.labs.common.resource.Projection;
 import io.jrb.labs.common.resource.Resource;
 import lombok.Builder;
-import lombok.Singular;
 import lombok.Value;
 import lombok.With;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
 
 @Value
 @Builder
@@ -60,10 +58,14 @@ public class ThingResource implements Resource<ThingResource> {
     @JsonView(Projection.Detail.class)
     long version;
 
+    @JsonView(Projection.Summary.class)
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    boolean deleted;
+
     @JsonView(Projection.Detail.class)
     @JsonAnyGetter
-    @Singular("detail")
     @With
-    Map<String, List<String>> details;
+    @Builder.Default
+    EntityDetails details = EntityDetails.empty();
 
 }
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.entityms.service;
+
+import io.jrb.labs.common.cache.CacheLoader;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.entityms.resource.ThingResource;
+import io.jrb.labs.entityms.service.command.FindThingCommand;
+import io.jrb.labs.entityms.service.command.GetThingsCommand;
+import io.jrb.labs.entityms.service.command.ThingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ThingCacheLoader implements CacheLoader {
+
+    private final FindThingCommand findThingCommand;
+    private final GetThingsCommand getThingsCommand;
+
+    public ThingCacheLoader(final FindThingCommand findThingCommand, final GetThingsCommand getThingsCommand) {
+        this.findThingCommand = findThingCommand;
+        this.getThingsCommand = getThingsCommand;
+    }
+
+    @Override
+    public Mono<ThingResource> load(final String type, final String guid, final Projection projection) {
+        final ThingContext context = ThingContext.builder()
+                .entityType(type)
+                .guid(guid)
+                .projection(projection)
+                .build();
+        return findThingCommand.execute(context)
+                .map(ThingContext::getOutput);
+    }
+
+    @Override
+    public Flux<ThingResource> loadAll(final String type, final Projection projection) {
+        final ThingContext context = ThingContext.builder()
+                .entityType(type)
+                .projection(projection)
+                .build();
+        return Flux.from(getThingsCommand.execute(context))
+                .map(ThingContext::getOutput);
+    }
+
+}
@@ -32,6 +32,7 @@ import io.jrb.labs.entityms.resource.ThingRequest;
 import io.jrb.labs.entityms.resource.ThingResource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 @Component
 @Slf4j
@@ -40,9 +41,11 @@ public class CreateThingCommand extends CreateEntityCommand<ThingRequest, ThingR
     public CreateThingCommand(
             final ThingMapper mapper,
             final ThingEntityRepository repository,
-            final EntityUtils entityUtils
+            final EntityUtils entityUtils,
+            final TransactionalOperator transactionalOperator
     ) {
-        super(mapper::thingRequestToThingEntity, mapper::thingEntityToThingResource, repository, entityUtils);
+        super(mapper::thingRequestToThingEntity, mapper::thingEntityToThingResource, repository, entityUtils,
+                transactionalOperator);
     }
 
 }
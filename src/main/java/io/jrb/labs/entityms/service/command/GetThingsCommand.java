@@ -40,7 +40,7 @@ public class GetThingsCommand extends GetEntitiesCommand<ThingRequest, ThingReso
             final ThingEntityRepository repository,
             final EntityUtils entityUtils
     ) {
-        super(mapper::thingEntityToThingResource, repository, entityUtils);
+        super(mapper::thingEntityToThingResource, mapper::tombstoneToThingResource, repository, entityUtils);
     }
 
 }
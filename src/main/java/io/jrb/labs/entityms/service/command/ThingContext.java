@@ -23,13 +23,20 @@
  */
 package io.jrb.labs.entityms.service.command;
 
+import io.jrb.labs.common.repository.EntityCursor;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntitySort;
+import io.jrb.labs.common.resource.FieldSet;
 import io.jrb.labs.common.resource.Projection;
 import io.jrb.labs.common.service.command.entity.EntityCommandContext;
+import io.jrb.labs.common.service.command.entity.ImportJob;
+import io.jrb.labs.common.snapshot.SnapshotRecord;
 import io.jrb.labs.entityms.resource.ThingRequest;
 import io.jrb.labs.entityms.resource.ThingResource;
 import lombok.Builder;
 import lombok.Value;
 import lombok.With;
+import org.reactivestreams.Publisher;
 
 @Value
 @Builder(toBuilder = true)
@@ -46,4 +53,29 @@ public class ThingContext implements EntityCommandContext<ThingRequest, ThingRes
 
     String guid;
 
+    Long version;
+
+    EntityFilter filter;
+
+    FieldSet fields;
+
+    EntitySort sort;
+
+    String after;
+
+    EntityCursor changedSince;
+
+    @With
+    EntityCursor watermark;
+
+    String prefix;
+
+    Integer limit;
+
+    Publisher<SnapshotRecord> records;
+
+    Publisher<ThingRequest> inputs;
+
+    ImportJob importJob;
+
 }
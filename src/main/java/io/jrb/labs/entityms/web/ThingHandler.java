@@ -23,44 +23,144 @@
  */
 package io.jrb.labs.entityms.web;
 
+import io.jrb.labs.common.repository.EntityCursor;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.EntitySort;
+import io.jrb.labs.common.resource.FacetResponse;
+import io.jrb.labs.common.resource.FieldSet;
+import io.jrb.labs.common.resource.ImportJobResource;
+import io.jrb.labs.common.resource.ImportResponse;
 import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.service.command.entity.CommandPipeline;
+import io.jrb.labs.common.service.command.entity.EntityChangeEvent;
+import io.jrb.labs.common.service.command.entity.EntityChangeFeed;
+import io.jrb.labs.common.service.command.entity.EntityFacets;
+import io.jrb.labs.common.service.command.entity.ImportJob;
+import io.jrb.labs.common.service.command.entity.ImportJobRegistry;
+import io.jrb.labs.common.service.command.entity.TombstonePurger;
+import io.jrb.labs.common.resource.ResourceRequest;
+import io.jrb.labs.common.snapshot.SnapshotReader;
+import io.jrb.labs.common.snapshot.SnapshotRecord;
+import io.jrb.labs.common.snapshot.SnapshotWriter;
 import io.jrb.labs.common.web.RouteHandler;
 import io.jrb.labs.entityms.resource.ThingRequest;
 import io.jrb.labs.entityms.resource.ThingResource;
+import io.jrb.labs.entityms.service.command.BulkCreateThingsCommand;
 import io.jrb.labs.entityms.service.command.CreateThingCommand;
+import io.jrb.labs.entityms.service.command.DeleteThingCommand;
+import io.jrb.labs.entityms.service.command.ExportThingsCommand;
 import io.jrb.labs.entityms.service.command.FindThingCommand;
 import io.jrb.labs.entityms.service.command.GetThingsCommand;
+import io.jrb.labs.entityms.service.command.ImportThingsCommand;
+import io.jrb.labs.entityms.service.command.SuggestThingsCommand;
 import io.jrb.labs.entityms.service.command.ThingContext;
+import io.jrb.labs.entityms.service.command.UpdateThingCommand;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.json.Jackson2CodecSupport;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Validator;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+import static org.springframework.web.reactive.function.BodyInserters.fromDataBuffers;
 import static org.springframework.web.reactive.function.BodyInserters.fromValue;
 
 @Component
 public class ThingHandler implements RouteHandler {
 
+    public static final String WATERMARK_HEADER = "X-Changes-Watermark";
+    public static final String OLDEST_WATERMARK_HEADER = "X-Changes-Oldest-Watermark";
+
+    private static final String AFTER_PARAM = "after";
+    private static final String CHANGED_SINCE_PARAM = "changedSince";
+    private static final String COMPRESSION_PARAM = "compression";
+    private static final String CREATED_AFTER_PARAM = "createdAfter";
+    private static final String CREATED_BEFORE_PARAM = "createdBefore";
+    private static final String FIELDS_PARAM = "fields";
+    private static final String LIMIT_PARAM = "limit";
+    private static final String PROJECTION_PARAM = "projection";
+    private static final String PROPERTY_PARAM = "property";
+    private static final String SORT_PARAM = "sort";
+    private static final String UPDATED_AFTER_PARAM = "updatedAfter";
+    private static final String UPDATED_BEFORE_PARAM = "updatedBefore";
+    private static final Set<String> RESERVED_PARAMS = Set.of(
+            AFTER_PARAM, CHANGED_SINCE_PARAM, FIELDS_PARAM, LIMIT_PARAM, PROJECTION_PARAM, PROPERTY_PARAM, SORT_PARAM);
+    private static final String SORT_DESCENDING = "desc";
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 100;
+    private static final ParameterizedTypeReference<Map<String, Object>> SPARSE_RESOURCE_TYPE =
+            new ParameterizedTypeReference<>() {};
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(15);
+    private static final String COMPRESSION_DEFLATE = "deflate";
+
+    private final BulkCreateThingsCommand bulkCreateThingsCommand;
     private final CreateThingCommand createThingCommand;
+    private final DeleteThingCommand deleteThingCommand;
+    private final ExportThingsCommand exportThingsCommand;
     private final FindThingCommand findThingCommand;
     private final GetThingsCommand getThingsCommand;
+    private final ImportThingsCommand importThingsCommand;
+    private final SuggestThingsCommand suggestThingsCommand;
+    private final UpdateThingCommand updateThingCommand;
+    private final CommandPipeline commandPipeline;
+    private final EntityChangeFeed entityChangeFeed;
+    private final EntityFacets entityFacets;
+    private final ImportJobRegistry importJobRegistry;
+    private final SnapshotReader snapshotReader;
+    private final SnapshotWriter snapshotWriter;
+    private final TombstonePurger tombstonePurger;
     private final Validator validator;
 
     public ThingHandler(
+            final BulkCreateThingsCommand bulkCreateThingsCommand,
             final CreateThingCommand createThingCommand,
+            final DeleteThingCommand deleteThingCommand,
+            final ExportThingsCommand exportThingsCommand,
             final FindThingCommand findThingCommand,
             final GetThingsCommand getThingsCommand,
+            final ImportThingsCommand importThingsCommand,
+            final SuggestThingsCommand suggestThingsCommand,
+            final UpdateThingCommand updateThingCommand,
+            final CommandPipeline commandPipeline,
+            final EntityChangeFeed entityChangeFeed,
+            final EntityFacets entityFacets,
+            final ImportJobRegistry importJobRegistry,
+            final SnapshotReader snapshotReader,
+            final SnapshotWriter snapshotWriter,
+            final TombstonePurger tombstonePurger,
             final Validator validator
     ) {
+        this.bulkCreateThingsCommand = bulkCreateThingsCommand;
         this.createThingCommand = createThingCommand;
+        this.deleteThingCommand = deleteThingCommand;
+        this.exportThingsCommand = exportThingsCommand;
         this.findThingCommand = findThingCommand;
         this.getThingsCommand = getThingsCommand;
+        this.importThingsCommand = importThingsCommand;
+        this.suggestThingsCommand = suggestThingsCommand;
+        this.updateThingCommand = updateThingCommand;
+        this.commandPipeline = commandPipeline;
+        this.entityChangeFeed = entityChangeFeed;
+        this.entityFacets = entityFacets;
+        this.importJobRegistry = importJobRegistry;
+        this.snapshotReader = snapshotReader;
+        this.snapshotWriter = snapshotWriter;
+        this.tombstonePurger = tombstonePurger;
         this.validator = validator;
     }
 
@@ -72,28 +172,106 @@ public class ThingHandler implements RouteHandler {
                         .entityType(entityType)
                         .input(thing)
                         .build();
-                final Mono<ThingResource> thingResourceMono = createThingCommand.execute(context)
+                final Mono<ThingResource> thingResourceMono = commandPipeline.executeMono(createThingCommand, context)
                         .map(ThingContext::getOutput);
                 return ServerResponse.status(HttpStatus.CREATED)
-                        .contentType(MediaType.APPLICATION_JSON)
+                        .contentType(negotiateContentType(serverRequest))
                         .hint(Jackson2CodecSupport.JSON_VIEW_HINT, Projection.Detail.class)
                         .body(thingResourceMono, ThingResource.class);
-            }), serverRequest, ThingRequest.class, validator);
+            }), serverRequest, ThingRequest.class, validator, ResourceRequest.OnCreate.class);
+    }
+
+    public Mono<ServerResponse> deleteThing(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final String thingGuid = serverRequest.pathVariable("guid");
+        final ThingContext context = ThingContext.builder()
+                .entityType(entityType)
+                .guid(thingGuid)
+                .version(extractVersion(serverRequest).orElse(null))
+                .build();
+        return commandPipeline.executeFlux(deleteThingCommand, context)
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> deleteThings(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final ThingContext context = ThingContext.builder()
+                .entityType(entityType)
+                .filter(extractFilter(serverRequest))
+                .build();
+        final Flux<ThingResource> contentFlux = commandPipeline.executeFlux(deleteThingCommand, context)
+                .map(ThingContext::getOutput);
+        return ServerResponse.ok()
+                .contentType(negotiateContentType(serverRequest))
+                .hint(Jackson2CodecSupport.JSON_VIEW_HINT, Projection.Summary.class)
+                .body(contentFlux, ThingResource.class);
+    }
+
+    public Mono<ServerResponse> exportThings(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final boolean deflated = serverRequest.queryParam(COMPRESSION_PARAM)
+                .map(COMPRESSION_DEFLATE::equalsIgnoreCase)
+                .orElse(false);
+        final ThingContext context = ThingContext.builder()
+                .entityType(entityType)
+                .build();
+        final Flux<SnapshotRecord> recordFlux = commandPipeline.executeFlux(exportThingsCommand, context)
+                .map(ThingContext::getOutput)
+                .map(SnapshotRecord::of);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(fromDataBuffers(snapshotWriter.write(entityType, recordFlux, deflated)));
+    }
+
+    public Mono<ServerResponse> facetThings(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final String property = serverRequest.queryParam(PROPERTY_PARAM)
+                .orElseThrow(() -> new ServerWebInputException("Missing query parameter '" + PROPERTY_PARAM + "'"));
+        return entityFacets.count(entityType, property, extractFilter(serverRequest))
+                .flatMap(counts -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(fromValue(FacetResponse.builder()
+                                .entityType(entityType)
+                                .property(property)
+                                .counts(counts)
+                                .build())));
+    }
+
+    public Mono<ServerResponse> findImportJob(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final String jobId = serverRequest.pathVariable("jobId");
+        return Mono.justOrEmpty(importJobRegistry.find(entityType, jobId))
+                .flatMap(job -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(fromValue(job.toResource())))
+                .switchIfEmpty(ServerResponse.notFound().build());
     }
 
     public Mono<ServerResponse> findThing(final ServerRequest serverRequest) {
         final String entityType = serverRequest.pathVariable("entityType");
         final String thingGuid = serverRequest.pathVariable("guid");
-        final Projection projection = extractProjection(serverRequest, Projection.DETAILS);
+        final Optional<FieldSet> fields = extractFields(serverRequest);
+        final Projection projection = fields.isPresent()
+                ? Projection.DEEP
+                : extractProjection(serverRequest, Projection.DETAILS);
         final ThingContext context = ThingContext.builder()
                 .entityType(entityType)
                 .guid(thingGuid)
                 .projection(projection)
+                .fields(fields.orElse(null))
                 .build();
-        final Mono<ThingResource> thingResourceMono = findThingCommand.execute(context)
+        final Mono<ThingResource> thingResourceMono = commandPipeline.executeMono(findThingCommand, context)
                 .map(ThingContext::getOutput);
+        if (fields.isPresent()) {
+            return thingResourceMono.flatMap(thing ->
+                    ServerResponse.ok()
+                            .contentType(negotiateContentType(serverRequest))
+                            .body(fromValue(fields.get().apply(thing))))
+                    .switchIfEmpty(ServerResponse.notFound().build());
+        }
         return thingResourceMono.flatMap(thing ->
                 ServerResponse.ok()
+                        .contentType(negotiateContentType(serverRequest))
                         .hint(Jackson2CodecSupport.JSON_VIEW_HINT, projection.view)
                         .body(fromValue(thing)))
                 .switchIfEmpty(ServerResponse.notFound().build());
@@ -101,21 +279,239 @@ public class ThingHandler implements RouteHandler {
 
     public Mono<ServerResponse> getAllThings(final ServerRequest serverRequest) {
         final String entityType = serverRequest.pathVariable("entityType");
-        final Projection projection = extractProjection(serverRequest, Projection.SUMMARY);
+        final Optional<FieldSet> fields = extractFields(serverRequest);
+        final Projection projection = fields.isPresent()
+                ? Projection.DEEP
+                : extractProjection(serverRequest, Projection.SUMMARY);
+        final EntityFilter filter = extractFilter(serverRequest);
+        final Optional<EntityCursor> changedSince = extractChangedSince(serverRequest);
         final ThingContext context = ThingContext.builder()
                 .entityType(entityType)
                 .projection(projection)
+                .fields(fields.orElse(null))
+                .filter(filter.isEmpty() ? null : filter)
+                .sort(extractSort(serverRequest).orElse(null))
+                .after(serverRequest.queryParam(AFTER_PARAM).orElse(null))
+                .limit(extractLimit(serverRequest).map(ThingHandler::requireNonNegative).orElse(null))
+                .changedSince(changedSince.orElse(null))
                 .build();
-        final Flux<ThingResource> contentFlux = Flux.from(getThingsCommand.execute(context))
-                .map(ThingContext::getOutput);
+        final Flux<ThingContext> contextFlux = commandPipeline.executeFlux(getThingsCommand, context);
+        if (changedSince.isEmpty()) {
+            final Flux<ThingResource> contentFlux = contextFlux.map(ThingContext::getOutput);
+            return writeThings(ServerResponse.ok(), serverRequest, contentFlux, fields, projection);
+        }
+        return contextFlux.collectList()
+                .flatMap(changes -> {
+                    final EntityCursor watermark = changes.isEmpty()
+                            ? changedSince.get()
+                            : changes.get(changes.size() - 1).getWatermark();
+                    final Flux<ThingResource> contentFlux = Flux.fromIterable(changes)
+                            .map(ThingContext::getOutput);
+                    final ServerResponse.BodyBuilder response = ServerResponse.ok()
+                            .header(WATERMARK_HEADER, watermark.toWatermark())
+                            .header(OLDEST_WATERMARK_HEADER, tombstonePurger.findOldestWatermark().toString());
+                    return writeThings(response, serverRequest, contentFlux, fields, projection);
+                });
+    }
+
+    public Mono<ServerResponse> getImportJobs(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final Flux<ImportJobResource> contentFlux = Flux.fromIterable(importJobRegistry.findAll(entityType))
+                .map(ImportJob::toResource);
         return ServerResponse.ok()
                 .contentType(MediaType.APPLICATION_JSON)
+                .body(contentFlux, ImportJobResource.class);
+    }
+
+    public Mono<ServerResponse> importThingRequests(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final ImportJob job = importJobRegistry.start(entityType);
+        final ThingContext context = ThingContext.builder()
+                .entityType(entityType)
+                .inputs(serverRequest.bodyToFlux(ThingRequest.class))
+                .importJob(job)
+                .build();
+        return commandPipeline.executeMono(bulkCreateThingsCommand, context)
+                .flatMap(ctx -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .location(serverRequest.uriBuilder()
+                                .replacePath("/{entityType}/_imports/{jobId}")
+                                .replaceQuery(null)
+                                .build(entityType, job.getId()))
+                        .body(fromValue(job.toResource())));
+    }
+
+    public Mono<ServerResponse> importThings(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final ThingContext context = ThingContext.builder()
+                .entityType(entityType)
+                .records(snapshotReader.read(serverRequest.bodyToFlux(DataBuffer.class)))
+                .build();
+        return commandPipeline.executeFlux(importThingsCommand, context)
+                .count()
+                .flatMap(imported -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(fromValue(ImportResponse.builder()
+                                .entityType(entityType)
+                                .imported(imported)
+                                .build())));
+    }
+
+    public Mono<ServerResponse> suggestThings(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final int limit = extractLimit(serverRequest)
+                .map(l -> Math.max(1, Math.min(l, MAX_SUGGESTIONS)))
+                .orElse(DEFAULT_SUGGESTIONS);
+        final ThingContext context = ThingContext.builder()
+                .entityType(entityType)
+                .prefix(serverRequest.queryParam("prefix").orElse(""))
+                .limit(limit)
+                .build();
+        final Flux<ThingResource> contentFlux = commandPipeline.executeFlux(suggestThingsCommand, context)
+                .map(ThingContext::getOutput);
+        return ServerResponse.ok()
+                .contentType(negotiateContentType(serverRequest))
+                .hint(Jackson2CodecSupport.JSON_VIEW_HINT, Projection.Summary.class)
+                .body(contentFlux, ThingResource.class);
+    }
+
+    public Mono<ServerResponse> updateThing(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final String thingGuid = serverRequest.pathVariable("guid");
+        return requireVersion((final Long version) -> requireValidBody((final Mono<ThingRequest> updateThingMono) ->
+            updateThingMono.flatMap(thing -> {
+                final ThingContext context = ThingContext.builder()
+                        .entityType(entityType)
+                        .guid(thingGuid)
+                        .version(version)
+                        .input(thing)
+                        .build();
+                return commandPipeline.executeMono(updateThingCommand, context)
+                        .map(ThingContext::getOutput)
+                        .flatMap(thingResource -> ServerResponse.ok()
+                                .contentType(negotiateContentType(serverRequest))
+                                .eTag(String.valueOf(thingResource.getVersion()))
+                                .hint(Jackson2CodecSupport.JSON_VIEW_HINT, Projection.Detail.class)
+                                .body(fromValue(thingResource)));
+            }), serverRequest, ThingRequest.class, validator), serverRequest);
+    }
+
+    public Mono<ServerResponse> watchThings(final ServerRequest serverRequest) {
+        final String entityType = serverRequest.pathVariable("entityType");
+        final Flux<ServerSentEvent<EntityChangeEvent>> changeFlux = entityChangeFeed.changes(entityType)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.getGuid() + ":" + event.getVersion())
+                        .event(event.getChangeType().name().toLowerCase(Locale.ROOT))
+                        .build());
+        final Flux<ServerSentEvent<EntityChangeEvent>> keepAliveFlux = Flux.interval(KEEP_ALIVE_INTERVAL)
+                .map(tick -> ServerSentEvent.<EntityChangeEvent>builder().comment("keep-alive").build());
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(changeFlux.publish(changes -> Flux.merge(
+                        changes,
+                        keepAliveFlux.takeUntilOther(changes.then(Mono.just(true)))
+                )), new ParameterizedTypeReference<ServerSentEvent<EntityChangeEvent>>() {});
+    }
+
+    private Mono<ServerResponse> writeThings(
+            final ServerResponse.BodyBuilder response,
+            final ServerRequest serverRequest,
+            final Flux<ThingResource> contentFlux,
+            final Optional<FieldSet> fields,
+            final Projection projection
+    ) {
+        if (fields.isPresent()) {
+            return response.contentType(negotiateContentType(serverRequest))
+                    .body(contentFlux.map(fields.get()::apply), SPARSE_RESOURCE_TYPE);
+        }
+        return response.contentType(negotiateContentType(serverRequest))
                 .hint(Jackson2CodecSupport.JSON_VIEW_HINT, projection.view)
                 .body(contentFlux, ThingResource.class);
     }
 
+    private Optional<EntityCursor> extractChangedSince(final ServerRequest serverRequest) {
+        return serverRequest.queryParam(CHANGED_SINCE_PARAM)
+                .map(watermark -> {
+                    try {
+                        return EntityCursor.parseWatermark(watermark);
+                    } catch (final IllegalArgumentException e) {
+                        throw new ServerWebInputException(e.getMessage());
+                    }
+                });
+    }
+
+    private EntityFilter extractFilter(final ServerRequest serverRequest) {
+        final EntityFilter.EntityFilterBuilder filter = EntityFilter.builder();
+        serverRequest.queryParams().forEach((name, values) -> {
+            switch (name) {
+                case CREATED_AFTER_PARAM:
+                    filter.createdAfter(parseInstant(name, values.get(0)));
+                    break;
+                case CREATED_BEFORE_PARAM:
+                    filter.createdBefore(parseInstant(name, values.get(0)));
+                    break;
+                case UPDATED_AFTER_PARAM:
+                    filter.updatedAfter(parseInstant(name, values.get(0)));
+                    break;
+                case UPDATED_BEFORE_PARAM:
+                    filter.updatedBefore(parseInstant(name, values.get(0)));
+                    break;
+                default:
+                    if (!RESERVED_PARAMS.contains(name)) {
+                        filter.detail(name, values);
+                    }
+            }
+        });
+        return filter.build();
+    }
+
+    private Optional<Integer> extractLimit(final ServerRequest serverRequest) {
+        return serverRequest.queryParam(LIMIT_PARAM)
+                .map(limit -> {
+                    try {
+                        return Integer.valueOf(limit.trim());
+                    } catch (final NumberFormatException e) {
+                        throw new ServerWebInputException("Invalid query parameter '" + LIMIT_PARAM + "': " + limit);
+                    }
+                });
+    }
+
+    private static Integer requireNonNegative(final Integer limit) {
+        if (limit < 0) {
+            throw new ServerWebInputException("Invalid query parameter '" + LIMIT_PARAM + "': " + limit);
+        }
+        return limit;
+    }
+
+    private static Instant parseInstant(final String name, final String value) {
+        try {
+            return Instant.parse(value);
+        } catch (final DateTimeParseException e) {
+            throw new ServerWebInputException("Invalid query parameter '" + name + "': " + value);
+        }
+    }
+
+    private Optional<FieldSet> extractFields(final ServerRequest serverRequest) {
+        return serverRequest.queryParam(FIELDS_PARAM)
+                .filter(fields -> !fields.isBlank())
+                .map(FieldSet::parse);
+    }
+
+    private Optional<EntitySort> extractSort(final ServerRequest serverRequest) {
+        return serverRequest.queryParam(SORT_PARAM)
+                .map(sort -> {
+                    final String[] parts = sort.split(",", 2);
+                    final boolean descending = parts.length > 1 && SORT_DESCENDING.equalsIgnoreCase(parts[1].trim());
+                    try {
+                        return EntitySort.of(parts[0].trim(), descending);
+                    } catch (final IllegalArgumentException e) {
+                        throw new ServerWebInputException(e.getMessage());
+                    }
+                });
+    }
+
     private Projection extractProjection(final ServerRequest serverRequest, final Projection defaultProjection) {
-        return serverRequest.queryParam("projection")
+        return serverRequest.queryParam(PROJECTION_PARAM)
                 .map(Projection::valueOf)
                 .orElse(defaultProjection);
     }
@@ -23,10 +23,12 @@
  */
 package io.jrb.labs.entityms.web;
 
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 
 @Component
@@ -41,8 +43,19 @@ public class ThingRoutes {
     public RouterFunction<ServerResponse> routes() {
         return route()
                 .add(createThingRoute())
+                .add(suggestThingsRoute())
+                .add(facetThingsRoute())
+                .add(watchThingsRoute())
+                .add(exportThingsRoute())
+                .add(importThingRequestsRoute())
+                .add(importThingsRoute())
+                .add(findImportJobRoute())
+                .add(retrieveImportJobsRoute())
                 .add(findThingRoute())
                 .add(retrieveThingsRoute())
+                .add(updateThingRoute())
+                .add(deleteThingRoute())
+                .add(deleteThingsRoute())
                 .build();
     }
 
@@ -51,14 +64,70 @@ public class ThingRoutes {
                 .build();
     }
 
+    private RouterFunction<ServerResponse> deleteThingRoute() {
+        return route().DELETE("/{entityType}/{guid}", thingHandler::deleteThing)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> deleteThingsRoute() {
+        return route().DELETE("/{entityType}", thingHandler::deleteThings)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> exportThingsRoute() {
+        return route().GET("/{entityType}/_export", thingHandler::exportThings)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> facetThingsRoute() {
+        return route().GET("/{entityType}/_facets", thingHandler::facetThings)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> findImportJobRoute() {
+        return route().GET("/{entityType}/_imports/{jobId}", thingHandler::findImportJob)
+                .build();
+    }
+
     private RouterFunction<ServerResponse> findThingRoute() {
         return route().GET("/{entityType}/{guid}", thingHandler::findThing)
                 .build();
     }
 
+    private RouterFunction<ServerResponse> importThingRequestsRoute() {
+        return route().POST("/{entityType}/_import", contentType(MediaType.APPLICATION_NDJSON),
+                        thingHandler::importThingRequests)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> importThingsRoute() {
+        return route().POST("/{entityType}/_import", thingHandler::importThings)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> retrieveImportJobsRoute() {
+        return route().GET("/{entityType}/_imports", thingHandler::getImportJobs)
+                .build();
+    }
+
     private RouterFunction<ServerResponse> retrieveThingsRoute() {
         return route().GET("/{entityType}", thingHandler::getAllThings)
                 .build();
     }
 
+    private RouterFunction<ServerResponse> suggestThingsRoute() {
+        return route().GET("/{entityType}/_suggest", thingHandler::suggestThings)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> watchThingsRoute() {
+        return route().GET("/{entityType}/_changes", thingHandler::watchThings)
+                .build();
+    }
+
+    private RouterFunction<ServerResponse> updateThingRoute() {
+        return route().PATCH("/{entityType}/{guid}", thingHandler::updateThing)
+                .build();
+    }
+
 }
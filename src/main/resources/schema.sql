@@ -14,3 +14,19 @@ CREATE TABLE IF NOT EXISTS t_lookup_value (
     lv_value_type VARCHAR(64) NOT NULL,
     lv_value VARCHAR(64) NOT NULL
 );
+
+CREATE INDEX IF NOT EXISTS ix_thing_type_name ON t_thing (th_type, th_name, th_id);
+CREATE INDEX IF NOT EXISTS ix_thing_type_created_on ON t_thing (th_type, th_created_on, th_id);
+CREATE INDEX IF NOT EXISTS ix_thing_type_updated_on ON t_thing (th_type, th_updated_on, th_id);
+CREATE INDEX IF NOT EXISTS ix_lookup_value_type_value ON t_lookup_value (lv_value_type, lv_value, lv_entity_id);
+CREATE INDEX IF NOT EXISTS ix_lookup_value_entity ON t_lookup_value (lv_entity_id);
+
+CREATE TABLE IF NOT EXISTS t_tombstone (
+    ts_id SERIAL PRIMARY KEY,
+    ts_entity_id NUMBER NOT NULL,
+    ts_type VARCHAR(64) NOT NULL,
+    ts_guid VARCHAR(64) NOT NULL,
+    ts_deleted_on TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_tombstone_type_deleted_on ON t_tombstone (ts_type, ts_deleted_on, ts_entity_id);
@@ -0,0 +1,99 @@
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.hotkeys.HotKeyDatafill;
+import io.jrb.labs.common.hotkeys.HotKeySnapshotStore;
+import io.jrb.labs.common.hotkeys.HotKeyTracker;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.metrics.ApplicationStartup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.common.cache.ReadCacheTests.datafill;
+import static io.jrb.labs.common.cache.ReadCacheTests.resource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadCachePrewarmerTests {
+
+	private final ReadCache cache = new ReadCache(datafill(100, Duration.ofMinutes(1)));
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@TempDir
+	Path snapshotDir;
+
+	@Test
+	void prewarmLoadsMarkedTypesThenTheTopHotKeysOfKnownTypes() throws IOException {
+		final Path snapshot = snapshotDir.resolve("hotkeys.tsv");
+		Files.write(snapshot, List.of("unknown\tx\t90", "thing\ta\t80", "thing\tmissing\t70", "thing\tb\t60",
+				"thing\tc\t50"), StandardCharsets.UTF_8);
+
+		prewarmer(datafill(100, Duration.ofMinutes(1)), snapshot).run(new DefaultApplicationArguments());
+
+		assertThat(cache.get("item", "i", Projection.DETAILS)).as("prewarmed type").isNotNull();
+		assertThat(cache.get("thing", "a", Projection.DETAILS)).isNotNull();
+		assertThat(cache.get("thing", "b", Projection.DETAILS)).as("beyond the top 2").isNull();
+		assertThat(meterRegistry.counter("cache.prewarm.entities").count()).isEqualTo(2);
+	}
+
+	@Test
+	void prewarmDoesNothingWhenDisabled() {
+		final ReadCacheDatafill disabled = new ReadCacheDatafill(true, 100, Duration.ofMinutes(1),
+				new PrewarmPolicy(false, 2, Projection.DETAILS, 2, Duration.ofSeconds(5)));
+
+		prewarmer(disabled, snapshotDir.resolve("hotkeys.tsv")).run(new DefaultApplicationArguments());
+
+		assertThat(cache.size()).isZero();
+	}
+
+	private ReadCachePrewarmer prewarmer(final ReadCacheDatafill readCacheDatafill, final Path snapshot) {
+		final HotKeyDatafill hotKeyDatafill =
+				new HotKeyDatafill(true, 4, 4096, 10, Duration.ofHours(1), snapshot.toString(), null);
+		final HotKeySnapshotStore store = new HotKeySnapshotStore(hotKeyDatafill, new HotKeyTracker(hotKeyDatafill));
+		final ObjectProvider<HotKeySnapshotStore> stores = new StaticListableBeanFactory(Map.of("store", store))
+				.getBeanProvider(HotKeySnapshotStore.class);
+		return new ReadCachePrewarmer(cache, readCacheDatafill, new StubLoader(), entityServiceProperties(), stores,
+				ApplicationStartup.DEFAULT, meterRegistry);
+	}
+
+	private static EntityServiceProperties entityServiceProperties() {
+		return new Binder(new MapConfigurationPropertySource(Map.of(
+				"entity-service.entities[0].type", "thing",
+				"entity-service.entities[1].type", "item",
+				"entity-service.entities[1].prewarm", "true")))
+				.bindOrCreate("entity-service", EntityServiceProperties.class);
+	}
+
+	private static final class StubLoader implements CacheLoader {
+
+		@Override
+		public Mono<? extends Resource<?>> load(final String type, final String guid, final Projection projection) {
+			return guid.equals("missing")
+					? Mono.error(new IllegalStateException("no such entity"))
+					: Mono.just(resource(type, guid));
+		}
+
+		@Override
+		public Flux<? extends Resource<?>> loadAll(final String type, final Projection projection) {
+			return Flux.just(resource(type, "i"));
+		}
+
+	}
+
+}
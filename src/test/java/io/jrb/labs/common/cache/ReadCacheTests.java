@@ -0,0 +1,90 @@
+package io.jrb.labs.common.cache;
+
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.entity.EntityChangeEvent;
+import io.jrb.labs.entityms.resource.ThingResource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadCacheTests {
+
+	private static final String TYPE = "thing";
+
+	private final ReadCache cache = new ReadCache(datafill(3, Duration.ofMinutes(1)));
+
+	@Test
+	void cachedReadIsServedInItsProjectionOnly() {
+		cache.put(Projection.DETAILS, thing("a"), cache.generation());
+
+		assertThat(cache.get(TYPE, "a", Projection.DETAILS)).isNotNull();
+		assertThat(cache.get(TYPE, "a", Projection.SUMMARY)).isNull();
+	}
+
+	@Test
+	void cachedReadExpiresAfterItsTimeToLive() throws InterruptedException {
+		final ReadCache shortLived = new ReadCache(datafill(3, Duration.ofMillis(20)));
+		shortLived.put(Projection.DETAILS, thing("a"), shortLived.generation());
+
+		Thread.sleep(50);
+
+		assertThat(shortLived.get(TYPE, "a", Projection.DETAILS)).isNull();
+		assertThat(shortLived.size()).isZero();
+	}
+
+	@Test
+	void readThatStartedBeforeAChangeIsNotCached() {
+		final long observed = cache.generation();
+		cache.invalidate(TYPE, "b");
+
+		cache.put(Projection.DETAILS, thing("a"), observed);
+		assertThat(cache.get(TYPE, "a", Projection.DETAILS)).as("read raced a change").isNull();
+
+		cache.put(Projection.DETAILS, thing("a"), cache.generation());
+		assertThat(cache.get(TYPE, "a", Projection.DETAILS)).isNotNull();
+	}
+
+	@Test
+	void changeEventDropsTheEntityInEveryProjection() {
+		cache.put(Projection.SUMMARY, thing("a"), cache.generation());
+		cache.put(Projection.DETAILS, thing("a"), cache.generation());
+		cache.put(Projection.DETAILS, thing("b"), cache.generation());
+
+		cache.onEntityChange(EntityChangeEvent.builder()
+				.changeType(EntityChangeEvent.ChangeType.UPDATED)
+				.entityType(TYPE)
+				.guid("a")
+				.build());
+
+		assertThat(cache.get(TYPE, "a", Projection.SUMMARY)).isNull();
+		assertThat(cache.get(TYPE, "a", Projection.DETAILS)).isNull();
+		assertThat(cache.get(TYPE, "b", Projection.DETAILS)).isNotNull();
+	}
+
+	@Test
+	void cacheHoldsAtMostItsMaximumEntries() {
+		for (int i = 0; i < 10; i++) {
+			cache.put(Projection.DETAILS, thing("guid-" + i), cache.generation());
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(3);
+		assertThat(cache.get(TYPE, "guid-9", Projection.DETAILS)).isNotNull();
+	}
+
+	static ReadCacheDatafill datafill(final int maxEntries, final Duration ttl) {
+		return new ReadCacheDatafill(true, maxEntries, ttl,
+				new PrewarmPolicy(true, 2, Projection.DETAILS, 2, Duration.ofSeconds(5)));
+	}
+
+	static Resource<?> thing(final String guid) {
+		return resource(TYPE, guid);
+	}
+
+	static Resource<?> resource(final String type, final String guid) {
+		return ThingResource.builder().guid(guid).type(type).name("name-" + guid).build();
+	}
+
+}
@@ -0,0 +1,181 @@
+package io.jrb.labs.common.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionWebFilterTests {
+
+	private static final int MIN_SIZE = 1024;
+	private static final String CHUNK = "{\"name\":\"thing\",\"tags\":[\"a\",\"b\"]}\n";
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final CompressionWebFilter filter = new CompressionWebFilter(
+			new CompressionDatafill(true, List.of(MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE),
+					List.of(
+							new CompressionPolicy("/{entityType}/_changes", MIN_SIZE, 1,
+									List.of(CompressionEncoding.GZIP), true),
+							new CompressionPolicy("/{entityType}", MIN_SIZE, 6,
+									List.of(CompressionEncoding.GZIP), false))),
+			meterRegistry
+	);
+
+	@Test
+	void bodyBelowMinSizeIsWrittenAsIs() {
+		final MockServerWebExchange exchange = exchange();
+
+		filter.filter(exchange, chain(Flux.just(CHUNK, CHUNK))).block();
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(CHUNK + CHUNK);
+	}
+
+	@Test
+	void bodyAboveMinSizeIsCompressed() throws IOException {
+		final MockServerWebExchange exchange = exchange();
+
+		filter.filter(exchange, chain(Flux.range(0, 200).map(i -> CHUNK))).block();
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(gunzip(exchange.getResponse())).isEqualTo(CHUNK.repeat(200));
+	}
+
+	@Test
+	void bodyAboveMinSizeIsCompressedBeforeItCompletes() {
+		final MockServerWebExchange exchange = exchange();
+		final AtomicInteger written = new AtomicInteger();
+		exchange.getResponse().setWriteHandler(body -> body
+				.doOnNext(buffer -> {
+					written.incrementAndGet();
+					DataBufferUtils.release(buffer);
+				})
+				.then());
+		final Sinks.Many<String> chunks = Sinks.many().unicast().onBackpressureBuffer();
+
+		filter.filter(exchange, chain(chunks.asFlux())).subscribe();
+		for (int i = 0; i < 2 * MIN_SIZE / CHUNK.length(); i++) {
+			chunks.tryEmitNext(CHUNK);
+		}
+
+		assertThat(written.get()).isPositive();
+		chunks.tryEmitComplete();
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+	}
+
+	@Test
+	void compressionRecordsRatioAndCpuTimePerRoute() {
+		filter.filter(exchange(), chain(Flux.range(0, 200).map(i -> CHUNK))).block();
+
+		assertThat(meterRegistry.get("http.server.compression.ratio")
+				.tag("route", "/{entityType}")
+				.tag("encoding", "gzip")
+				.summary().mean()).isGreaterThan(1);
+		assertThat(meterRegistry.get("http.server.compression.cpu")
+				.tag("route", "/{entityType}")
+				.tag("encoding", "gzip")
+				.timer().count()).isEqualTo(1);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"gzip;q=0", "gzip; q=0", "gzip ; Q=0.0", "*, gzip;q=0", "gzip;q=0, *;q=1", "identity", ""})
+	void encodingRefusedByAcceptEncodingIsNotUsed(final String acceptEncoding) {
+		final MockServerWebExchange exchange = exchange(acceptEncoding);
+
+		filter.filter(exchange, chain(Flux.range(0, 200).map(i -> CHUNK))).block();
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(CHUNK.repeat(200));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"gzip", "GZIP", "gzip; q=0.5", "deflate, gzip;q=0.1", "*", "gzip;q=1, *;q=0"})
+	void encodingAllowedByAcceptEncodingIsUsed(final String acceptEncoding) {
+		final MockServerWebExchange exchange = exchange(acceptEncoding);
+
+		filter.filter(exchange, chain(Flux.range(0, 200).map(i -> CHUNK))).block();
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+	}
+
+	@Test
+	void streamedNdjsonIsCompressedChunkByChunk() throws IOException {
+		final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/thing/_changes")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+		final List<Integer> flushed = new ArrayList<>();
+		final MockServerHttpResponse response = exchange.getResponse();
+		final List<DataBuffer> written = new ArrayList<>();
+		response.setWriteHandler(body -> body.doOnNext(written::add).then());
+		final WebFilterChain chain = filtered -> {
+			filtered.getResponse().getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+			return filtered.getResponse().writeAndFlushWith(Flux.range(0, 3)
+					.map(i -> Flux.just(bufferFactory.wrap(CHUNK.getBytes(StandardCharsets.UTF_8)))
+							.doOnComplete(() -> flushed.add(i))));
+		};
+
+		filter.filter(exchange, chain).block();
+
+		assertThat(flushed).containsExactly(0, 1, 2);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(written).hasSizeGreaterThanOrEqualTo(3);
+		assertThat(gunzip(Flux.fromIterable(written))).isEqualTo(CHUNK.repeat(3));
+		assertThat(meterRegistry.get("http.server.compression.cpu")
+				.tag("route", "/{entityType}/_changes")
+				.timer().count()).isEqualTo(1);
+	}
+
+	private MockServerWebExchange exchange() {
+		return exchange("gzip");
+	}
+
+	private MockServerWebExchange exchange(final String acceptEncoding) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("/thing")
+				.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+	}
+
+	private WebFilterChain chain(final Flux<String> chunks) {
+		return exchange -> {
+			exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			return exchange.getResponse().writeWith(chunks
+					.map(chunk -> bufferFactory.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+		};
+	}
+
+	private String gunzip(final MockServerHttpResponse response) throws IOException {
+		return gunzip(response.getBody());
+	}
+
+	private String gunzip(final Flux<DataBuffer> body) throws IOException {
+		final DataBuffer joined = DataBufferUtils.join(body).block();
+		final byte[] compressed = new byte[joined.readableByteCount()];
+		joined.read(compressed);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
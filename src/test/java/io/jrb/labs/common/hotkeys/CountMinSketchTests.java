@@ -0,0 +1,48 @@
+package io.jrb.labs.common.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTests {
+
+	@Test
+	void estimateNeverUndercounts() {
+		final CountMinSketch sketch = new CountMinSketch(4, 64);
+		IntStream.range(0, 1_000).forEach(i -> sketch.add("key-" + (i % 100)));
+
+		IntStream.range(0, 100).forEach(i -> assertThat(sketch.estimate("key-" + i)).isGreaterThanOrEqualTo(10));
+	}
+
+	@Test
+	void keysWithEqualHashCodesAreCountedApart() {
+		assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+		final CountMinSketch sketch = new CountMinSketch(4, 1024);
+
+		IntStream.range(0, 100).forEach(i -> sketch.add("Aa"));
+
+		assertThat(sketch.estimate("Aa")).isEqualTo(100);
+		assertThat(sketch.estimate("BB")).isZero();
+	}
+
+	@Test
+	void rowsHashIndependently() {
+		final String key = "thing/0b6e4a52-5c1e-4d3f-9a7e-2f1c8d9e0a11";
+
+		assertThat(CountMinSketch.murmur3(key, 1)).isNotEqualTo(CountMinSketch.murmur3(key, 2));
+		assertThat(CountMinSketch.murmur3(key, 1)).isEqualTo(CountMinSketch.murmur3(key, 1));
+	}
+
+	@Test
+	void decayHalvesTheCounts() {
+		final CountMinSketch sketch = new CountMinSketch(4, 1024);
+		IntStream.range(0, 10).forEach(i -> sketch.add("key"));
+
+		sketch.decay();
+
+		assertThat(sketch.estimate("key")).isEqualTo(5);
+	}
+
+}
@@ -0,0 +1,78 @@
+package io.jrb.labs.common.hotkeys;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeySnapshotStoreTests {
+
+	@TempDir
+	Path snapshotDir;
+
+	@Test
+	void savedSnapshotIsLoadedInRankOrder() {
+		final Path snapshot = snapshotDir.resolve("shared/hotkeys.tsv");
+		final HotKeyTracker tracker = tracker(snapshot, null);
+		IntStream.range(0, 3).forEach(i -> tracker.record("thing", "a"));
+		tracker.record("thing", "b");
+
+		store(snapshot, tracker, null).save();
+
+		assertThat(store(snapshot, tracker(snapshot, null), null).load())
+				.extracting(HotKey::getGuid)
+				.containsExactly("a", "b");
+		assertThat(snapshotDir.resolve("shared")).isDirectoryNotContaining("glob:**.tmp");
+	}
+
+	@Test
+	void instanceWithoutTrafficKeepsThePreviousSnapshot() throws IOException {
+		final Path snapshot = snapshotDir.resolve("hotkeys.tsv");
+		Files.write(snapshot, List.of("thing\ta\t10"), StandardCharsets.UTF_8);
+
+		store(snapshot, tracker(snapshot, null), null).destroy();
+
+		assertThat(Files.readAllLines(snapshot, StandardCharsets.UTF_8)).containsExactly("thing\ta\t10");
+	}
+
+	@Test
+	void snapshotIsSavedPeriodicallyOnceStarted() throws InterruptedException {
+		final Path snapshot = snapshotDir.resolve("hotkeys.tsv");
+		final Duration interval = Duration.ofMillis(20);
+		final HotKeyTracker tracker = tracker(snapshot, interval);
+		final HotKeySnapshotStore store = store(snapshot, tracker, interval);
+		tracker.record("thing", "a");
+
+		store.start();
+		try {
+			final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+			while (!Files.exists(snapshot) && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(store.load()).extracting(HotKey::getGuid).containsExactly("a");
+		} finally {
+			store.destroy();
+		}
+	}
+
+	private static HotKeyTracker tracker(final Path snapshot, final Duration interval) {
+		return new HotKeyTracker(datafill(snapshot, interval));
+	}
+
+	private static HotKeySnapshotStore store(final Path snapshot, final HotKeyTracker tracker, final Duration interval) {
+		return new HotKeySnapshotStore(datafill(snapshot, interval), tracker);
+	}
+
+	private static HotKeyDatafill datafill(final Path snapshot, final Duration interval) {
+		return new HotKeyDatafill(true, 4, 4096, 10, Duration.ofHours(1), snapshot.toString(), interval);
+	}
+
+}
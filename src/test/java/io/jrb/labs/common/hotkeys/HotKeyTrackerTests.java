@@ -0,0 +1,80 @@
+package io.jrb.labs.common.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyTrackerTests {
+
+	private static final int TOP_K = 3;
+
+	private final HotKeyTracker tracker =
+			new HotKeyTracker(new HotKeyDatafill(true, 4, 4096, TOP_K, Duration.ofHours(1), null, null));
+
+	@Test
+	void mostReadKeysAreRankedByCount() {
+		IntStream.range(0, 1_000).forEach(i -> tracker.record("thing", "cold-" + i));
+		for (int round = 0; round < 50; round++) {
+			for (int hot = 0; hot < 5; hot++) {
+				for (int read = 0; read <= hot; read++) {
+					tracker.record("thing", "hot-" + hot);
+				}
+			}
+		}
+
+		final List<HotKey> hotKeys = tracker.findHotKeys();
+
+		assertThat(hotKeys).extracting(HotKey::getGuid).containsExactly("hot-4", "hot-3", "hot-2");
+		assertThat(hotKeys.get(0).getEstimatedCount()).isGreaterThanOrEqualTo(250);
+	}
+
+	@Test
+	void hotKeysAreFilteredByType() {
+		IntStream.range(0, 10).forEach(i -> tracker.record("thing", "a"));
+		IntStream.range(0, 5).forEach(i -> tracker.record("item", "b"));
+
+		assertThat(tracker.findHotKeys("item")).extracting(HotKey::getGuid).containsExactly("b");
+	}
+
+	@Test
+	void newlyHotKeyDisplacesAFadedOne() {
+		IntStream.range(0, 100).forEach(i -> tracker.record("thing", "old-" + (i % TOP_K)));
+		for (int i = 0; i < 10; i++) {
+			tracker.decay();
+		}
+
+		IntStream.range(0, 20).forEach(i -> tracker.record("thing", "new"));
+
+		assertThat(tracker.findHotKeys()).hasSize(TOP_K).extracting(HotKey::getGuid).contains("new");
+		assertThat(tracker.findHotKeys().get(0).getGuid()).isEqualTo("new");
+	}
+
+	@Test
+	void decayHalvesTheTrackedCounts() {
+		IntStream.range(0, 10).forEach(i -> tracker.record("thing", "a"));
+
+		tracker.decay();
+
+		assertThat(tracker.findHotKeys()).extracting(HotKey::getEstimatedCount).containsExactly(5L);
+	}
+
+	@Test
+	void concurrentReadsOfTrackedKeysAreAllCounted() throws InterruptedException {
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int thread = 0; thread < 8; thread++) {
+			executor.execute(() -> IntStream.range(0, 10_000).forEach(i -> tracker.record("thing", "k" + (i % 2))));
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(tracker.findHotKeys()).extracting(HotKey::getEstimatedCount).containsOnly(40_000L);
+	}
+
+}
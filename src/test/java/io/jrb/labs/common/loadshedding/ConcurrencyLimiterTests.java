@@ -0,0 +1,106 @@
+package io.jrb.labs.common.loadshedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTests {
+
+	private static final int INITIAL_LIMIT = 20;
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1_000);
+
+	@Test
+	void requestIsShedOnceTheLimitIsInFlight() {
+		final ConcurrencyLimiter limiter = new ConcurrencyLimiter(new ConcurrencyLimitPolicy("/{entityType}", true,
+				ConcurrencyLimitAlgorithm.AIMD, 2, 2, 2, Duration.ofMillis(500), 0.9, 0.2));
+
+		assertThat(limiter.tryAcquire()).isEqualTo(1);
+		assertThat(limiter.tryAcquire()).isEqualTo(2);
+		assertThat(limiter.tryAcquire()).isZero();
+
+		limiter.release(SLOW, 2);
+
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(limiter.tryAcquire()).isEqualTo(2);
+	}
+
+	@Test
+	void aimdRaisesTheLimitWhenBusyAndFast() {
+		final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(ConcurrencyLimitAlgorithm.AIMD, INITIAL_LIMIT));
+
+		limiter.release(FAST, INITIAL_LIMIT / 2);
+
+		assertThat(limiter.getLimit()).isEqualTo(INITIAL_LIMIT + 1);
+	}
+
+	@Test
+	void aimdKeepsTheLimitWhenAppLimited() {
+		final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(ConcurrencyLimitAlgorithm.AIMD, INITIAL_LIMIT));
+
+		for (int i = 0; i < 100; i++) {
+			limiter.release(FAST, 1);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(INITIAL_LIMIT);
+	}
+
+	@Test
+	void aimdBacksOffOnSlowRequestsDownToTheMinimum() {
+		final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(ConcurrencyLimitAlgorithm.AIMD, INITIAL_LIMIT));
+
+		limiter.release(SLOW, 1);
+		assertThat(limiter.getLimit()).isEqualTo(18);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.release(SLOW, 1);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(1);
+	}
+
+	@Test
+	void gradientRaisesTheLimitWhenBusyAtSteadyLatency() {
+		final ConcurrencyLimiter limiter =
+				new ConcurrencyLimiter(policy(ConcurrencyLimitAlgorithm.GRADIENT, INITIAL_LIMIT));
+
+		for (int i = 0; i < 10; i++) {
+			limiter.release(FAST, limiter.getLimit());
+		}
+
+		assertThat(limiter.getLimit()).isGreaterThan(INITIAL_LIMIT);
+	}
+
+	@Test
+	void gradientKeepsTheLimitWhenAppLimited() {
+		final ConcurrencyLimiter limiter =
+				new ConcurrencyLimiter(policy(ConcurrencyLimitAlgorithm.GRADIENT, INITIAL_LIMIT));
+
+		for (int i = 0; i < 100; i++) {
+			limiter.release(FAST, 1);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(INITIAL_LIMIT);
+	}
+
+	@Test
+	void gradientLowersTheLimitWhenLatencyRisesEvenWhenAppLimited() {
+		final ConcurrencyLimiter limiter =
+				new ConcurrencyLimiter(policy(ConcurrencyLimitAlgorithm.GRADIENT, INITIAL_LIMIT));
+		for (int i = 0; i < 10; i++) {
+			limiter.release(FAST, 1);
+		}
+
+		limiter.release(SLOW, 1);
+
+		assertThat(limiter.getLimit()).isLessThan(INITIAL_LIMIT);
+	}
+
+	private static ConcurrencyLimitPolicy policy(final ConcurrencyLimitAlgorithm algorithm, final int initialLimit) {
+		return new ConcurrencyLimitPolicy("/{entityType}", true, algorithm, initialLimit, 1, 200,
+				Duration.ofMillis(500), 0.9, 0.2);
+	}
+
+}
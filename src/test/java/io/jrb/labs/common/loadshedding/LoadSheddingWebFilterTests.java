@@ -0,0 +1,70 @@
+package io.jrb.labs.common.loadshedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSheddingWebFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final LoadSheddingWebFilter filter = new LoadSheddingWebFilter(
+			new LoadSheddingDatafill(true, Duration.ofSeconds(3), List.of(
+					new ConcurrencyLimitPolicy("/{entityType}/_changes", false, ConcurrencyLimitAlgorithm.AIMD,
+							1, 1, 1, Duration.ofMillis(500), 0.9, 0.2),
+					new ConcurrencyLimitPolicy("/{entityType}/**", true, ConcurrencyLimitAlgorithm.AIMD,
+							1, 1, 1, Duration.ofMillis(500), 0.9, 0.2))),
+			meterRegistry
+	);
+
+	@Test
+	void requestOverTheLimitIsShedWithRetryAfter() {
+		final Sinks.Empty<Void> inFlight = Sinks.empty();
+		final Disposable first = filter.filter(exchange("/thing"), chain(inFlight.asMono())).subscribe();
+
+		final MockServerWebExchange shed = exchange("/thing");
+		filter.filter(shed, chain(Mono.error(new AssertionError("shed request reached the handler")))).block();
+
+		assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+		assertThat(meterRegistry.get("http.server.concurrency.shed").tag("route", "/{entityType}/**")
+				.counter().count()).isEqualTo(1);
+
+		inFlight.tryEmitEmpty();
+		first.dispose();
+		final MockServerWebExchange admitted = exchange("/thing");
+		filter.filter(admitted, chain(Mono.empty())).block();
+		assertThat(admitted.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	@Test
+	void routeOfADisabledPolicyIsNeverShed() {
+		filter.filter(exchange("/thing/_changes"), chain(Mono.never())).subscribe();
+
+		final MockServerWebExchange exchange = exchange("/thing/_changes");
+		filter.filter(exchange, chain(Mono.empty())).block();
+
+		assertThat(exchange.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	private static MockServerWebExchange exchange(final String path) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+	}
+
+	private static WebFilterChain chain(final Mono<Void> handler) {
+		return exchange -> handler;
+	}
+
+}
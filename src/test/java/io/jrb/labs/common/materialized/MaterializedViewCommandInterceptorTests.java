@@ -0,0 +1,127 @@
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.cache.CacheLoader;
+import io.jrb.labs.common.resource.FieldSet;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.entity.FindEntityCommand;
+import io.jrb.labs.common.service.command.entity.GetEntitiesCommand;
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import io.jrb.labs.entityms.domain.ThingEntity;
+import io.jrb.labs.entityms.resource.ThingRequest;
+import io.jrb.labs.entityms.resource.ThingResource;
+import io.jrb.labs.entityms.service.command.ThingContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaterializedViewCommandInterceptorTests {
+
+	private static final String TYPE = "thing";
+
+	private final Command<ThingRequest, ThingResource, ThingContext> find =
+			new FindEntityCommand<ThingRequest, ThingResource, ThingContext, ThingEntity>(null, null, null) {
+			};
+	private final Command<ThingRequest, ThingResource, ThingContext> list =
+			new GetEntitiesCommand<ThingRequest, ThingResource, ThingContext, ThingEntity>(null, null, null, null) {
+			};
+	private final AtomicInteger proceeded = new AtomicInteger();
+
+	private MaterializedViews views;
+	private MaterializedViewCommandInterceptor interceptor;
+
+	@BeforeEach
+	void startViews() {
+		views = new MaterializedViews(entityServiceProperties(), new StubLoader());
+		views.start();
+		final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (views.findSnapshot(TYPE) == null) {
+			assertThat(System.nanoTime()).as("view ready within 5s").isLessThan(deadline);
+			Thread.onSpinWait();
+		}
+		interceptor = new MaterializedViewCommandInterceptor(views);
+	}
+
+	@AfterEach
+	void stopViews() {
+		views.destroy();
+	}
+
+	@Test
+	void plainReadsAreServedFromTheSnapshot() {
+		assertThat(intercept(find, context().guid("a").build()))
+				.extracting(context -> context.getOutput().getGuid())
+				.containsExactly("a");
+		assertThat(intercept(list, context().build())).hasSize(2);
+		assertThat(proceeded).hasValue(0);
+	}
+
+	@Test
+	void sparseReadsGoOnDownTheChain() {
+		final FieldSet fields = FieldSet.parse("name,bogus");
+
+		intercept(find, context().guid("a").fields(fields).build());
+		intercept(list, context().fields(fields).build());
+
+		assertThat(proceeded).as("validated and read by the commands").hasValue(2);
+	}
+
+	@Test
+	void queriesGoOnDownTheChain() {
+		intercept(list, context().limit(1).build());
+
+		assertThat(proceeded).hasValue(1);
+	}
+
+	private List<ThingContext> intercept(
+			final Command<ThingRequest, ThingResource, ThingContext> command,
+			final ThingContext context
+	) {
+		return Flux.from(interceptor.intercept(command, context, ctx -> {
+			proceeded.incrementAndGet();
+			return Mono.just(ctx);
+		})).collectList().block();
+	}
+
+	private static ThingContext.ThingContextBuilder context() {
+		return ThingContext.builder().entityType(TYPE).projection(Projection.SUMMARY);
+	}
+
+	private static EntityServiceProperties entityServiceProperties() {
+		return new Binder(new MapConfigurationPropertySource(Map.of(
+				"entity-service.entities[0].type", TYPE,
+				"entity-service.entities[0].materialized.max-size", "1MB")))
+				.bindOrCreate("entity-service", EntityServiceProperties.class);
+	}
+
+	private static final class StubLoader implements CacheLoader {
+
+		private final Map<String, ThingResource> rows = Map.of(
+				"a", ThingResource.builder().guid("a").type(TYPE).name("name-a").build(),
+				"b", ThingResource.builder().guid("b").type(TYPE).name("name-b").build());
+
+		@Override
+		public Mono<? extends Resource<?>> load(final String type, final String guid, final Projection projection) {
+			return Mono.justOrEmpty(rows.get(guid));
+		}
+
+		@Override
+		public Flux<? extends Resource<?>> loadAll(final String type, final Projection projection) {
+			return Flux.fromIterable(rows.values());
+		}
+
+	}
+
+}
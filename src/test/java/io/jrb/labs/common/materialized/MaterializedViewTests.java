@@ -0,0 +1,137 @@
+package io.jrb.labs.common.materialized;
+
+import io.jrb.labs.common.cache.CacheLoader;
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.resource.Resource;
+import io.jrb.labs.entityms.resource.ThingResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaterializedViewTests {
+
+	private static final String TYPE = "thing";
+
+	private final StubLoader loader = new StubLoader();
+	private MaterializedView view;
+
+	@AfterEach
+	void stop() {
+		view.stop();
+	}
+
+	@Test
+	void snapshotIsWithheldUntilTheReloadAfterAChangeIsPublished() {
+		loader.put("a");
+		view = start(new MaterializedPolicy(true, DataSize.ofMegabytes(1), Duration.ofMinutes(5), null));
+		await(() -> view.getSnapshot() != null);
+
+		final Sinks.Empty<Void> gate = Sinks.empty();
+		loader.gate = gate.asMono();
+		loader.put("b");
+		view.signal("b");
+
+		assertThat(view.getState()).isEqualTo(MaterializedView.State.READY);
+		assertThat(view.getSnapshot()).as("stale snapshot is not served").isNull();
+
+		gate.tryEmitEmpty();
+		await(() -> view.getSnapshot() != null);
+		assertThat(view.getSnapshot().find(Projection.SUMMARY, "b")).isNotNull();
+	}
+
+	@Test
+	void viewIsRebuiltAfterFallingBackToTheDatabase() {
+		loader.put("a");
+		loader.failing.set(true);
+		view = start(new MaterializedPolicy(true, DataSize.ofMegabytes(1), Duration.ofMillis(100), null));
+		await(() -> view.getState() == MaterializedView.State.DATABASE);
+		assertThat(view.getSnapshot()).isNull();
+
+		loader.failing.set(false);
+		await(() -> view.getSnapshot() != null);
+		assertThat(view.getEntries()).isEqualTo(1);
+	}
+
+	@Test
+	void viewOverItsCapFallsBackAndRetries() {
+		loader.put("a");
+		view = start(new MaterializedPolicy(true, DataSize.ofBytes(1), Duration.ofMillis(100), null));
+		await(() -> view.getState() == MaterializedView.State.DATABASE);
+
+		await(() -> loader.fullLoads.get() > 1);
+		assertThat(view.getSnapshot()).isNull();
+	}
+
+	@Test
+	void refreshPicksUpWritesThatRaisedNoLocalEvent() {
+		loader.put("a");
+		view = start(new MaterializedPolicy(true, DataSize.ofMegabytes(1), Duration.ofMinutes(5),
+				Duration.ofMillis(50)));
+		await(() -> view.getSnapshot() != null);
+
+		loader.put("b");
+
+		await(() -> view.getSnapshot() != null && view.getSnapshot().find(Projection.SUMMARY, "b") != null);
+		assertThat(view.getEntries()).isEqualTo(2);
+	}
+
+	private MaterializedView start(final MaterializedPolicy policy) {
+		final MaterializedView started = new MaterializedView(TYPE, policy, loader);
+		started.start();
+		return started;
+	}
+
+	private static void await(final BooleanSupplier condition) {
+		final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition met within 5s").isLessThan(deadline);
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static final class StubLoader implements CacheLoader {
+
+		private final Map<String, ThingResource> rows = new ConcurrentHashMap<>();
+		private final AtomicBoolean failing = new AtomicBoolean();
+		private final AtomicInteger fullLoads = new AtomicInteger();
+		private volatile Mono<Void> gate = Mono.empty();
+
+		void put(final String guid) {
+			rows.put(guid, ThingResource.builder().guid(guid).type(TYPE).name("name-" + guid).build());
+		}
+
+		@Override
+		public Mono<? extends Resource<?>> load(final String type, final String guid, final Projection projection) {
+			return gate.then(Mono.fromCallable(() -> rows.get(guid)));
+		}
+
+		@Override
+		public Flux<? extends Resource<?>> loadAll(final String type, final Projection projection) {
+			if (projection == Projection.SUMMARY) {
+				fullLoads.incrementAndGet();
+			}
+			return failing.get()
+					? Flux.error(new IllegalStateException("database unavailable"))
+					: Flux.fromIterable(rows.values());
+		}
+
+	}
+
+}
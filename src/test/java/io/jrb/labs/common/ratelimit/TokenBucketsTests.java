@@ -0,0 +1,93 @@
+package io.jrb.labs.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketsTests {
+
+	private static final int CAPACITY = 5;
+	private static final int REFILL_PER_SECOND = 10;
+	private static final long REFILL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void newKeyIsRefusedWhileEveryBucketIsLimiting() {
+		final TokenBuckets buckets = new TokenBuckets(new RateLimitPolicy(CAPACITY, REFILL_PER_SECOND), 2);
+		final long now = 0;
+		drain(buckets, "a", now);
+		drain(buckets, "b", now);
+
+		assertThat(buckets.tryConsume("c", now)).isNegative();
+		assertThat(buckets.size()).isEqualTo(2);
+		assertThat(buckets.tryConsume("a", now)).as("limit of an active client is kept").isNegative();
+	}
+
+	@Test
+	void floodOfNewKeysCannotResetAnActiveLimit() {
+		final TokenBuckets buckets = new TokenBuckets(new RateLimitPolicy(CAPACITY, REFILL_PER_SECOND), 10);
+		long now = 0;
+		drain(buckets, "victim", now);
+		for (int i = 0; i < 1_000; i++) {
+			now += TokenBuckets.SWEEP_INTERVAL_NANOS / 1_000;
+			buckets.tryConsume("key-" + i, now);
+		}
+
+		assertThat(buckets.size()).isLessThanOrEqualTo(10);
+		assertThat(buckets.tryConsume("victim", now)).isLessThan(CAPACITY - 1);
+	}
+
+	@Test
+	void refilledBucketsMakeRoomForNewKeys() {
+		final TokenBuckets buckets = new TokenBuckets(new RateLimitPolicy(CAPACITY, REFILL_PER_SECOND), 2);
+		drain(buckets, "a", 0);
+		drain(buckets, "b", 0);
+
+		assertThat(buckets.tryConsume("c", REFILL_NANOS)).isEqualTo(CAPACITY - 1);
+		assertThat(buckets.size()).isEqualTo(1);
+	}
+
+	@Test
+	void sweepsAreThrottled() {
+		final TokenBuckets buckets = new TokenBuckets(new RateLimitPolicy(CAPACITY, REFILL_PER_SECOND), 1);
+		drain(buckets, "a", 0);
+		assertThat(buckets.tryConsume("b", 0)).isNegative();
+
+		final long refilled = REFILL_NANOS;
+		assertThat(buckets.tryConsume("b", refilled)).isNotNegative();
+		drain(buckets, "b", refilled);
+		assertThat(buckets.tryConsume("c", 2 * refilled)).as("bucket b has refilled").isNotNegative();
+		assertThat(buckets.tryConsume("d", 2 * refilled + 1)).as("no sweep within the interval").isNegative();
+	}
+
+	@Test
+	void takingATokenCostsLessThanAMicrosecond() {
+		final TokenBuckets buckets = new TokenBuckets(new RateLimitPolicy(1_000_000, 1_000_000), 1_000);
+		final String[] keys = new String[100];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = "client-" + i;
+		}
+		final int iterations = 2_000_000;
+		long sink = 0;
+		for (int i = 0; i < iterations; i++) {
+			sink += buckets.tryConsume(keys[i % keys.length], System.nanoTime());
+		}
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			sink += buckets.tryConsume(keys[i % keys.length], System.nanoTime());
+		}
+		final double nanosPerToken = (double) (System.nanoTime() - start) / iterations;
+
+		assertThat(sink).isNotZero();
+		assertThat(nanosPerToken).isLessThan(1_000);
+	}
+
+	private static void drain(final TokenBuckets buckets, final String key, final long now) {
+		while (buckets.tryConsume(key, now) >= 0) {
+			// take every token
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionRoutingConnectionFactoryTests {
+
+	private final ConnectionFactory database =
+			ConnectionFactories.get("r2dbc:h2:mem:///partitions?options=DB_CLOSE_DELAY=-1");
+
+	private final PartitionRoutingConnectionFactory factory = new PartitionRoutingConnectionFactory(database);
+
+	@Test
+	void connectionIsRoutedToTheSchemaOfTheEntityTypeInContext() {
+		DatabaseClient.create(database)
+				.sql("CREATE SCHEMA IF NOT EXISTS " + EntityPartitions.schemaFor("thing"))
+				.then()
+				.block();
+
+		final String schema = DatabaseClient.create(factory)
+				.sql("SELECT SCHEMA() AS current_schema")
+				.map(row -> row.get("current_schema", String.class))
+				.one()
+				.contextWrite(EntityPartitions.forType("thing"))
+				.block();
+
+		assertThat(schema).isEqualTo("P_THING");
+	}
+
+	@Test
+	void connectionWithoutAnEntityTypeInContextFails() {
+		StepVerifier.create(factory.create())
+				.expectError(IllegalStateException.class)
+				.verify();
+	}
+
+}
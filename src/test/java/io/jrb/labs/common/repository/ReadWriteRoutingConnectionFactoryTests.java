@@ -0,0 +1,102 @@
+package io.jrb.labs.common.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingConnectionFactoryTests {
+
+	private static final ConnectionFactory PRIMARY =
+			ConnectionFactories.get("r2dbc:h2:mem:///routing-primary?options=DB_CLOSE_DELAY=-1");
+	private static final ConnectionFactory REPLICA =
+			ConnectionFactories.get("r2dbc:h2:mem:///routing-replica?options=DB_CLOSE_DELAY=-1");
+
+	@BeforeAll
+	static void markDatabases() {
+		mark(PRIMARY, "primary");
+		mark(REPLICA, "replica");
+	}
+
+	@Test
+	void readOfAnEntityTypeGoesToTheReplica() {
+		final ReadWriteRoutingConnectionFactory factory = routing(Duration.ofHours(1));
+
+		assertThat(database(factory, ReadReplica.forReads("thing"))).isEqualTo("replica");
+	}
+
+	@Test
+	void readWithoutAnEntityTypeGoesToThePrimary() {
+		final ReadWriteRoutingConnectionFactory factory = routing(Duration.ofHours(1));
+
+		assertThat(database(factory, Context.empty())).isEqualTo("primary");
+	}
+
+	@Test
+	void readWithinTheMaxLagOfAWriteGoesToThePrimary() {
+		final ReadReplica readReplica = new ReadReplica(REPLICA, Duration.ofHours(1));
+		final ReadWriteRoutingConnectionFactory factory = new ReadWriteRoutingConnectionFactory(PRIMARY, readReplica);
+
+		readReplica.recordWrite("thing");
+
+		assertThat(database(factory, ReadReplica.forReads("thing"))).isEqualTo("primary");
+		assertThat(database(factory, ReadReplica.forReads("item"))).isEqualTo("replica");
+	}
+
+	@Test
+	void readAfterTheMaxLagOfAWriteGoesBackToTheReplica() {
+		final ReadReplica readReplica = new ReadReplica(REPLICA, Duration.ZERO);
+		final ReadWriteRoutingConnectionFactory factory = new ReadWriteRoutingConnectionFactory(PRIMARY, readReplica);
+
+		readReplica.recordWrite("thing");
+
+		assertThat(database(factory, ReadReplica.forReads("thing"))).isEqualTo("replica");
+	}
+
+	@Test
+	void readInsideATransactionGoesToThePrimary() {
+		final ReadWriteRoutingConnectionFactory factory = routing(Duration.ofHours(1));
+		final TransactionalOperator transactionalOperator =
+				TransactionalOperator.create(new R2dbcTransactionManager(factory));
+
+		final String database = select(factory)
+				.as(transactionalOperator::transactional)
+				.contextWrite(ReadReplica.forReads("thing"))
+				.block();
+
+		assertThat(database).isEqualTo("primary");
+	}
+
+	private static ReadWriteRoutingConnectionFactory routing(final Duration maxLag) {
+		return new ReadWriteRoutingConnectionFactory(PRIMARY, new ReadReplica(REPLICA, maxLag));
+	}
+
+	private static String database(final ConnectionFactory factory, final Context context) {
+		return select(factory).contextWrite(context).block();
+	}
+
+	private static Mono<String> select(final ConnectionFactory factory) {
+		return DatabaseClient.create(factory)
+				.sql("SELECT m_name FROM t_marker")
+				.map(row -> row.get("m_name", String.class))
+				.one();
+	}
+
+	private static void mark(final ConnectionFactory factory, final String name) {
+		final DatabaseClient client = DatabaseClient.create(factory);
+		client.sql("CREATE TABLE IF NOT EXISTS t_marker (m_name VARCHAR(16))").then()
+				.then(client.sql("DELETE FROM t_marker").then())
+				.then(client.sql("INSERT INTO t_marker (m_name) VALUES (:name)").bind("name", name).then())
+				.block();
+	}
+
+}
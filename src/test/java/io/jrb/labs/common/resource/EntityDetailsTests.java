@@ -0,0 +1,160 @@
+package io.jrb.labs.common.resource;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jrb.labs.entityms.resource.ThingResource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityDetailsTests {
+
+	private static final Instant CREATED_ON = Instant.parse("2021-06-01T10:15:30Z");
+	private static final Instant UPDATED_ON = Instant.parse("2021-06-02T10:15:30Z");
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@ParameterizedTest
+	@EnumSource(Projection.class)
+	void detailsSerializeAsTheyDidBeforeTheCompactMap(final Projection projection) throws Exception {
+		final EntityDetails details = EntityDetails.builder()
+				.add("tags", "red")
+				.add("color", "blue")
+				.add("tags", "green")
+				.add("tags", "yellow")
+				.build();
+		final ThingResource resource = thing().withDetails(details);
+		final Map<String, List<String>> legacyDetails = new LinkedHashMap<>();
+		legacyDetails.put("tags", List.of("red", "green", "yellow"));
+		legacyDetails.put("color", List.of("blue"));
+		final LegacyThingResource legacy = legacyThing(legacyDetails);
+
+		assertThat(write(resource, projection)).isEqualTo(write(legacy, projection));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Projection.class)
+	void resourceWithoutDetailsSerializesAsBefore(final Projection projection) throws Exception {
+		final ThingResource resource = thing();
+
+		assertThat(resource.getDetails()).isEmpty();
+		assertThat(write(resource, projection)).isEqualTo(write(legacyThing(Map.of()), projection));
+	}
+
+	@Test
+	void builderKeepsInsertionOrderAndInternsValues() {
+		final String value = new String("shared");
+		final EntityDetails details = EntityDetails.builder()
+				.add("b", value)
+				.add("a", "1")
+				.add("b", "2")
+				.build();
+
+		assertThat(details.keySet()).containsExactly("b", "a");
+		assertThat(details.get("b")).containsExactly("shared", "2");
+		assertThat(details.get("b").get(0)).isSameAs("shared");
+		assertThat(details.get("a")).containsExactly("1");
+		assertThat(EntityDetails.builder().build()).isSameAs(EntityDetails.empty());
+	}
+
+	private byte[] write(final Object resource, final Projection projection) throws Exception {
+		return objectMapper.writerWithView(projection.view).writeValueAsBytes(resource);
+	}
+
+	private static ThingResource thing() {
+		return ThingResource.builder()
+				.guid("guid-1")
+				.type("thing")
+				.name("name-1")
+				.createdOn(CREATED_ON)
+				.updatedOn(UPDATED_ON)
+				.version(3)
+				.build();
+	}
+
+	private static LegacyThingResource legacyThing(final Map<String, List<String>> details) {
+		return new LegacyThingResource("guid-1", "thing", "name-1", CREATED_ON, UPDATED_ON, 3, details);
+	}
+
+	/**
+	 * The resource as it was before its details became an {@link EntityDetails}: a plain map, empty by default.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	static final class LegacyThingResource {
+
+		private final String guid;
+		private final String type;
+		private final String name;
+		private final Instant createdOn;
+		private final Instant updatedOn;
+		private final long version;
+		private final Map<String, List<String>> details;
+
+		LegacyThingResource(
+				final String guid,
+				final String type,
+				final String name,
+				final Instant createdOn,
+				final Instant updatedOn,
+				final long version,
+				final Map<String, List<String>> details
+		) {
+			this.guid = guid;
+			this.type = type;
+			this.name = name;
+			this.createdOn = createdOn;
+			this.updatedOn = updatedOn;
+			this.version = version;
+			this.details = Collections.unmodifiableMap(new LinkedHashMap<>(details));
+		}
+
+		@JsonView(Projection.Summary.class)
+		public String getGuid() {
+			return guid;
+		}
+
+		@JsonView(Projection.Summary.class)
+		public String getType() {
+			return type;
+		}
+
+		@JsonView(Projection.Summary.class)
+		public String getName() {
+			return name;
+		}
+
+		@JsonView(Projection.Detail.class)
+		public Instant getCreatedOn() {
+			return createdOn;
+		}
+
+		@JsonView(Projection.Detail.class)
+		public Instant getUpdatedOn() {
+			return updatedOn;
+		}
+
+		@JsonView(Projection.Detail.class)
+		public long getVersion() {
+			return version;
+		}
+
+		@JsonView(Projection.Detail.class)
+		@JsonAnyGetter
+		public Map<String, List<String>> getDetails() {
+			return details;
+		}
+
+	}
+
+}
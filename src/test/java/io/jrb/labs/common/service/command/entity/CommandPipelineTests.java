@@ -0,0 +1,147 @@
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandChain;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.jrb.labs.common.service.command.CommandInterceptor;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.common.service.command.entity.EntityServiceFixtures.entityServiceProperties;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class CommandPipelineTests {
+
+	private final List<String> invoked = new ArrayList<>();
+
+	@Test
+	void noInterceptorRunsUnlessNamed() {
+		final CommandPipeline pipeline = pipeline();
+
+		assertThat(execute(pipeline, "thing")).isEqualTo("done");
+		assertThat(invoked).isEmpty();
+	}
+
+	@Test
+	void serviceWideInterceptorsRunInBeanOrder() {
+		final CommandPipeline pipeline = pipeline("interceptors", "second,first");
+
+		execute(pipeline, "thing");
+
+		assertThat(invoked).containsExactly("first", "second");
+	}
+
+	@Test
+	void entityTypeInterceptorsOverrideTheServiceWideOnes() {
+		final CommandPipeline pipeline = pipeline(
+				"interceptors", "first",
+				"entities[1].type", "item",
+				"entities[1].interceptors", "second");
+
+		execute(pipeline, "item");
+		assertThat(invoked).containsExactly("second");
+
+		invoked.clear();
+		execute(pipeline, "thing");
+		assertThat(invoked).containsExactly("first");
+	}
+
+	@Test
+	void unknownServiceWideInterceptorFailsAtStartup() {
+		assertThatIllegalStateException()
+				.isThrownBy(() -> pipeline("interceptors", "first,frist"))
+				.withMessageContaining("frist");
+	}
+
+	@Test
+	void unknownEntityTypeInterceptorFailsAtStartup() {
+		assertThatIllegalStateException()
+				.isThrownBy(() -> pipeline("entities[0].interceptors", "unknown"))
+				.withMessageContaining("unknown");
+	}
+
+	private CommandPipeline pipeline(final String... keysAndValues) {
+		final Map<String, Object> beans = new LinkedHashMap<>();
+		beans.put("first", new RecordingInterceptor("first"));
+		beans.put("second", new RecordingInterceptor("second"));
+		return new CommandPipeline(new StaticListableBeanFactory(beans).getBeanProvider(CommandInterceptor.class),
+				entityServiceProperties(keysAndValues));
+	}
+
+	private static String execute(final CommandPipeline pipeline, final String entityType) {
+		final Command<String, String, TestContext> command = context -> Mono.just(context.withOutput("done"));
+		return pipeline.executeMono(command, new TestContext(entityType, null)).block().getOutput();
+	}
+
+	private final class RecordingInterceptor implements CommandInterceptor {
+
+		private final String name;
+
+		RecordingInterceptor(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public <I, O, C extends CommandContext<I, O, C>> Publisher<C> intercept(
+				final Command<I, O, C> command,
+				final C context,
+				final CommandChain<C> chain
+		) {
+			invoked.add(name);
+			return chain.proceed(context);
+		}
+
+	}
+
+	private static final class TestContext implements CommandContext<String, String, TestContext> {
+
+		private final String entityType;
+		private final String output;
+
+		TestContext(final String entityType, final String output) {
+			this.entityType = entityType;
+			this.output = output;
+		}
+
+		@Override
+		public String getInput() {
+			return null;
+		}
+
+		@Override
+		public String getOutput() {
+			return output;
+		}
+
+		@Override
+		public String getEntityType() {
+			return entityType;
+		}
+
+		@Override
+		public Projection getProjection() {
+			return null;
+		}
+
+		@Override
+		public TestContext withOutput(final String output) {
+			return new TestContext(entityType, output);
+		}
+
+	}
+
+}
@@ -0,0 +1,84 @@
+package io.jrb.labs.common.service.command.entity;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.jrb.labs.common.service.command.entity.EntityServiceFixtures.THING;
+import static io.jrb.labs.common.service.command.entity.EntityServiceFixtures.entityServiceProperties;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityChangeFeedTests {
+
+	private static final int PUBLISHERS = 8;
+	private static final int EVENTS_PER_PUBLISHER = 1_000;
+
+	@Test
+	void concurrentPublishersLoseNoEvents() throws Exception {
+		final EntityChangeFeed feed = new EntityChangeFeed(
+				entityServiceProperties("change-feed-buffer-size", String.valueOf(PUBLISHERS * EVENTS_PER_PUBLISHER)));
+		final List<EntityChangeEvent> received = new CopyOnWriteArrayList<>();
+		final Disposable subscription = feed.changes(THING).subscribe(received::add);
+		final ExecutorService executor = Executors.newFixedThreadPool(PUBLISHERS);
+		final CountDownLatch start = new CountDownLatch(1);
+		try {
+			for (int p = 0; p < PUBLISHERS; p++) {
+				final int publisher = p;
+				executor.execute(() -> {
+					awaitQuietly(start);
+					for (int i = 0; i < EVENTS_PER_PUBLISHER; i++) {
+						feed.onEntityChange(event(publisher + "-" + i));
+					}
+				});
+			}
+			start.countDown();
+			executor.shutdown();
+			assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+			assertThat(received).hasSize(PUBLISHERS * EVENTS_PER_PUBLISHER);
+		} finally {
+			subscription.dispose();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void eventsOfOtherTypesAreIgnored() {
+		final EntityChangeFeed feed = new EntityChangeFeed(entityServiceProperties());
+		final List<EntityChangeEvent> received = new CopyOnWriteArrayList<>();
+		final Disposable subscription = feed.changes(THING).subscribe(received::add);
+
+		feed.onEntityChange(EntityChangeEvent.builder()
+				.changeType(EntityChangeEvent.ChangeType.CREATED)
+				.entityType("other")
+				.guid("guid")
+				.build());
+		subscription.dispose();
+
+		assertThat(received).isEmpty();
+	}
+
+	private static EntityChangeEvent event(final String guid) {
+		return EntityChangeEvent.builder()
+				.changeType(EntityChangeEvent.ChangeType.CREATED)
+				.entityType(THING)
+				.guid(guid)
+				.name("name-" + guid)
+				.build();
+	}
+
+	private static void awaitQuietly(final CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
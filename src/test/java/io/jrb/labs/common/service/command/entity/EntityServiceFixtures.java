@@ -0,0 +1,31 @@
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.service.command.entity.config.EntityServiceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class EntityServiceFixtures {
+
+	static final String THING = "thing";
+
+	private EntityServiceFixtures() {
+	}
+
+	/**
+	 * Binds {@code entity-service} properties the way the application does, from the given property values on top of
+	 * a single {@value #THING} entity type, so that every other setting keeps its default.
+	 */
+	static EntityServiceProperties entityServiceProperties(final String... keysAndValues) {
+		final Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("entity-service.entities[0].type", THING);
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			properties.put("entity-service." + keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return new Binder(new MapConfigurationPropertySource(properties))
+				.bindOrCreate("entity-service", EntityServiceProperties.class);
+	}
+
+}
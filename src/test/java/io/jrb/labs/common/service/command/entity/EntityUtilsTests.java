@@ -0,0 +1,74 @@
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.service.command.entity.config.EntityType;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.common.service.command.entity.EntityServiceFixtures.THING;
+import static io.jrb.labs.common.service.command.entity.EntityServiceFixtures.entityServiceProperties;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityUtilsTests {
+
+	@Test
+	void typeProfileOverridesTheDefaultProfile() {
+		final EntityUtils entityUtils = entityUtils(
+				"execution.concurrency", "8",
+				"entities[0].execution.concurrency", "3",
+				"entities[0].execution.batch-size", "50");
+
+		assertThat(entityUtils.findExecutionProfile(entityUtils.findEntityType(THING)))
+				.satisfies(profile -> {
+					assertThat(profile.getConcurrency()).isEqualTo(3);
+					assertThat(profile.getBatchSize()).isEqualTo(50);
+				});
+	}
+
+	@Test
+	void fanOutRunsNoMoreInnerQueriesThanTheProfileAllows() {
+		final EntityUtils entityUtils = entityUtils("execution.concurrency", "2");
+		final EntityType entityType = entityUtils.findEntityType(THING);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger mostRunning = new AtomicInteger();
+
+		final List<Integer> results = entityUtils.fanOut(entityType, Flux.range(0, 10),
+						i -> Mono.delay(Duration.ofMillis(5))
+								.doOnSubscribe(s -> mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+								.doFinally(signal -> running.decrementAndGet())
+								.thenReturn(i))
+				.collectList()
+				.block();
+
+		assertThat(results).containsExactlyInAnyOrderElementsOf(range(10));
+		assertThat(mostRunning.get()).isEqualTo(2);
+	}
+
+	@Test
+	void orderedProfileEmitsInSourceOrder() {
+		final EntityUtils entityUtils = entityUtils("execution.ordered", "true");
+		final EntityType entityType = entityUtils.findEntityType(THING);
+
+		final List<Integer> results = entityUtils.fanOut(entityType, Flux.range(0, 10),
+						i -> Mono.delay(Duration.ofMillis(10L * (10 - i))).thenReturn(i))
+				.collectList()
+				.block();
+
+		assertThat(results).containsExactlyElementsOf(range(10));
+	}
+
+	private static EntityUtils entityUtils(final String... keysAndValues) {
+		return new EntityUtils(null, null, entityServiceProperties(keysAndValues), event -> {});
+	}
+
+	private static List<Integer> range(final int count) {
+		return IntStream.range(0, count).boxed().collect(Collectors.toList());
+	}
+
+}
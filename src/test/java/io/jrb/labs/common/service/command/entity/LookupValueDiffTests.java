@@ -0,0 +1,73 @@
+package io.jrb.labs.common.service.command.entity;
+
+import io.jrb.labs.common.domain.LookupValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LookupValueDiffTests {
+
+	private static final long ENTITY_ID = 7L;
+
+	@Test
+	void keepsUnchangedValuesAndOnlyTouchesTheDifference() {
+		final List<LookupValue> stored = List.of(
+				lookupValue(1L, "tags", "a"),
+				lookupValue(2L, "tags", "b"),
+				lookupValue(3L, "groups", "g"));
+
+		final LookupValueDiff diff = LookupValueDiff.of(ENTITY_ID, stored, Map.of("tags", List.of("b", "c")));
+
+		assertThat(diff.getDeletedIds()).containsExactly(1L);
+		assertThat(diff.getInserted())
+				.extracting(LookupValue::getEntityId, LookupValue::getValueType, LookupValue::getValue)
+				.containsExactly(tuple(ENTITY_ID, "tags", "c"));
+		assertThat(diff.getDetails().get("tags")).containsExactlyInAnyOrder("b", "c");
+		assertThat(diff.getDetails().get("groups")).containsExactly("g");
+	}
+
+	@Test
+	void clearsAPropertyRequestedWithoutValues() {
+		final List<LookupValue> stored = List.of(
+				lookupValue(1L, "tags", "a"),
+				lookupValue(2L, "groups", "g"));
+		final Map<String, List<String>> requested = new HashMap<>();
+		requested.put("tags", null);
+
+		final LookupValueDiff diff = LookupValueDiff.of(ENTITY_ID, stored, requested);
+
+		assertThat(diff.getDeletedIds()).containsExactly(1L);
+		assertThat(diff.getInserted()).isEmpty();
+		assertThat(diff.getDetails()).containsOnlyKeys("groups");
+	}
+
+	@Test
+	void requestingTheStoredValuesChangesNothing() {
+		final List<LookupValue> stored = List.of(
+				lookupValue(1L, "tags", "a"),
+				lookupValue(2L, "tags", "b"));
+
+		final LookupValueDiff diff = LookupValueDiff.of(ENTITY_ID, stored, Map.of("tags", List.of("b", "a", "a")));
+
+		assertThat(diff.getDeletedIds()).isEmpty();
+		assertThat(diff.getInserted()).isEmpty();
+		assertThat(diff.getDetails().get("tags").stream().sorted().collect(Collectors.toList()))
+				.containsExactly("a", "b");
+	}
+
+	private static LookupValue lookupValue(final long id, final String valueType, final String value) {
+		return LookupValue.builder()
+				.id(id)
+				.entityId(ENTITY_ID)
+				.valueType(valueType)
+				.value(value)
+				.build();
+	}
+
+}
@@ -0,0 +1,38 @@
+package io.jrb.labs.common.service.command.entity.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityServicePropertiesTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+			.withUserConfiguration(PropertiesConfig.class);
+
+	@Test
+	void defaultsBind() {
+		contextRunner.run(context -> assertThat(context.getBean(EntityServiceProperties.class).getDeleteChunkSize())
+				.isEqualTo(500));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"delete-chunk-size", "import-chunk-size", "change-page-size"})
+	void chunkAndPageSizesBelowOneAreRejected(final String property) {
+		contextRunner.withPropertyValues("entity-service." + property + "=0")
+				.run(context -> assertThat(context).hasFailed());
+	}
+
+	@Configuration
+	@EnableConfigurationProperties(EntityServiceProperties.class)
+	static class PropertiesConfig {
+	}
+
+}
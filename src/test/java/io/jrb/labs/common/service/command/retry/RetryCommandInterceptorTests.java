@@ -0,0 +1,171 @@
+package io.jrb.labs.common.service.command.retry;
+
+import io.jrb.labs.common.resource.Projection;
+import io.jrb.labs.common.service.command.Command;
+import io.jrb.labs.common.service.command.CommandContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.QueryTimeoutException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryCommandInterceptorTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final RetryCommandInterceptor interceptor = new RetryCommandInterceptor(
+			new RetryDatafill(true, 3, Duration.ofMillis(1), Duration.ofMillis(5), 0, Duration.ofSeconds(2)),
+			meterRegistry
+	);
+
+	private final AtomicInteger attempts = new AtomicInteger();
+
+	@Test
+	void commandsAreNotIdempotentByDefault() {
+		final Command<String, String, TestContext> command = context -> Mono.just(context);
+
+		assertThat(command.isIdempotent()).isFalse();
+		assertThat(command.isRetryable()).isTrue();
+	}
+
+	@Test
+	void transientFailureBeforeAnyResultIsRetried() {
+		final TestCommand command = new TestCommand(true, attempt -> attempt == 1
+				? Flux.error(new QueryTimeoutException("timeout"))
+				: Flux.just("done"));
+
+		StepVerifier.create(intercept(command))
+				.expectNext("done")
+				.verifyComplete();
+		assertThat(attempts).hasValue(2);
+		assertThat(meterRegistry.get("command.retries").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void failureAfterAResultIsNotRetried() {
+		final TestCommand command = new TestCommand(true, attempt -> Flux.concat(
+				Flux.just("first"),
+				Flux.error(new QueryTimeoutException("timeout"))));
+
+		StepVerifier.create(intercept(command))
+				.expectNext("first")
+				.verifyError(QueryTimeoutException.class);
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void permanentFailureIsNotRetried() {
+		final TestCommand command = new TestCommand(true, attempt -> Flux.error(new IllegalStateException("broken")));
+
+		StepVerifier.create(intercept(command))
+				.verifyError(IllegalStateException.class);
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void nonIdempotentCommandIsRetriedBeforeItCommits() {
+		final TestCommand command = new TestCommand(false, attempt -> attempt == 1
+				? Flux.error(new QueryTimeoutException("timeout"))
+				: Flux.just("done"));
+
+		StepVerifier.create(intercept(command))
+				.expectNext("done")
+				.verifyComplete();
+		assertThat(attempts).hasValue(2);
+	}
+
+	@Test
+	void nonIdempotentCommandIsNotRetriedOnceItCommits() {
+		final TestCommand command = new TestCommand(false, attempt -> Flux.deferContextual(context -> {
+			CommitGuard.markCommitting(context);
+			return Flux.error(new QueryTimeoutException("timeout"));
+		}));
+
+		StepVerifier.create(intercept(command))
+				.verifyError(QueryTimeoutException.class);
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void retriesStopWhenExhausted() {
+		final TestCommand command = new TestCommand(true, attempt -> Flux.error(new QueryTimeoutException("timeout")));
+
+		StepVerifier.create(intercept(command))
+				.verifyError(QueryTimeoutException.class);
+		assertThat(attempts).hasValue(4);
+		assertThat(meterRegistry.get("command.retries.exhausted").counter().count()).isEqualTo(1);
+	}
+
+	private Flux<String> intercept(final TestCommand command) {
+		final TestContext context = new TestContext(null);
+		return Flux.from(interceptor.intercept(command, context, command::execute))
+				.map(TestContext::getOutput);
+	}
+
+	private final class TestCommand implements Command<String, String, TestContext> {
+
+		private final boolean idempotent;
+		private final Function<Integer, Flux<String>> attempt;
+
+		TestCommand(final boolean idempotent, final Function<Integer, Flux<String>> attempt) {
+			this.idempotent = idempotent;
+			this.attempt = attempt;
+		}
+
+		@Override
+		public boolean isIdempotent() {
+			return idempotent;
+		}
+
+		@Override
+		public Publisher<TestContext> execute(final TestContext context) {
+			return Flux.defer(() -> attempt.apply(attempts.incrementAndGet()))
+					.map(context::withOutput);
+		}
+
+	}
+
+	private static final class TestContext implements CommandContext<String, String, TestContext> {
+
+		private final String output;
+
+		TestContext(final String output) {
+			this.output = output;
+		}
+
+		@Override
+		public String getInput() {
+			return null;
+		}
+
+		@Override
+		public String getOutput() {
+			return output;
+		}
+
+		@Override
+		public String getEntityType() {
+			return "thing";
+		}
+
+		@Override
+		public Projection getProjection() {
+			return null;
+		}
+
+		@Override
+		public TestContext withOutput(final String output) {
+			return new TestContext(output);
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+package io.jrb.labs.entityms;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.listThings;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the application on a fresh in-memory database, with and without the fast-start profile, logging the time to
+ * ready and the latency of the first request so cold starts can be compared across changes.
+ */
+class StartupTimeTests {
+
+	private static final Logger log = LoggerFactory.getLogger(StartupTimeTests.class);
+
+	@ParameterizedTest
+	@ValueSource(strings = {"test", "test,fast-start"})
+	void applicationServesItsFirstRequestOnAFreshDatabase(final String profiles) {
+		final long start = System.nanoTime();
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EntityMsApplication.class)
+				.run("--spring.profiles.active=" + profiles, "--server.port=0",
+						"--spring.r2dbc.generate-unique-name=true")) {
+			final long readyMillis = (System.nanoTime() - start) / 1_000_000;
+			final WebTestClient client = WebTestClient
+					.bindToServer()
+					.baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+					.build();
+
+			final long requestStart = System.nanoTime();
+			final String tag = uniqueTag();
+			createThing(client, uniqueName(), List.of(tag));
+			final long firstRequestMillis = (System.nanoTime() - requestStart) / 1_000_000;
+			log.info("profiles {}: ready in {} ms, first request in {} ms", profiles, readyMillis, firstRequestMillis);
+
+			assertThat(listThings(client, "tags=" + tag)).hasSize(1);
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.entityms.domain.ThingEntity;
+import io.jrb.labs.entityms.repository.ThingEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares point-read throughput and latency of the R2DBC and JDBC storage backends side by side, against the same
+ * in-memory database, and checks the JDBC backend still reads its own writes inside a reactive transaction.
+ */
+class StorageBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(StorageBenchmarkTests.class);
+
+	private static final int THINGS = 200;
+	private static final int READS = 5_000;
+	private static final int CONCURRENCY = 32;
+
+	@ParameterizedTest
+	@ValueSource(strings = {"r2dbc", "jdbc"})
+	void pointReads(final String storage) {
+		try (ConfigurableApplicationContext context = start(storage)) {
+			final ThingEntityRepository repository = context.getBean(ThingEntityRepository.class);
+			final List<String> guids = repository.insertAll(IntStream.range(0, THINGS)
+							.mapToObj(i -> newThing())
+							.collect(Collectors.toList()))
+					.map(ThingEntity::getGuid)
+					.collectList()
+					.block();
+
+			read(repository, guids, READS / 10);
+			final long start = System.nanoTime();
+			final long[] latencies = read(repository, guids, READS);
+			final long elapsed = System.nanoTime() - start;
+
+			Arrays.sort(latencies);
+			log.info("{}: {} reads/s, p50 {} us, p99 {} us", storage,
+					READS * 1_000_000_000L / elapsed,
+					latencies[READS / 2] / 1_000,
+					latencies[READS * 99 / 100] / 1_000);
+			assertThat(latencies).hasSize(READS);
+		}
+	}
+
+	@Test
+	void r2dbcStorageCreatesNoDataSource() {
+		try (ConfigurableApplicationContext context = start("r2dbc")) {
+			assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+			assertThat(context.getBeanNamesForType(JdbcTemplate.class)).isEmpty();
+		}
+	}
+
+	@Test
+	void jdbcStorageReadsItsOwnWritesInsideATransaction() {
+		try (ConfigurableApplicationContext context = start("jdbc")) {
+			final ThingEntityRepository repository = context.getBean(ThingEntityRepository.class);
+			final TransactionalOperator transactionalOperator = context.getBean(TransactionalOperator.class);
+
+			final ThingEntity thing = newThing();
+			final ThingEntity found = repository.insertAll(List.of(thing))
+					.then(repository.findByTypeAndGuid(THING, thing.getGuid()))
+					.as(transactionalOperator::transactional)
+					.block();
+
+			assertThat(found).isNotNull();
+			assertThat(found.getName()).isEqualTo(thing.getName());
+		}
+	}
+
+	private ConfigurableApplicationContext start(final String storage) {
+		return new SpringApplicationBuilder(EntityMsApplication.class)
+				.run("--spring.profiles.active=test," + storage, "--server.port=0");
+	}
+
+	private long[] read(final ThingEntityRepository repository, final List<String> guids, final int reads) {
+		return Flux.range(0, reads)
+				.flatMap(i -> {
+					final long start = System.nanoTime();
+					return repository.findByTypeAndGuid(THING, guids.get(i % guids.size()))
+							.switchIfEmpty(Mono.error(new IllegalStateException("thing not found")))
+							.map(thing -> System.nanoTime() - start);
+				}, CONCURRENCY)
+				.collectList()
+				.block()
+				.stream()
+				.mapToLong(Long::longValue)
+				.toArray();
+	}
+
+	private static ThingEntity newThing() {
+		return ThingEntity.builder()
+				.guid(UUID.randomUUID().toString())
+				.type(THING)
+				.name(uniqueName())
+				.build();
+	}
+
+}
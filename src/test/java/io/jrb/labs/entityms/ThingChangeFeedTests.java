@@ -0,0 +1,70 @@
+package io.jrb.labs.entityms;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingChangeFeedTests {
+
+	private static final ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>> EVENT_TYPE =
+			new ParameterizedTypeReference<>() {};
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void subscriberIsSentTheCreateAndDeleteOfAThing() {
+		final String name = uniqueName();
+		// the response only starts once the first event is written, so the writes run once the feed is subscribed
+		Mono.delay(Duration.ofMillis(500))
+				.publishOn(Schedulers.boundedElastic())
+				.doOnNext(tick -> {
+					final Map<String, Object> thing = createThing(webTestClient, name, List.of(uniqueTag()));
+					webTestClient.delete().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+							.exchange()
+							.expectStatus().isNoContent();
+				})
+				.subscribe();
+
+		final Flux<ServerSentEvent<Map<String, Object>>> events = webTestClient
+				.mutate().responseTimeout(Duration.ofSeconds(10)).build()
+				.get().uri("/{entityType}/_changes", THING)
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(EVENT_TYPE)
+				.getResponseBody()
+				.filter(event -> event.data() != null && name.equals(event.data().get("name")));
+
+		StepVerifier.create(events)
+				.assertNext(event -> {
+					assertThat(event.event()).isEqualTo("created");
+					assertThat(event.id()).endsWith(":" + event.data().get("version"));
+				})
+				.assertNext(event -> assertThat(event.event()).isEqualTo("deleted"))
+				.thenCancel()
+				.verify(Duration.ofSeconds(10));
+	}
+
+}
@@ -0,0 +1,101 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.entityms.web.ThingHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingChangesTests {
+
+	private static final ParameterizedTypeReference<List<Map<String, Object>>> RESOURCES_TYPE =
+			new ParameterizedTypeReference<>() {};
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void changesReportADeletedThingByItsTombstone() {
+		final String since = Instant.now().toString();
+		final Map<String, Object> kept = createThing(webTestClient, uniqueName(), List.of(uniqueTag()));
+		final Map<String, Object> gone = createThing(webTestClient, uniqueName(), List.of(uniqueTag()));
+		webTestClient.delete().uri("/{entityType}/{guid}", THING, gone.get("guid"))
+				.exchange()
+				.expectStatus().isNoContent();
+
+		final List<Map<String, Object>> changes = changesOf(pageThrough("changedSince={since}", since),
+				List.of(kept.get("guid"), gone.get("guid")));
+
+		assertThat(changes).hasSize(2);
+		assertThat(changes.get(0)).containsEntry("guid", kept.get("guid")).doesNotContainKey("deleted");
+		assertThat(changes.get(1)).containsEntry("guid", gone.get("guid")).containsEntry("deleted", true);
+	}
+
+	@Test
+	void changesReportEveryThingOfABulkDelete() {
+		final String since = Instant.now().toString();
+		final String tag = uniqueTag();
+		final List<Object> guids = IntStream.range(0, 5)
+				.mapToObj(i -> createThing(webTestClient, uniqueName(), List.of(tag)).get("guid"))
+				.collect(Collectors.toList());
+		webTestClient.delete().uri("/{entityType}?tags={tag}", THING, tag)
+				.exchange()
+				.expectStatus().isOk();
+
+		final List<Map<String, Object>> changes = changesOf(
+				pageThrough("changedSince={since}&tags={tag}&fields=name", since, tag), guids);
+
+		assertThat(changes).hasSize(5)
+				.allSatisfy(change -> assertThat(change).containsEntry("deleted", true));
+	}
+
+	/**
+	 * Follows the watermark of each page of changes, two changes at a time, until a page comes back empty.
+	 */
+	private List<Map<String, Object>> pageThrough(final String query, final Object... values) {
+		final List<Map<String, Object>> changes = new ArrayList<>();
+		final Object[] pageValues = values.clone();
+		while (true) {
+			final EntityExchangeResult<List<Map<String, Object>>> page = webTestClient.get()
+					.uri("/" + THING + "?" + query + "&limit=2", pageValues)
+					.accept(MediaType.APPLICATION_JSON)
+					.exchange()
+					.expectStatus().isOk()
+					.expectBody(RESOURCES_TYPE)
+					.returnResult();
+			final List<Map<String, Object>> body = page.getResponseBody();
+			if (body == null || body.isEmpty()) {
+				return changes;
+			}
+			assertThat(body).hasSizeLessThanOrEqualTo(2);
+			changes.addAll(body);
+			pageValues[0] = page.getResponseHeaders().getFirst(ThingHandler.WATERMARK_HEADER);
+		}
+	}
+
+	private static List<Map<String, Object>> changesOf(final List<Map<String, Object>> changes, final List<?> guids) {
+		return changes.stream()
+				.filter(change -> guids.contains(change.get("guid")))
+				.collect(Collectors.toList());
+	}
+
+}
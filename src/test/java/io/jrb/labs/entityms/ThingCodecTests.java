@@ -0,0 +1,147 @@
+package io.jrb.labs.entityms;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "rate-limit.enabled=false"
+)
+@ActiveProfiles("test")
+class ThingCodecTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ThingCodecTests.class);
+
+	private static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+	private static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+	private static final String SMILE = "application/x-jackson-smile";
+
+	private static final Map<String, ObjectMapper> MAPPERS = Map.of(
+			JSON, new ObjectMapper(),
+			CBOR, new ObjectMapper(new CBORFactory()),
+			SMILE, new ObjectMapper(new SmileFactory())
+	);
+
+	private static final int MEASURED_THINGS = 50;
+	private static final int MEASURED_ROUNDS = 20;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@ParameterizedTest
+	@ValueSource(strings = {JSON, CBOR, SMILE})
+	void thingRoundTripsThroughCodec(final String mediaType) throws IOException {
+		final ObjectMapper mapper = MAPPERS.get(mediaType);
+		final String name = uniqueName();
+		final String tag = uniqueTag();
+
+		final byte[] created = webTestClient.post().uri("/{entityType}", THING)
+				.contentType(MediaType.parseMediaType(mediaType))
+				.accept(MediaType.parseMediaType(mediaType))
+				.bodyValue(mapper.writeValueAsBytes(Map.of("name", name, "tags", List.of(tag))))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.CREATED)
+				.expectHeader().contentTypeCompatibleWith(mediaType)
+				.expectBody(byte[].class)
+				.returnResult()
+				.getResponseBody();
+		final Map<String, Object> thing = mapper.readValue(created, new TypeReference<>() {});
+		assertThat(thing).containsEntry("name", name).containsEntry("tags", List.of(tag));
+
+		final byte[] found = webTestClient.get().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.accept(MediaType.parseMediaType(mediaType))
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(mediaType)
+				.expectBody(byte[].class)
+				.returnResult()
+				.getResponseBody();
+		assertThat(mapper.readValue(found, new TypeReference<Map<String, Object>>() {}))
+				.containsEntry("guid", thing.get("guid"))
+				.containsEntry("name", name);
+
+		final List<Map<String, Object>> listed = mapper.readValue(list(mediaType, "tags=" + tag), new TypeReference<>() {});
+		assertThat(listed).extracting(resource -> resource.get("name")).containsExactly(name);
+	}
+
+	@Test
+	void unsupportedAcceptIsNotAcceptable() {
+		webTestClient.get().uri("/{entityType}", THING)
+				.accept(MediaType.APPLICATION_XML)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+	}
+
+	@Test
+	void wildcardAcceptFallsBackToJson() {
+		webTestClient.get().uri("/{entityType}?limit=1", THING)
+				.accept(MediaType.ALL)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+	}
+
+	@Test
+	void binaryCodecsShrinkListingPayloads() throws IOException {
+		final String tag = uniqueTag();
+		IntStream.range(0, MEASURED_THINGS).forEach(i -> createThing(webTestClient, uniqueName(), List.of(tag)));
+		final String query = "tags=" + tag + "&projection=DETAILS";
+
+		final Map<String, Integer> sizes = new LinkedHashMap<>();
+		for (final String mediaType : List.of(JSON, CBOR, SMILE)) {
+			final ObjectMapper mapper = MAPPERS.get(mediaType);
+			final byte[] payload = list(mediaType, query);
+			final List<Object> resources = mapper.readValue(payload, new TypeReference<>() {});
+			assertThat(resources).hasSize(MEASURED_THINGS);
+
+			final long start = System.nanoTime();
+			for (int i = 0; i < MEASURED_ROUNDS; i++) {
+				mapper.writeValueAsBytes(mapper.readValue(payload, new TypeReference<List<Object>>() {}));
+			}
+			final long micros = (System.nanoTime() - start) / 1_000 / MEASURED_ROUNDS;
+			log.info("{}: {} bytes for {} things, {} us per decode/encode", mediaType, payload.length,
+					MEASURED_THINGS, micros);
+			sizes.put(mediaType, payload.length);
+		}
+
+		assertThat(sizes.get(CBOR)).isLessThan(sizes.get(JSON));
+		assertThat(sizes.get(SMILE)).isLessThan(sizes.get(JSON));
+	}
+
+	private byte[] list(final String mediaType, final String query) {
+		return webTestClient.get().uri("/" + THING + "?" + query)
+				.accept(MediaType.parseMediaType(mediaType))
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(mediaType)
+				.expectBody(byte[].class)
+				.returnResult()
+				.getResponseBody();
+	}
+
+}
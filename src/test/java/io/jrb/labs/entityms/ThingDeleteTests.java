@@ -0,0 +1,81 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.domain.Entity;
+import io.jrb.labs.common.repository.EntityFilter;
+import io.jrb.labs.common.repository.LookupValueRepository;
+import io.jrb.labs.entityms.repository.ThingEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.listThings;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingDeleteTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ThingEntityRepository thingEntityRepository;
+
+	@Autowired
+	private LookupValueRepository lookupValueRepository;
+
+	@Test
+	void deleteOfASingleThingRemovesIt() {
+		final Map<String, Object> thing = createThing(webTestClient, uniqueName(), List.of(uniqueTag()));
+
+		webTestClient.delete().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.exchange()
+				.expectStatus().isNoContent();
+
+		webTestClient.get().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void bulkDeleteRemovesEveryMatchingThingAcrossChunks() {
+		final String tag = uniqueTag();
+		IntStream.range(0, 5).forEach(i -> createThing(webTestClient, uniqueName(), List.of(tag)));
+		final Map<String, Object> survivor = createThing(webTestClient, uniqueName(), List.of(uniqueTag()));
+		final List<Long> ids = thingEntityRepository
+				.findByFilter(THING, EntityFilter.builder().detail("tags", List.of(tag)).build(), 100)
+				.map(Entity::getId)
+				.collectList()
+				.block();
+		assertThat(ids).hasSize(5);
+
+		webTestClient.delete().uri("/{entityType}?tags={tag}", THING, tag)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(Map.class).hasSize(5);
+
+		assertThat(listThings(webTestClient, "tags=" + tag)).isEmpty();
+		assertThat(lookupValueRepository.findByEntityIdIn(ids).collectList().block()).isEmpty();
+		webTestClient.get().uri("/{entityType}/{guid}", THING, survivor.get("guid"))
+				.exchange()
+				.expectStatus().isOk();
+	}
+
+	@Test
+	void bulkDeleteWithoutFilterIsRejected() {
+		webTestClient.delete().uri("/{entityType}", THING)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+}
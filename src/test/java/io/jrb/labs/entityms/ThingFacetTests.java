@@ -0,0 +1,84 @@
+package io.jrb.labs.entityms;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingFacetTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void countsEveryValueOfThePropertyAmongTheMatchingEntities() {
+		final String common = uniqueTag();
+		final String rare = uniqueTag();
+		createThing(webTestClient, uniqueName(), List.of(common, rare));
+		createThing(webTestClient, uniqueName(), List.of(common));
+		createThing(webTestClient, uniqueName(), List.of(common));
+
+		assertThat(facets("tags=" + common)).containsOnly(entry(common, 3L), entry(rare, 1L));
+	}
+
+	@Test
+	void countsAreScopedByTheFilter() {
+		final String common = uniqueTag();
+		final String rare = uniqueTag();
+		createThing(webTestClient, uniqueName(), List.of(common, rare));
+		createThing(webTestClient, uniqueName(), List.of(common));
+
+		assertThat(facets("tags=" + rare)).containsOnly(entry(common, 1L), entry(rare, 1L));
+	}
+
+	@Test
+	void writeInvalidatesTheCachedCounts() {
+		final String tag = uniqueTag();
+		createThing(webTestClient, uniqueName(), List.of(tag));
+		assertThat(facets("tags=" + tag)).containsOnly(entry(tag, 1L));
+
+		createThing(webTestClient, uniqueName(), List.of(tag));
+
+		assertThat(facets("tags=" + tag)).containsOnly(entry(tag, 2L));
+	}
+
+	@Test
+	void unknownPropertyIsRejected() {
+		webTestClient.get().uri("/{entityType}/_facets?property=bogus", THING)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+		webTestClient.get().uri("/{entityType}/_facets", THING)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	private Map<String, Long> facets(final String query) {
+		final Map<String, Object> response = webTestClient.get().uri("/" + THING + "/_facets?property=tags&" + query)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<Map<String, Object>>() {})
+				.returnResult()
+				.getResponseBody();
+		assertThat(response).containsEntry("entityType", THING).containsEntry("property", "tags");
+		return ((Map<?, ?>) response.get("counts")).entrySet().stream()
+				.collect(Collectors.toMap(count -> (String) count.getKey(),
+						count -> ((Number) count.getValue()).longValue()));
+	}
+
+}
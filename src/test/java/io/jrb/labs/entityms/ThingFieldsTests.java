@@ -0,0 +1,128 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.repository.LookupValueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.listThings;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingFieldsTests {
+
+	private static final AtomicInteger LOOKUP_READS = new AtomicInteger();
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	private String tag;
+	private Map<String, Object> thing;
+
+	@BeforeEach
+	void createThings() {
+		tag = uniqueTag();
+		thing = createThing(webTestClient, uniqueName(), List.of(tag));
+		createThing(webTestClient, uniqueName(), List.of(tag));
+		LOOKUP_READS.set(0);
+	}
+
+	@Test
+	void findReturnsOnlyTheRequestedFieldsInRequestOrder() {
+		final Map<String, Object> sparse = findThing("tags,version,name");
+
+		assertThat(sparse.keySet()).containsExactly("tags", "version", "name");
+		assertThat(sparse.get("name")).isEqualTo(thing.get("name"));
+		assertThat(sparse.get("tags")).isEqualTo(List.of(tag));
+	}
+
+	@Test
+	void listReturnsOnlyTheRequestedFieldsInRequestOrder() {
+		final List<Map<String, Object>> sparse = listThings(webTestClient, "tags=" + tag + "&fields=name,guid");
+
+		assertThat(sparse).hasSize(2)
+				.allSatisfy(resource -> assertThat(resource.keySet()).containsExactly("name", "guid"));
+	}
+
+	@Test
+	void unknownPropertyIsRejected() {
+		webTestClient.get().uri("/{entityType}/{guid}?fields=name,bogus", THING, thing.get("guid"))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+		webTestClient.get().uri("/{entityType}?fields=bogus", THING)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void lookupValuesAreOnlyReadWhenAPropertyIsRequested() {
+		findThing("guid,name");
+		listThings(webTestClient, "fields=guid,name");
+		assertThat(LOOKUP_READS).as("no property requested").hasValue(0);
+
+		findThing("name,tags");
+		assertThat(LOOKUP_READS.get()).isPositive();
+	}
+
+	private Map<String, Object> findThing(final String fields) {
+		return webTestClient.get().uri("/{entityType}/{guid}?fields={fields}", THING, thing.get("guid"), fields)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<Map<String, Object>>() {})
+				.returnResult()
+				.getResponseBody();
+	}
+
+	@TestConfiguration
+	static class LookupReadCounting {
+
+		/**
+		 * Wraps the lookup value repository so that every read through it is counted.
+		 */
+		@Bean
+		static BeanPostProcessor countLookupReads() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+					if (!(bean instanceof LookupValueRepository)) {
+						return bean;
+					}
+					return Proxy.newProxyInstance(LookupValueRepository.class.getClassLoader(),
+							new Class<?>[] {LookupValueRepository.class}, (proxy, method, args) -> {
+								if (method.getName().startsWith("find")) {
+									LOOKUP_READS.incrementAndGet();
+								}
+								try {
+									return method.invoke(bean, args);
+								} catch (InvocationTargetException e) {
+									throw e.getCause();
+								}
+							});
+				}
+			};
+		}
+
+	}
+
+}
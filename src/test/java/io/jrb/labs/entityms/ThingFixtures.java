@@ -0,0 +1,62 @@
+package io.jrb.labs.entityms;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+final class ThingFixtures {
+
+	static final String THING = "thing";
+
+	private static final ParameterizedTypeReference<Map<String, Object>> RESOURCE_TYPE =
+			new ParameterizedTypeReference<>() {};
+	private static final ParameterizedTypeReference<List<Map<String, Object>>> RESOURCES_TYPE =
+			new ParameterizedTypeReference<>() {};
+
+	private ThingFixtures() {
+	}
+
+	static String uniqueName() {
+		return "thing-" + UUID.randomUUID();
+	}
+
+	static String uniqueTag() {
+		return "tag-" + UUID.randomUUID();
+	}
+
+	static Map<String, Object> createThing(final WebTestClient client, final String name, final List<String> tags) {
+		return createEntity(client, THING, name, tags);
+	}
+
+	static Map<String, Object> createEntity(
+			final WebTestClient client,
+			final String entityType,
+			final String name,
+			final List<String> tags
+	) {
+		return client.post().uri("/{entityType}", entityType)
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("name", name, "tags", tags))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.CREATED)
+				.expectBody(RESOURCE_TYPE)
+				.returnResult()
+				.getResponseBody();
+	}
+
+	static List<Map<String, Object>> listThings(final WebTestClient client, final String query) {
+		return client.get().uri("/" + THING + "?" + query)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(RESOURCES_TYPE)
+				.returnResult()
+				.getResponseBody();
+	}
+
+}
@@ -0,0 +1,109 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.service.command.entity.ImportJobRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.listThings;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingImportTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ImportJobRegistry importJobRegistry;
+
+	@Test
+	void ndjsonImportCreatesEveryValidThing() {
+		final String tag = uniqueTag();
+		final List<String> names = IntStream.range(0, 5)
+				.mapToObj(i -> uniqueName())
+				.collect(Collectors.toList());
+		final String body = names.stream()
+				.map(name -> "{\"name\":\"" + name + "\",\"tags\":[\"" + tag + "\"]}")
+				.collect(Collectors.joining("\n", "", "\n"))
+				+ "{\"name\":\"x\",\"tags\":[\"" + tag + "\"]}\n";
+
+		webTestClient.post().uri("/{entityType}/_import", THING)
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.bodyValue(body)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().exists("Location")
+				.expectBody()
+				.jsonPath("$.status").isEqualTo("COMPLETED")
+				.jsonPath("$.received").isEqualTo(6)
+				.jsonPath("$.imported").isEqualTo(5)
+				.jsonPath("$.rejected").isEqualTo(1)
+				.jsonPath("$.failed").isEqualTo(0);
+
+		final List<Map<String, Object>> things = listThings(webTestClient, "tags=" + tag + "&projection=DETAILS");
+		assertThat(things).extracting(thing -> thing.get("name")).containsExactlyInAnyOrderElementsOf(names);
+		assertThat(things).allSatisfy(thing -> {
+			assertThat(thing.get("createdOn")).isNotNull();
+			assertThat(thing.get("updatedOn")).isEqualTo(thing.get("createdOn"));
+			assertThat(thing.get("version")).isEqualTo(1);
+			assertThat(thing.get("tags")).isEqualTo(List.of(tag));
+		});
+	}
+
+	@Test
+	void duplicateNameIsRejectedWithoutLosingTheRestOfItsChunk() {
+		final String tag = uniqueTag();
+		final String taken = uniqueName();
+		createThing(webTestClient, taken, List.of(tag));
+		final List<String> names = IntStream.range(0, 3)
+				.mapToObj(i -> uniqueName())
+				.collect(Collectors.toList());
+		final String body = "{\"name\":\"" + names.get(0) + "\",\"tags\":[\"" + tag + "\"]}\n"
+				+ "{\"name\":\"" + taken + "\",\"tags\":[\"" + tag + "\"]}\n"
+				+ "{\"name\":\"" + names.get(1) + "\",\"tags\":[\"" + tag + "\"]}\n"
+				+ "{\"name\":\"" + names.get(2) + "\",\"tags\":[\"" + tag + "\"]}\n";
+
+		webTestClient.post().uri("/{entityType}/_import", THING)
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.bodyValue(body)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.status").isEqualTo("COMPLETED")
+				.jsonPath("$.received").isEqualTo(4)
+				.jsonPath("$.imported").isEqualTo(3)
+				.jsonPath("$.rejected").isEqualTo(1)
+				.jsonPath("$.failed").isEqualTo(0)
+				.jsonPath("$.errors[0]").value(error -> assertThat((String) error).startsWith("record 2:"));
+
+		final List<Map<String, Object>> things = listThings(webTestClient, "tags=" + tag);
+		assertThat(things).extracting(thing -> thing.get("name"))
+				.containsExactlyInAnyOrder(taken, names.get(0), names.get(1), names.get(2));
+	}
+
+	@Test
+	void importToUnknownTypeIsRejectedBeforeAJobStarts() {
+		webTestClient.post().uri("/{entityType}/_import", "unknown")
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.bodyValue("{\"name\":\"" + uniqueName() + "\",\"tags\":[]}\n")
+				.exchange()
+				.expectStatus().isBadRequest();
+
+		assertThat(importJobRegistry.findAll("unknown")).isEmpty();
+	}
+
+}
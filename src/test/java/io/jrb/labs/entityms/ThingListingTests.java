@@ -0,0 +1,129 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.entityms.domain.ThingEntity;
+import io.jrb.labs.entityms.repository.ThingEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.listThings;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingListingTests {
+
+	private static final int PAGE_SIZE = 2;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ThingEntityRepository repository;
+
+	private Instant createdOn;
+
+	@BeforeEach
+	void pickCreationTime() {
+		// a creation time of its own, long past, keeps the rows of each test apart from those of every other test
+		createdOn = Instant.parse("2001-01-01T00:00:00Z")
+				.plusSeconds(ThreadLocalRandom.current().nextLong(100_000_000L) * 10);
+	}
+
+	@Test
+	void keysetPagingVisitsEveryEntitySharingASortKey() {
+		final List<String> guids = insertThings(5, createdOn);
+
+		assertThat(pageThrough("sort=createdOn&" + range(createdOn.minusSeconds(1), createdOn.plusSeconds(1))))
+				.isEqualTo(guids);
+	}
+
+	@Test
+	void descendingKeysetPagingVisitsEveryEntitySharingASortKey() {
+		final List<String> guids = insertThings(5, createdOn);
+		Collections.reverse(guids);
+
+		assertThat(pageThrough("sort=createdOn,desc&" + range(createdOn.minusSeconds(1), createdOn.plusSeconds(1))))
+				.isEqualTo(guids);
+	}
+
+	@Test
+	void rangeFilterHoldsAcrossPages() {
+		final Instant later = createdOn.plusSeconds(2);
+		insertThings(3, createdOn);
+		final List<String> inRange = insertThings(3, later);
+		insertThings(3, later.plusSeconds(2));
+
+		assertThat(pageThrough("sort=createdOn&" + range(later.minusSeconds(1), later.plusSeconds(1))))
+				.isEqualTo(inRange);
+	}
+
+	@Test
+	void listingRejectsInvalidLimit() {
+		list("limit=ten").expectStatus().isBadRequest();
+		list("limit=-1").expectStatus().isBadRequest();
+	}
+
+	@Test
+	void listingRejectsInvalidDate() {
+		list("createdAfter=yesterday").expectStatus().isBadRequest();
+		list("updatedBefore=2021-13-01").expectStatus().isBadRequest();
+	}
+
+	private List<String> insertThings(final int count, final Instant created) {
+		return repository.insertAll(IntStream.range(0, count)
+						.mapToObj(i -> ThingEntity.builder()
+								.guid(UUID.randomUUID().toString())
+								.type(THING)
+								.name(uniqueName())
+								.createdOn(created)
+								.updatedOn(created)
+								.build())
+						.collect(Collectors.toList()))
+				.map(ThingEntity::getGuid)
+				.collectList()
+				.block();
+	}
+
+	private List<String> pageThrough(final String query) {
+		final List<String> guids = new ArrayList<>();
+		String after = null;
+		while (true) {
+			final List<Map<String, Object>> page = listThings(webTestClient,
+					query + "&limit=" + PAGE_SIZE + (after != null ? "&after=" + after : ""));
+			assertThat(page).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+			if (page.isEmpty()) {
+				return guids;
+			}
+			page.forEach(thing -> guids.add((String) thing.get("guid")));
+			after = guids.get(guids.size() - 1);
+		}
+	}
+
+	private static String range(final Instant after, final Instant before) {
+		return "createdAfter=" + after + "&createdBefore=" + before;
+	}
+
+	private WebTestClient.ResponseSpec list(final String query) {
+		return webTestClient.get().uri("/" + THING + "?" + query)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange();
+	}
+
+}
@@ -0,0 +1,75 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.repository.EntityPartitions;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.listThings;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "entity-service.partitioned=true"
+)
+@ActiveProfiles("test")
+class ThingPartitionTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ConnectionFactory connectionFactory;
+
+	@Test
+	void thingIsStoredInTheSchemaOfItsType() {
+		final String name = uniqueName();
+		final String tag = uniqueTag();
+		createThing(webTestClient, name, List.of(tag));
+
+		assertThat(countByName(EntityPartitions.schemaFor(THING), name)).isEqualTo(1);
+		assertThat(countByName(EntityPartitions.DEFAULT_SCHEMA, name)).isZero();
+		assertThat(listThings(webTestClient, "tags=" + tag))
+				.extracting(thing -> thing.get("name"))
+				.containsExactly(name);
+	}
+
+	@Test
+	void queryWithoutAnEntityTypeFailsInsteadOfUsingTheDefaultSchema() {
+		StepVerifier.create(DatabaseClient.create(connectionFactory).sql("SELECT 1").fetch().one())
+				.expectErrorSatisfies(e -> assertThat(e).hasRootCauseInstanceOf(IllegalStateException.class))
+				.verify();
+	}
+
+	@Test
+	void databaseHealthIsCheckedWithoutAnEntityType() {
+		webTestClient.get().uri("/mgmt/health")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(Map.class)
+				.value(health -> assertThat(health.get("status")).isEqualTo("UP"));
+	}
+
+	private long countByName(final String schema, final String name) {
+		return DatabaseClient.create(connectionFactory)
+				.sql("SELECT COUNT(*) AS things FROM " + schema + ".t_thing WHERE th_name = :name")
+				.bind("name", name)
+				.map(row -> row.get("things", Long.class))
+				.one()
+				.contextWrite(EntityPartitions.forType(THING))
+				.block();
+	}
+
+}
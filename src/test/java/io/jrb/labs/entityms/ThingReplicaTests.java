@@ -0,0 +1,63 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.repository.ReadReplica;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+
+/**
+ * Runs against two in-memory databases that do not replicate to each other, so where a thing can be found tells
+ * which of them a read was routed to.
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"database.replica.max-lag=1h", "entity-service.interceptors=retry"}
+)
+@ActiveProfiles({"test", "replica"})
+class ThingReplicaTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private ReadReplica readReplica;
+
+	@Test
+	void readsGoToTheReplicaUntilAThingIsWritten() {
+		final String replicaOnly = UUID.randomUUID().toString();
+		DatabaseClient.create(readReplica.getConnectionFactory())
+				.sql("INSERT INTO t_thing (th_guid, th_type, th_name, th_created_on, th_updated_on, th_version)"
+						+ " VALUES (:guid, :type, :name, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1)")
+				.bind("guid", replicaOnly)
+				.bind("type", THING)
+				.bind("name", uniqueName())
+				.then()
+				.block();
+
+		webTestClient.get().uri("/{entityType}/{guid}", THING, replicaOnly)
+				.exchange()
+				.expectStatus().isOk();
+
+		final Map<String, Object> created = createThing(webTestClient, uniqueName(), List.of(uniqueTag()));
+
+		webTestClient.get().uri("/{entityType}/{guid}", THING, created.get("guid"))
+				.exchange()
+				.expectStatus().isOk();
+		webTestClient.get().uri("/{entityType}/{guid}", THING, replicaOnly)
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+}
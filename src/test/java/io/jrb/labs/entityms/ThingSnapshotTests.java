@@ -0,0 +1,135 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.snapshot.SnapshotReader;
+import io.jrb.labs.common.snapshot.SnapshotRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.DeflaterOutputStream;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createEntity;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingSnapshotTests {
+
+	private static final String ITEM = "item";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private SnapshotReader snapshotReader;
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void exportedSnapshotRestoresEveryEntity(final boolean deflated) {
+		IntStream.range(0, 3).forEach(i -> createEntity(webTestClient, ITEM, uniqueName(), List.of(uniqueTag())));
+
+		final byte[] snapshot = export(deflated);
+		final List<SnapshotRecord> exported = read(snapshot);
+		assertThat(exported).hasSizeGreaterThanOrEqualTo(3);
+
+		exported.forEach(record -> webTestClient.delete().uri("/{entityType}/{guid}", ITEM, record.getGuid())
+				.exchange()
+				.expectStatus().isNoContent());
+		assertThat(read(export(deflated))).isEmpty();
+
+		webTestClient.post().uri("/{entityType}/_import", ITEM)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.bodyValue(snapshot)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.imported").isEqualTo(exported.size());
+
+		assertThat(read(export(deflated))).containsExactlyInAnyOrderElementsOf(exported);
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void truncatedSnapshotIsRejected(final boolean deflated) {
+		createEntity(webTestClient, ITEM, uniqueName(), List.of(uniqueTag()));
+		final byte[] snapshot = export(deflated);
+		final byte[] truncated = new byte[snapshot.length - 1];
+		System.arraycopy(snapshot, 0, truncated, 0, truncated.length);
+
+		webTestClient.post().uri("/{entityType}/_import", ITEM)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.bodyValue(truncated)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void snapshotThatInflatesPastTheRecordLimitIsRejected() throws IOException {
+		final ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+		final DataOutputStream header = new DataOutputStream(bomb);
+		header.write(new byte[] {'E', 'M', 'S', 'S', 1, 1});
+		header.writeUTF(ITEM);
+		try (DataOutputStream records = new DataOutputStream(new DeflaterOutputStream(bomb))) {
+			records.writeInt(Integer.MAX_VALUE);
+			final byte[] zeros = new byte[64 * 1024];
+			for (int i = 0; i < 1024; i++) {
+				records.write(zeros);
+			}
+		}
+		assertThat(bomb.size()).as("64MB of records deflate to a small upload").isLessThan(1024 * 1024);
+
+		webTestClient.post().uri("/{entityType}/_import", ITEM)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.bodyValue(bomb.toByteArray())
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void snapshotOfAnotherTypeIsRejected() {
+		createEntity(webTestClient, THING, uniqueName(), List.of(uniqueTag()));
+		final byte[] snapshot = export(THING, false);
+
+		webTestClient.post().uri("/{entityType}/_import", ITEM)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.bodyValue(snapshot)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	private byte[] export(final boolean deflated) {
+		return export(ITEM, deflated);
+	}
+
+	private byte[] export(final String entityType, final boolean deflated) {
+		return webTestClient.get().uri("/{entityType}/_export?compression={compression}", entityType,
+						deflated ? "deflate" : "none")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(byte[].class)
+				.returnResult()
+				.getResponseBody();
+	}
+
+	private List<SnapshotRecord> read(final byte[] snapshot) {
+		return snapshotReader.read(Flux.just(new DefaultDataBufferFactory().wrap(snapshot)))
+				.collectList()
+				.block();
+	}
+
+}
@@ -0,0 +1,115 @@
+package io.jrb.labs.entityms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingSuggestTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	private String prefix;
+
+	@BeforeEach
+	void createThings() {
+		prefix = uniqueName();
+		List.of("-a", "-b", "-c").forEach(suffix -> createThing(webTestClient, prefix + suffix, List.of(uniqueTag())));
+	}
+
+	@Test
+	void suggestWithoutLimitReturnsEveryMatch() {
+		suggest("prefix={prefix}", prefix)
+				.expectStatus().isOk()
+				.expectBodyList(Map.class).hasSize(3);
+	}
+
+	@Test
+	void suggestClampsLimitToAtLeastOne() {
+		suggest("prefix={prefix}&limit=0", prefix)
+				.expectStatus().isOk()
+				.expectBodyList(Map.class).hasSize(1);
+		suggest("prefix={prefix}&limit=-5", prefix)
+				.expectStatus().isOk()
+				.expectBodyList(Map.class).hasSize(1);
+	}
+
+	@Test
+	void suggestClampsLimitToTheMaximum() {
+		suggest("prefix={prefix}&limit=100000", prefix)
+				.expectStatus().isOk()
+				.expectBodyList(Map.class).hasSize(3);
+	}
+
+	@Test
+	void suggestRejectsNonNumericLimit() {
+		suggest("prefix={prefix}&limit=ten", prefix)
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void renamedThingIsSuggestedByItsNewNameOnly() {
+		final Map<String, Object> thing = createThing(webTestClient, uniqueName(), List.of(uniqueTag()));
+		final String renamed = uniqueName();
+
+		webTestClient.patch().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, "\"" + thing.get("version") + "\"")
+				.bodyValue(Map.of("name", renamed))
+				.exchange()
+				.expectStatus().isOk();
+
+		suggest("prefix={prefix}", (String) thing.get("name"))
+				.expectStatus().isOk()
+				.expectBodyList(Map.class).hasSize(0);
+		suggest("prefix={prefix}", renamed)
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].guid").isEqualTo(thing.get("guid"))
+				.jsonPath("$[0].name").isEqualTo(renamed);
+	}
+
+	@Test
+	void deletedThingIsNoLongerSuggested() {
+		final String name = prefix + "-a";
+		final Object guid = suggestions(name).get(0).get("guid");
+
+		webTestClient.delete().uri("/{entityType}/{guid}", THING, guid)
+				.exchange()
+				.expectStatus().isNoContent();
+
+		assertThat(suggestions(prefix)).extracting(suggestion -> suggestion.get("name"))
+				.containsExactly(prefix + "-b", prefix + "-c");
+	}
+
+	private List<Map<String, Object>> suggestions(final String prefix) {
+		return suggest("prefix={prefix}", prefix)
+				.expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<List<Map<String, Object>>>() {})
+				.returnResult()
+				.getResponseBody();
+	}
+
+	private WebTestClient.ResponseSpec suggest(final String query, final String prefix) {
+		return webTestClient.get().uri("/{entityType}/_suggest?" + query, THING, prefix)
+				.exchange();
+	}
+
+}
@@ -0,0 +1,74 @@
+package io.jrb.labs.entityms;
+
+import io.jrb.labs.common.service.command.entity.TombstonePurger;
+import io.jrb.labs.entityms.web.ThingHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "entity-service.tombstone-retention=0s"
+)
+@ActiveProfiles("test")
+class ThingTombstoneTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private TombstonePurger tombstonePurger;
+
+	@Test
+	void purgedDeletionIsNoLongerListedAmongTheChanges() {
+		final String since = Instant.now().toString();
+		final String tag = uniqueTag();
+		final Map<String, Object> gone = createThing(webTestClient, uniqueName(), List.of(tag));
+		webTestClient.delete().uri("/{entityType}/{guid}", THING, gone.get("guid"))
+				.exchange()
+				.expectStatus().isNoContent();
+		assertThat(changes(since).getResponseBody())
+				.anySatisfy(change -> assertThat(change).containsEntry("guid", gone.get("guid")));
+
+		assertThat(tombstonePurger.purge().block()).isPositive();
+
+		assertThat(changes(since).getResponseBody())
+				.noneSatisfy(change -> assertThat(change).containsEntry("guid", gone.get("guid")));
+	}
+
+	@Test
+	void changesCarryTheOldestWatermarkStillValid() {
+		final Instant before = Instant.now();
+
+		final String oldest = changes(before.toString()).getResponseHeaders()
+				.getFirst(ThingHandler.OLDEST_WATERMARK_HEADER);
+
+		assertThat(oldest).isNotNull();
+		assertThat(Instant.parse(oldest)).as("retention of 0s").isAfterOrEqualTo(before);
+	}
+
+	private EntityExchangeResult<List<Map<String, Object>>> changes(final String since) {
+		return webTestClient.get().uri("/" + THING + "?changedSince={since}", since)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(new ParameterizedTypeReference<List<Map<String, Object>>>() {})
+				.returnResult();
+	}
+
+}
@@ -0,0 +1,93 @@
+package io.jrb.labs.entityms;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.jrb.labs.entityms.ThingFixtures.THING;
+import static io.jrb.labs.entityms.ThingFixtures.createThing;
+import static io.jrb.labs.entityms.ThingFixtures.uniqueName;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThingUpdateTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void updateWithoutIfMatchIsRejectedAsPreconditionRequired() {
+		final Map<String, Object> thing = createThing(webTestClient, uniqueName(), List.of("a"));
+
+		webTestClient.patch().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("name", uniqueName()))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+	}
+
+	@Test
+	void updateWithStaleVersionIsRejectedAsPreconditionFailed() {
+		final Map<String, Object> thing = createThing(webTestClient, uniqueName(), List.of("a"));
+		final long staleVersion = ((Number) thing.get("version")).longValue() + 1;
+
+		webTestClient.patch().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, "\"" + staleVersion + "\"")
+				.bodyValue(Map.of("name", uniqueName()))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@Test
+	void updateWithCurrentVersionAppliesTheLookupValueDiff() {
+		final Map<String, Object> thing = createThing(webTestClient, uniqueName(), List.of("a", "b"));
+		final long version = ((Number) thing.get("version")).longValue();
+		final String name = uniqueName();
+
+		webTestClient.patch().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+				.bodyValue(Map.of("name", name, "tags", List.of("b", "c"), "groups", List.of("g")))
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + (version + 1) + "\"")
+				.expectBody()
+				.jsonPath("$.name").isEqualTo(name)
+				.jsonPath("$.version").isEqualTo((int) (version + 1))
+				.jsonPath("$.tags").value(containsInAnyOrder("b", "c"))
+				.jsonPath("$.groups").value(containsInAnyOrder("g"));
+
+		webTestClient.get().uri("/{entityType}/{guid}?projection=DEEP", THING, thing.get("guid"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.tags").value(containsInAnyOrder("b", "c"))
+				.jsonPath("$.groups").value(containsInAnyOrder("g"));
+	}
+
+	@Test
+	void updateWithoutLookupValuesReturnsTheStoredOnes() {
+		final Map<String, Object> thing = createThing(webTestClient, uniqueName(), List.of("a", "b"));
+		final long version = ((Number) thing.get("version")).longValue();
+
+		webTestClient.patch().uri("/{entityType}/{guid}", THING, thing.get("guid"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+				.bodyValue(Map.of("name", uniqueName()))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.tags").value(containsInAnyOrder("a", "b"));
+	}
+
+}